@@ -0,0 +1,169 @@
+package sqlbuilder;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * Runs an UPDATE or DELETE in bounded chunks, so a large mutation does not hold locks on the whole table
+ * and the undo log or WAL only grows by one chunk at a time. The connection has to be in auto-commit mode,
+ * unless every chunk is committed by {@link #commitEachChunk()}.
+ * <p>
+ * The chunks are either limited by a number of rows, repeated until a chunk affects fewer rows, or by ranges
+ * of a numeric key column between the smallest and the largest key of the matching rows. Updates still match
+ * their rows after they are updated, so they can only be chunked by key ranges.
+ */
+public class ChunkedMutation {
+    public static final int DEFAULT_CHUNK_SIZE = 10_000;
+
+    private final MutationBuilder builder;
+    private int rows = DEFAULT_CHUNK_SIZE;
+    private String keyColumn = null;
+    private long keyRange = 0;
+    private Duration pause = Duration.ZERO;
+    private boolean commitEachChunk = false;
+
+    ChunkedMutation(MutationBuilder builder) {
+        this.builder = builder;
+    }
+
+    /**
+     * Limits every chunk to a number of rows
+     *
+     * @param rows The number of rows. All values smaller than 1 are interpreted as 1
+     */
+    public ChunkedMutation rows(int rows) {
+        if(!builder.supportsRowChunks()) {
+            throw new IllegalStateException("The chunks of an update must be limited by a key range");
+        }
+
+        this.rows = Math.max(rows, 1);
+        this.keyColumn = null;
+        return this;
+    }
+
+    /**
+     * Limits every chunk to a range of keys
+     *
+     * @param keyColumn The numeric key column
+     * @param keyRange The size of the key range of one chunk. All values smaller than 1 are interpreted as 1
+     */
+    public ChunkedMutation byKeyRange(String keyColumn, long keyRange) {
+        this.keyColumn = keyColumn;
+        this.keyRange = Math.max(keyRange, 1);
+        return this;
+    }
+
+    /**
+     * Sets a pause between two chunks to throttle the load on the database
+     *
+     * @param pause The pause
+     */
+    public ChunkedMutation pauseBetweenChunks(Duration pause) {
+        this.pause = pause == null || pause.isNegative() ? Duration.ZERO : pause;
+        return this;
+    }
+
+    /**
+     * Commits every chunk, so a connection that is not in auto-commit mode can be used
+     */
+    public ChunkedMutation commitEachChunk() {
+        this.commitEachChunk = true;
+        return this;
+    }
+
+    /**
+     * Executes the chunks until all rows are processed
+     *
+     * @param connection The connection the chunks are executed on
+     * @return the number of affected rows
+     * @throws SQLException if a chunk fails or the execution was interrupted during a pause. Chunks that were
+     * already committed stay committed
+     * @throws IllegalStateException if the connection is not in auto-commit mode and {@link #commitEachChunk()} is not set,
+     * or if an update is not chunked by a key range
+     */
+    public long execute(Connection connection) throws SQLException {
+        if(keyColumn == null && !builder.supportsRowChunks()) {
+            throw new IllegalStateException("The chunks of an update must be limited by a key range");
+        }
+        if(!commitEachChunk && !connection.getAutoCommit()) {
+            throw new IllegalStateException("The connection must be in auto-commit mode or every chunk must be committed");
+        }
+
+        return keyColumn == null ? executeByRows(connection) : executeByKeyRange(connection);
+    }
+
+    private long executeByRows(Connection connection) throws SQLException {
+        long affected = 0;
+        while(true) {
+            int chunkAffected = executeChunk(connection, builder.buildChunk(rows));
+            affected += chunkAffected;
+            if(chunkAffected < rows) {
+                return affected;
+            }
+            pause();
+        }
+    }
+
+    private long executeByKeyRange(Connection connection) throws SQLException {
+        Query keyBounds = builder.buildKeyBounds(keyColumn);
+        long[] bounds = Query.execute(keyBounds.getStatement(), () -> keyBounds.prepare(connection),
+                Deadline.current().orElse(Deadline.none()), (preparedStatement, watchdog) -> {
+                    try(ResultSet resultSet = preparedStatement.executeQuery()) {
+                        resultSet.next();
+                        long min = resultSet.getLong(1);
+                        // no matching rows
+                        return resultSet.wasNull() ? null : new long[]{min, resultSet.getLong(2)};
+                    }
+                }, result -> result == null ? 0 : 1);
+        if(bounds == null) {
+            return 0;
+        }
+
+        long lowerBound = bounds[0];
+        long maxKey = bounds[1];
+
+        long affected = 0;
+        while(true) {
+            // the bounds are inclusive and saturate instead of overflowing, so keys up to Long.MAX_VALUE are processed
+            long upperBound = Math.min(saturatedAdd(lowerBound, keyRange - 1), maxKey);
+            affected += executeChunk(connection, builder.buildChunk(keyColumn, lowerBound, upperBound));
+            if(upperBound == maxKey) {
+                return affected;
+            }
+            lowerBound = upperBound + 1;
+            pause();
+        }
+    }
+
+    private static long saturatedAdd(long value, long addend) {
+        try {
+            return Math.addExact(value, addend);
+        } catch(ArithmeticException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    private int executeChunk(Connection connection, Query chunk) throws SQLException {
+        int affected = chunk.executeUpdate(connection);
+
+        if(commitEachChunk && !connection.getAutoCommit()) {
+            connection.commit();
+        }
+        return affected;
+    }
+
+    private void pause() throws SQLException {
+        if(pause.isZero()) {
+            return;
+        }
+
+        try {
+            Thread.sleep(pause);
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Chunked mutation was interrupted", e);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package sqlbuilder;
+
+import sqlbuilder.dialects.SqlDialect;
+import sqlbuilder.exceptions.ValueCannotBeEmptyException;
+import sqlbuilder.exceptions.ValueCannotBeNullException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * A named sub query that is rendered once in the WITH clause of a statement and can be referenced
+ * by its name in the statement and in its sub queries.
+ */
+public class CommonTableExpression {
+    private final String name;
+    private final List<String> columns;
+    private final SelectBuilder query;
+    private final SelectBuilder recursiveQuery;
+
+    public CommonTableExpression(String name, List<String> columns, SelectBuilder query) {
+        this(name, columns, query, null);
+    }
+
+    /**
+     * Creates a recursive common table expression. The anchor query and the recursive query are chained by UNION ALL.
+     *
+     * @param name The name the expression is referenced by
+     * @param columns The column names of the expression. Can be empty if the columns are defined by the anchor query
+     * @param query The anchor query
+     * @param recursiveQuery The query that references the expression itself. Can be null for non-recursive expressions
+     */
+    public CommonTableExpression(String name, List<String> columns, SelectBuilder query, SelectBuilder recursiveQuery) {
+        if(name == null || name.isBlank()) {
+            throw new ValueCannotBeEmptyException("name");
+        }
+
+        if(query == null) {
+            throw new ValueCannotBeNullException("query");
+        }
+
+        this.name = name;
+        this.columns = columns == null ? List.of() : List.copyOf(columns);
+        this.query = query;
+        this.recursiveQuery = recursiveQuery;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isRecursive() {
+        return recursiveQuery != null;
+    }
+
+    public String toSql(SqlDialect dialect) {
+        StringJoiner sql = new StringJoiner(" ")
+                .add(name);
+        if(!columns.isEmpty()) {
+            sql.add("(" + String.join(", ", columns) + ")");
+        }
+
+        sql.add("AS")
+                .add("(")
+                .add(query.build().getStatement());
+        if(recursiveQuery != null) {
+            sql.add("UNION ALL")
+                    .add(recursiveQuery.build().getStatement());
+        }
+        sql.add(")");
+        return sql.toString();
+    }
+
+    public List<Object> getParameters() {
+        List<Object> parameters = new ArrayList<>(query.build().getParameters());
+        if(recursiveQuery != null) {
+            parameters.addAll(recursiveQuery.build().getParameters());
+        }
+        return parameters;
+    }
+}
@@ -0,0 +1,95 @@
+package sqlbuilder;
+
+import sqlbuilder.exceptions.ValueCannotBeNullException;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * A point in time after which a statement is cancelled. A deadline can be set for a scope with {@link #run(Scoped)},
+ * every statement executed by {@link Query} on the same thread within the scope inherits it.
+ * Nested scopes can only shorten the deadline.
+ * <p>
+ * A statement with a deadline is also cancelled when the executing thread is interrupted. Use {@link #none()}
+ * to cancel a statement on interrupt without limiting its duration.
+ */
+public final class Deadline {
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+    private static final Deadline NONE = new Deadline(0);
+
+    private final long deadlineNanos;
+
+    private Deadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    public static Deadline after(Duration timeout) {
+        if(timeout == null) {
+            throw new ValueCannotBeNullException("timeout");
+        }
+
+        return new Deadline(System.nanoTime() + timeout.toNanos());
+    }
+
+    /**
+     * Returns a deadline that never passes. Statements executed with it are only cancelled when the thread is interrupted.
+     */
+    public static Deadline none() {
+        return NONE;
+    }
+
+    /**
+     * @return the deadline of the current scope
+     */
+    public static Optional<Deadline> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    /**
+     * @return the remaining time, zero if the deadline has passed
+     */
+    public Duration remaining() {
+        if(isNone()) {
+            return Duration.ofNanos(Long.MAX_VALUE);
+        }
+
+        return Duration.ofNanos(Math.max(deadlineNanos - System.nanoTime(), 0));
+    }
+
+    public boolean isExpired() {
+        return !isNone() && deadlineNanos - System.nanoTime() <= 0;
+    }
+
+    /**
+     * @return true if this is the deadline that never passes
+     */
+    public boolean isNone() {
+        return this == NONE;
+    }
+
+    /**
+     * Runs the work with this deadline as deadline of the current thread. If an earlier deadline is already set
+     * the earlier one stays in effect.
+     *
+     * @param work The work
+     * @return the result of the work
+     */
+    public <T, E extends Exception> T run(Scoped<T, E> work) throws E {
+        Deadline previous = CURRENT.get();
+        CURRENT.set(previous != null && !previous.isNone() && (isNone() || previous.deadlineNanos - deadlineNanos < 0) ? previous : this);
+        try {
+            return work.run();
+        } finally {
+            if(previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface Scoped<T, E extends Exception> {
+        T run() throws E;
+    }
+}
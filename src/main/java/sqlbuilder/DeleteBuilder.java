@@ -0,0 +1,47 @@
+package sqlbuilder;
+
+import sqlbuilder.dialects.SqlDialect;
+import sqlbuilder.expressions.Condition;
+
+public class DeleteBuilder extends MutationBuilder {
+    public DeleteBuilder(SqlDialect dialect) {
+        this(dialect, null);
+    }
+
+    public DeleteBuilder(SqlDialect dialect, String schema) {
+        super(dialect, schema);
+    }
+
+    public DeleteBuilder from(String table) {
+        setTable(table);
+        return this;
+    }
+
+    /**
+     * Define conditions to limit the deleted rows.
+     * When called multiple times the conditions are chained together using an AND.
+     *
+     * @param condition The condition
+     */
+    public DeleteBuilder where(Condition condition) {
+        addCondition(condition);
+        return this;
+    }
+
+    public Query build() {
+        String condition = renderCondition();
+        String statement = "DELETE FROM " + getQualifiedTable() + (condition == null ? "" : " WHERE " + condition);
+        return new Query(statement, getConditionParameters());
+    }
+
+    @Override
+    public Query buildChunk(int rows) {
+        return new Query(dialect.limitDelete(getQualifiedTable(), renderCondition(), rows), getConditionParameters());
+    }
+
+    @Override
+    public Query buildChunk(String keyColumn, long lowerBound, long upperBound) {
+        String statement = "DELETE FROM " + getQualifiedTable() + " WHERE " + renderKeyRangeCondition(keyColumn);
+        return new Query(statement, getKeyRangeParameters(lowerBound, upperBound));
+    }
+}
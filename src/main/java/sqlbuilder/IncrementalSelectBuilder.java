@@ -0,0 +1,321 @@
+package sqlbuilder;
+
+import sqlbuilder.dialects.SqlDialect;
+import sqlbuilder.exceptions.ValueCannotBeEmptyException;
+import sqlbuilder.expressions.Condition;
+import sqlbuilder.hints.Hint;
+import sqlbuilder.identifiers.Column;
+import sqlbuilder.identifiers.Table;
+
+import java.util.*;
+import java.util.function.BiConsumer;
+
+/**
+ * Builds a select statement that is rebuilt often with small changes, e.g. by a filter screen that toggles single conditions.
+ * Every clause is cached with its rendered SQL and its parameters. A change marks only the changed clause as dirty,
+ * so {@link #build()} renders the dirty clauses and concatenates the cached SQL of all others.
+ * The conditions of the WHERE clause are identified by a key and cached one by one.
+ * <p>
+ * A condition is rendered when the statement is built for the first time after it was added.
+ * If a sub query of a condition is changed afterwards, the condition has to be set again.
+ * The statement is the same as the one of a {@link SelectBuilder} with the same clauses.
+ */
+public class IncrementalSelectBuilder {
+    private final SqlDialect dialect;
+    private final SelectBuilder structure;
+    private final Map<Clause, RenderedClause> renderedClauses = new EnumMap<>(Clause.class);
+    private final Map<String, WhereCondition> conditions = new LinkedHashMap<>();
+    private int statementLength = 256;
+
+    public IncrementalSelectBuilder(SqlDialect dialect) {
+        this(dialect, null);
+    }
+
+    public IncrementalSelectBuilder(SqlDialect dialect, String schema) {
+        this.dialect = dialect;
+        this.structure = new SelectBuilder(dialect, schema);
+    }
+
+    public IncrementalSelectBuilder with(String name, SelectBuilder query) {
+        structure.with(name, query);
+        return changed(Clause.SELECT);
+    }
+
+    public IncrementalSelectBuilder select(String... columns) {
+        structure.select(columns);
+        return changed(Clause.SELECT);
+    }
+
+    public IncrementalSelectBuilder select(String column) {
+        structure.select(column);
+        return changed(Clause.SELECT);
+    }
+
+    public IncrementalSelectBuilder select(Column column, Column... columns) {
+        structure.select(column, columns);
+        return changed(Clause.SELECT);
+    }
+
+    public IncrementalSelectBuilder select(Class<? extends Record> type) {
+        structure.select(type);
+        return changed(Clause.SELECT);
+    }
+
+    public IncrementalSelectBuilder strictProjection() {
+        structure.strictProjection();
+        return changed(Clause.SELECT);
+    }
+
+    public IncrementalSelectBuilder distinct() {
+        structure.distinct();
+        return changed(Clause.SELECT);
+    }
+
+    /**
+     * Removes all columns and the DISTINCT keyword, so the select list can be defined anew
+     */
+    public IncrementalSelectBuilder clearColumns() {
+        structure.clearColumns();
+        return changed(Clause.SELECT);
+    }
+
+    public IncrementalSelectBuilder from(String... tables) {
+        structure.from(tables);
+        return changed(Clause.SELECT);
+    }
+
+    public IncrementalSelectBuilder from(String table) {
+        structure.from(table);
+        return changed(Clause.SELECT);
+    }
+
+    public IncrementalSelectBuilder from(Table table, Table... tables) {
+        structure.from(table, tables);
+        return changed(Clause.SELECT);
+    }
+
+    public IncrementalSelectBuilder join(String table, Condition joinCondition) {
+        structure.join(table, joinCondition);
+        return changed(Clause.JOINS);
+    }
+
+    public IncrementalSelectBuilder join(Table table, Condition joinCondition) {
+        structure.join(table, joinCondition);
+        return changed(Clause.JOINS);
+    }
+
+    public IncrementalSelectBuilder leftJoin(String table, Condition joinCondition) {
+        structure.leftJoin(table, joinCondition);
+        return changed(Clause.JOINS);
+    }
+
+    public IncrementalSelectBuilder leftJoin(Table table, Condition joinCondition) {
+        structure.leftJoin(table, joinCondition);
+        return changed(Clause.JOINS);
+    }
+
+    public IncrementalSelectBuilder clearJoins() {
+        structure.clearJoins();
+        return changed(Clause.JOINS);
+    }
+
+    /**
+     * Adds hints for the optimizer. Hints are rendered in several clauses, so all of them except the WHERE clause are rendered again.
+     *
+     * @param hints The hints
+     */
+    public IncrementalSelectBuilder hint(Hint... hints) {
+        structure.hint(hints);
+        return changed(Clause.SELECT).changed(Clause.JOINS).changed(Clause.PAGING);
+    }
+
+    /**
+     * Sets a condition of the WHERE clause. All conditions are chained together using an AND in the order their keys were added.
+     * Setting a condition for an existing key replaces the condition and keeps its position.
+     *
+     * @param key The key that identifies the condition
+     * @param condition The condition. If null the condition of the key is removed
+     */
+    public IncrementalSelectBuilder where(String key, Condition condition) {
+        if(key == null || key.isEmpty()) {
+            throw new ValueCannotBeEmptyException("key");
+        }
+
+        if(condition == null) {
+            return removeWhere(key);
+        }
+
+        WhereCondition whereCondition = conditions.get(key);
+        if(whereCondition == null) {
+            conditions.put(key, new WhereCondition(condition));
+        } else if(whereCondition.condition != condition) {
+            whereCondition.condition = condition;
+            whereCondition.rendered = null;
+        }
+        return this;
+    }
+
+    public IncrementalSelectBuilder removeWhere(String key) {
+        conditions.remove(key);
+        return this;
+    }
+
+    public IncrementalSelectBuilder clearWhere() {
+        conditions.clear();
+        return this;
+    }
+
+    public boolean hasWhere(String key) {
+        return conditions.containsKey(key);
+    }
+
+    public IncrementalSelectBuilder groupBy(String... columns) {
+        structure.groupBy(columns);
+        return changed(Clause.GROUP_BY);
+    }
+
+    public IncrementalSelectBuilder having(Condition condition) {
+        structure.having(condition);
+        return changed(Clause.GROUP_BY);
+    }
+
+    /**
+     * Removes the GROUP BY and the HAVING clause
+     */
+    public IncrementalSelectBuilder clearGroupBy() {
+        structure.clearGroupBy();
+        return changed(Clause.GROUP_BY);
+    }
+
+    public IncrementalSelectBuilder orderBy(String... columns) {
+        structure.orderBy(columns);
+        return changed(Clause.ORDER_BY);
+    }
+
+    public IncrementalSelectBuilder orderBy(Column column, Column... columns) {
+        structure.orderBy(column, columns);
+        return changed(Clause.ORDER_BY);
+    }
+
+    public IncrementalSelectBuilder desc() {
+        structure.desc();
+        return changed(Clause.ORDER_BY);
+    }
+
+    public IncrementalSelectBuilder asc() {
+        structure.asc();
+        return changed(Clause.ORDER_BY);
+    }
+
+    /**
+     * Removes the order columns and the order direction
+     */
+    public IncrementalSelectBuilder clearOrderBy() {
+        structure.clearOrderBy();
+        return changed(Clause.ORDER_BY);
+    }
+
+    public IncrementalSelectBuilder limit(int limit) {
+        structure.limit(limit);
+        return changed(Clause.PAGING);
+    }
+
+    public IncrementalSelectBuilder offset(int offset) {
+        structure.offset(offset);
+        return changed(Clause.PAGING);
+    }
+
+    /**
+     * Builds the statement. Only the clauses and conditions that changed since the last build are rendered.
+     *
+     * @return the query
+     */
+    public Query build() {
+        StringBuilder statement = new StringBuilder(statementLength);
+        List<Object> parameters = new ArrayList<>();
+
+        append(statement, parameters, getRendered(Clause.SELECT));
+        append(statement, parameters, getRendered(Clause.JOINS));
+        if(!conditions.isEmpty()) {
+            statement.append(" WHERE");
+            String separator = " ";
+            for(WhereCondition whereCondition : conditions.values()) {
+                RenderedClause rendered = whereCondition.render(dialect);
+                statement.append(separator).append(rendered.sql());
+                parameters.addAll(rendered.parameters());
+                separator = " AND ";
+            }
+        }
+        append(statement, parameters, getRendered(Clause.GROUP_BY));
+        append(statement, parameters, getRendered(Clause.ORDER_BY));
+        append(statement, parameters, getRendered(Clause.PAGING));
+
+        statementLength = Math.max(statementLength, statement.length());
+        return new Query(statement.toString(), parameters);
+    }
+
+    private static void append(StringBuilder statement, List<Object> parameters, RenderedClause rendered) {
+        if(rendered.sql().isEmpty()) {
+            return;
+        }
+
+        if(!statement.isEmpty()) {
+            statement.append(' ');
+        }
+        statement.append(rendered.sql());
+        parameters.addAll(rendered.parameters());
+    }
+
+    private RenderedClause getRendered(Clause clause) {
+        RenderedClause rendered = renderedClauses.get(clause);
+        if(rendered == null) {
+            SelectBuilder.StatementBuffer buffer = new SelectBuilder.StatementBuffer();
+            List<Object> parameters = new ArrayList<>();
+            clause.renderer.accept(structure, new RenderTarget(buffer, parameters));
+            rendered = new RenderedClause(buffer.toString(), parameters);
+            renderedClauses.put(clause, rendered);
+        }
+        return rendered;
+    }
+
+    private IncrementalSelectBuilder changed(Clause clause) {
+        renderedClauses.remove(clause);
+        return this;
+    }
+
+    private enum Clause {
+        SELECT((builder, target) -> builder.renderSelect(target.buffer(), target.parameters())),
+        JOINS((builder, target) -> builder.renderJoins(target.buffer(), target.parameters())),
+        GROUP_BY((builder, target) -> builder.renderGroupBy(target.buffer(), target.parameters())),
+        ORDER_BY((builder, target) -> builder.renderOrderBy(target.buffer())),
+        PAGING((builder, target) -> builder.renderPaging(target.buffer()));
+
+        private final BiConsumer<SelectBuilder, RenderTarget> renderer;
+
+        Clause(BiConsumer<SelectBuilder, RenderTarget> renderer) {
+            this.renderer = renderer;
+        }
+    }
+
+    private record RenderTarget(SelectBuilder.StatementBuffer buffer, List<Object> parameters) {
+    }
+
+    private record RenderedClause(String sql, List<Object> parameters) {
+    }
+
+    private static class WhereCondition {
+        private Condition condition;
+        private RenderedClause rendered = null;
+
+        WhereCondition(Condition condition) {
+            this.condition = condition;
+        }
+
+        RenderedClause render(SqlDialect dialect) {
+            if(rendered == null) {
+                rendered = new RenderedClause(condition.toSql(dialect), new ArrayList<>(condition.getParameters()));
+            }
+            return rendered;
+        }
+    }
+}
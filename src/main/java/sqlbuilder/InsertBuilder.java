@@ -0,0 +1,198 @@
+package sqlbuilder;
+
+import sqlbuilder.dialects.SqlDialect;
+import sqlbuilder.exceptions.ValueCannotBeEmptyException;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.*;
+
+/**
+ * Builds INSERT statements with multiple rows in the VALUES clause. The rows are split into as many statements
+ * as needed to stay within the bind parameter limit of the dialect. Dialects without multi-row VALUES get one
+ * statement per row, and {@link #execute(Connection)} sends them as a JDBC batch.
+ */
+public class InsertBuilder {
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
+    private final SqlDialect dialect;
+    private final String schema;
+
+    private String table = null;
+    private final Rows rows = new Rows();
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
+    public InsertBuilder(SqlDialect dialect) {
+        this(dialect, null);
+    }
+
+    public InsertBuilder(SqlDialect dialect, String schema) {
+        this.dialect = dialect;
+        this.schema = Schemas.normalize(schema);
+    }
+
+    public InsertBuilder into(String table) {
+        if(table == null || table.isBlank()) {
+            throw new ValueCannotBeEmptyException("table");
+        }
+
+        this.table = table;
+        return this;
+    }
+
+    /**
+     * Defines the columns of the rows. If no columns are defined, they are taken from the first row
+     * that is added as map or record.
+     *
+     * @param columns The columns
+     */
+    public InsertBuilder columns(String... columns) {
+        rows.setColumns(columns);
+        return this;
+    }
+
+    public InsertBuilder row(Object... values) {
+        return row(Arrays.asList(values));
+    }
+
+    /**
+     * Adds a row. The values have to be in the order of the columns.
+     *
+     * @param values The values of the row
+     */
+    public InsertBuilder row(List<?> values) {
+        rows.add(values);
+        return this;
+    }
+
+    /**
+     * Adds a row. Columns that are not contained in the map are inserted as NULL.
+     *
+     * @param values The values of the row by their column
+     * @throws IllegalArgumentException if the map contains a key that is not one of the columns
+     */
+    public InsertBuilder row(Map<String, ?> values) {
+        rows.add(values);
+        return this;
+    }
+
+    /**
+     * Adds a row. The record components are used as columns.
+     *
+     * @param values The record holding the values of the row
+     */
+    public InsertBuilder row(Record values) {
+        rows.add(values);
+        return this;
+    }
+
+    /**
+     * Adds multiple rows. Every row can be a list of values, a map or a record.
+     *
+     * @param rows The rows
+     */
+    public InsertBuilder rows(Collection<?> rows) {
+        this.rows.addAll(rows);
+        return this;
+    }
+
+    /**
+     * Sets how many rows are sent in one JDBC batch when the dialect does not support multi-row VALUES
+     *
+     * @param batchSize The number of rows. All values smaller than 1 are interpreted as 1
+     */
+    public InsertBuilder batchSize(int batchSize) {
+        this.batchSize = Math.max(batchSize, 1);
+        return this;
+    }
+
+    /**
+     * Returns how many rows are inserted by one statement
+     *
+     * @return the number of rows per statement
+     */
+    public int getRowsPerStatement() {
+        if(!dialect.supportsMultiRowValues()) {
+            return 1;
+        }
+
+        return rows.getRowsPerStatement(dialect.getMaxBindParameters(), dialect.getMaxRowsPerInsert());
+    }
+
+    /**
+     * Builds the INSERT statements. Each statement holds at most {@link #getRowsPerStatement()} rows.
+     *
+     * @return the statements in the order of the rows
+     */
+    public List<Query> build() {
+        validate();
+
+        return rows.toQueries(getRowsPerStatement(), this::renderStatement);
+    }
+
+    /**
+     * Inserts all rows. If the dialect supports multi-row VALUES, every statement of {@link #build()} is executed.
+     * Otherwise the rows are sent as JDBC batches of {@link #batchSize(int)} rows.
+     *
+     * @param connection The connection used to insert the rows
+     * @return the number of inserted rows
+     * @throws SQLException if an insert fails
+     */
+    public int execute(Connection connection) throws SQLException {
+        if(dialect.supportsMultiRowValues()) {
+            int inserted = 0;
+            for(Query query : build()) {
+                inserted += query.executeUpdate(connection);
+            }
+            return inserted;
+        }
+
+        validate();
+        String statement = renderStatement(1);
+        return Query.execute(statement, () -> connection.prepareStatement(statement), Deadline.current().orElse(Deadline.none()),
+                (preparedStatement, watchdog) -> {
+                    int inserted = 0;
+                    int batched = 0;
+                    for(List<Object> row : rows.getRows()) {
+                        Query.bindValues(preparedStatement, row);
+                        preparedStatement.addBatch();
+                        if(++batched == batchSize) {
+                            inserted += countInsertedRows(preparedStatement.executeBatch());
+                            watchdog.checkCancelled();
+                            batched = 0;
+                        }
+                    }
+
+                    if(batched > 0) {
+                        inserted += countInsertedRows(preparedStatement.executeBatch());
+                    }
+                    return inserted;
+                }, Integer::longValue);
+    }
+
+    private static int countInsertedRows(int[] updateCounts) {
+        int inserted = 0;
+        for(int updateCount : updateCounts) {
+            // the driver may not report the count, but every batch entry inserts exactly one row
+            inserted += updateCount == Statement.SUCCESS_NO_INFO ? 1 : updateCount;
+        }
+        return inserted;
+    }
+
+    private void validate() {
+        if(table == null) {
+            throw new IllegalStateException("A table to insert into must be specified");
+        }
+
+        if(rows.isEmpty()) {
+            throw new IllegalStateException("At least one row must be added");
+        }
+    }
+
+    private String renderStatement(int rowCount) {
+        return "INSERT INTO " + Schemas.qualify(schema, table)
+                + " (" + String.join(", ", rows.getColumns()) + ") VALUES "
+                + rows.renderPlaceholders(rowCount);
+    }
+}
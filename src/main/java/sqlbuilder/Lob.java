@@ -0,0 +1,157 @@
+package sqlbuilder;
+
+import sqlbuilder.exceptions.ValueCannotBeNullException;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * A large value that is streamed to the database when the statement is bound instead of being held as a String.
+ * It can be used as parameter value or as value of a condition or a row. Populated statements show a placeholder
+ * with the length, the content is never read for logging.
+ * <p>
+ * A stream can only be read once, so a statement with a stream value can only be executed once.
+ * A buffer is streamed anew on every bind, so a statement with a buffer value can be executed any number of times.
+ */
+public sealed interface Lob {
+    /**
+     * @return the length in bytes or characters
+     */
+    long length();
+
+    void bind(PreparedStatement preparedStatement, int index) throws SQLException;
+
+    /**
+     * @param stream The stream of the content
+     * @param length The number of bytes of the stream
+     */
+    static Lob binary(InputStream stream, long length) {
+        return new Binary(stream, length);
+    }
+
+    /**
+     * Streams the remaining bytes of the buffer without copying them. The position of the buffer is not changed.
+     *
+     * @param buffer The buffer holding the content
+     */
+    static Lob binary(ByteBuffer buffer) {
+        if(buffer == null) {
+            throw new ValueCannotBeNullException("buffer");
+        }
+
+        // later changes of the position and limit of the caller's buffer do not change the content
+        return new BinaryBuffer(buffer.duplicate());
+    }
+
+    /**
+     * @param reader The reader of the content
+     * @param length The number of characters of the reader
+     */
+    static Lob characters(Reader reader, long length) {
+        return new Characters(reader, length);
+    }
+
+    record Binary(InputStream stream, long length) implements Lob {
+        public Binary {
+            if(stream == null) {
+                throw new ValueCannotBeNullException("stream");
+            }
+
+            if(length < 0) {
+                throw new IllegalArgumentException("The length must not be negative");
+            }
+        }
+
+        @Override
+        public void bind(PreparedStatement preparedStatement, int index) throws SQLException {
+            preparedStatement.setBinaryStream(index, stream, length);
+        }
+
+        @Override
+        public String toString() {
+            return "<binary stream of " + length + " bytes>";
+        }
+    }
+
+    record BinaryBuffer(ByteBuffer buffer) implements Lob {
+        public BinaryBuffer {
+            if(buffer == null) {
+                throw new ValueCannotBeNullException("buffer");
+            }
+        }
+
+        @Override
+        public long length() {
+            return buffer.remaining();
+        }
+
+        @Override
+        public void bind(PreparedStatement preparedStatement, int index) throws SQLException {
+            // every bind reads its own view of the buffer, so the value can be bound again
+            preparedStatement.setBinaryStream(index, new ByteBufferInputStream(buffer.duplicate()), length());
+        }
+
+        @Override
+        public String toString() {
+            return "<binary stream of " + length() + " bytes>";
+        }
+
+        private static final class ByteBufferInputStream extends InputStream {
+            private final ByteBuffer buffer;
+
+            private ByteBufferInputStream(ByteBuffer buffer) {
+                this.buffer = buffer;
+            }
+
+            @Override
+            public int read() {
+                return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+            }
+
+            @Override
+            public int read(byte[] bytes, int offset, int length) {
+                if(length == 0) {
+                    return 0;
+                }
+
+                if(!buffer.hasRemaining()) {
+                    return -1;
+                }
+
+                int count = Math.min(length, buffer.remaining());
+                buffer.get(bytes, offset, count);
+                return count;
+            }
+
+            @Override
+            public int available() {
+                return buffer.remaining();
+            }
+        }
+    }
+
+    record Characters(Reader reader, long length) implements Lob {
+        public Characters {
+            if(reader == null) {
+                throw new ValueCannotBeNullException("reader");
+            }
+
+            if(length < 0) {
+                throw new IllegalArgumentException("The length must not be negative");
+            }
+        }
+
+        @Override
+        public void bind(PreparedStatement preparedStatement, int index) throws SQLException {
+            preparedStatement.setCharacterStream(index, reader, length);
+        }
+
+        @Override
+        public String toString() {
+            return "<character stream of " + length + " chars>";
+        }
+    }
+}
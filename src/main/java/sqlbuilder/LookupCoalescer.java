@@ -0,0 +1,236 @@
+package sqlbuilder;
+
+import sqlbuilder.exceptions.ValueCannotBeEmptyException;
+import sqlbuilder.exceptions.ValueCannotBeNullException;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static sqlbuilder.expressions.Expression.in;
+
+/**
+ * Merges point lookups by a key column that arrive within a short window into one query with an IN condition.
+ * Each caller gets a future that is completed with the rows of its key once the merged query has run.
+ * This turns the N single row queries of an N+1 access pattern into a few batched queries.
+ * <p>
+ * A batch is executed when the window of its first lookup has passed or when it holds the maximum number
+ * of distinct keys, whichever comes first. Lookups of the same key within a batch share one slot.
+ *
+ * @param <K> The type of the key
+ * @param <R> The type of the mapped rows
+ */
+public class LookupCoalescer<K, R> implements AutoCloseable {
+    public static final Duration DEFAULT_WINDOW = Duration.ofMillis(2);
+    public static final int DEFAULT_MAX_BATCH_SIZE = 500;
+
+    private final DataSource dataSource;
+    private final Supplier<SelectBuilder> query;
+    private final String keyColumn;
+    private final RowMapper<R> rowMapper;
+    private final Function<R, K> keyOf;
+    private final ScheduledExecutorService scheduler;
+
+    private volatile Duration window = DEFAULT_WINDOW;
+    private volatile int maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+    private volatile Executor executor;
+    private volatile boolean closed = false;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private Map<K, List<CompletableFuture<List<R>>>> pending = new LinkedHashMap<>();
+    private ScheduledFuture<?> scheduledFlush = null;
+
+    /**
+     * @param dataSource The data source the merged queries are executed on
+     * @param query Creates the query without the key condition, e.g. the selected columns and the table.
+     *              The IN condition on the key column is added to every query it returns
+     * @param keyColumn The column that is looked up
+     * @param rowMapper Maps a row of the result
+     * @param keyOf Returns the key of a mapped row, it has to be equal to the key that was looked up
+     */
+    public LookupCoalescer(DataSource dataSource, Supplier<SelectBuilder> query, String keyColumn, RowMapper<R> rowMapper, Function<R, K> keyOf) {
+        if(dataSource == null) {
+            throw new ValueCannotBeNullException("dataSource");
+        }
+
+        if(query == null) {
+            throw new ValueCannotBeNullException("query");
+        }
+
+        if(rowMapper == null) {
+            throw new ValueCannotBeNullException("rowMapper");
+        }
+
+        if(keyOf == null) {
+            throw new ValueCannotBeNullException("keyOf");
+        }
+
+        if(keyColumn == null || keyColumn.isBlank()) {
+            throw new ValueCannotBeEmptyException("keyColumn");
+        }
+
+        this.dataSource = dataSource;
+        this.query = query;
+        this.keyColumn = keyColumn;
+        this.rowMapper = rowMapper;
+        this.keyOf = keyOf;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                .name("lookup-coalescer")
+                .daemon()
+                .factory());
+        this.executor = scheduler;
+    }
+
+    /**
+     * Sets how long lookups are collected after the first lookup of a batch
+     *
+     * @param window The collection window. A zero window still merges the lookups that arrive until the batch is taken
+     */
+    public LookupCoalescer<K, R> window(Duration window) {
+        if(window == null || window.isNegative()) {
+            throw new IllegalArgumentException("The window must not be negative");
+        }
+
+        this.window = window;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of distinct keys of a batch. A full batch is executed without waiting for the window.
+     * The value has to stay within the bind parameter limit of the dialect.
+     *
+     * @param maxBatchSize The number of keys. All values smaller than 1 are interpreted as 1
+     */
+    public LookupCoalescer<K, R> maxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = Math.max(maxBatchSize, 1);
+        return this;
+    }
+
+    /**
+     * Sets the executor the merged queries run on. By default they run on the thread that collects the batches,
+     * so a slow query delays the next batch.
+     *
+     * @param executor The executor running the queries
+     */
+    public LookupCoalescer<K, R> executor(Executor executor) {
+        if(executor == null) {
+            throw new ValueCannotBeNullException("executor");
+        }
+
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * Looks up the rows with the key. The lookup is merged with the other lookups of the current batch.
+     *
+     * @param key The value of the key column
+     * @return a future completed with the matching rows, or completed exceptionally if the merged query failed
+     */
+    public CompletableFuture<List<R>> load(K key) {
+        if(key == null) {
+            throw new ValueCannotBeNullException("key");
+        }
+
+        CompletableFuture<List<R>> future = new CompletableFuture<>();
+        Map<K, List<CompletableFuture<List<R>>>> fullBatch = null;
+        lock.lock();
+        try {
+            if(closed) {
+                throw new IllegalStateException("The coalescer is closed");
+            }
+
+            pending.computeIfAbsent(key, k -> new ArrayList<>(1)).add(future);
+            if(pending.size() >= maxBatchSize) {
+                fullBatch = takePending();
+            } else if(scheduledFlush == null) {
+                scheduledFlush = scheduler.schedule(this::flush, window.toNanos(), TimeUnit.NANOSECONDS);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if(fullBatch != null) {
+            submit(fullBatch);
+        }
+        return future;
+    }
+
+    /**
+     * Executes the pending lookups without waiting for the window to pass
+     */
+    public void flush() {
+        Map<K, List<CompletableFuture<List<R>>>> batch;
+        lock.lock();
+        try {
+            batch = takePending();
+        } finally {
+            lock.unlock();
+        }
+
+        if(!batch.isEmpty()) {
+            submit(batch);
+        }
+    }
+
+    /**
+     * Executes the pending lookups and stops collecting new ones
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+        } finally {
+            lock.unlock();
+        }
+
+        flush();
+        scheduler.shutdown();
+    }
+
+    private Map<K, List<CompletableFuture<List<R>>>> takePending() {
+        Map<K, List<CompletableFuture<List<R>>>> batch = pending;
+        pending = new LinkedHashMap<>();
+        if(scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        return batch;
+    }
+
+    private void submit(Map<K, List<CompletableFuture<List<R>>>> batch) {
+        try {
+            executor.execute(() -> execute(batch));
+        } catch(RejectedExecutionException e) {
+            // the scheduler is already shut down on close, so the last batch runs on the closing thread
+            execute(batch);
+        }
+    }
+
+    private void execute(Map<K, List<CompletableFuture<List<R>>>> batch) {
+        Map<K, List<R>> rowsByKey = new HashMap<>();
+        try {
+            Query merged = query.get()
+                    .where(in(keyColumn, new ArrayList<>(batch.keySet())))
+                    .build();
+            for(R row : merged.executeQuery(dataSource, rowMapper)) {
+                rowsByKey.computeIfAbsent(keyOf.apply(row), k -> new ArrayList<>()).add(row);
+            }
+        } catch(SQLException | RuntimeException e) {
+            batch.values().forEach(futures -> futures.forEach(future -> future.completeExceptionally(e)));
+            return;
+        }
+
+        batch.forEach((key, futures) -> {
+            List<R> rows = rowsByKey.get(key);
+            List<R> result = rows == null ? List.of() : Collections.unmodifiableList(rows);
+            futures.forEach(future -> future.complete(result));
+        });
+    }
+}
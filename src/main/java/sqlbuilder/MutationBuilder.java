@@ -0,0 +1,131 @@
+package sqlbuilder;
+
+import sqlbuilder.dialects.SqlDialect;
+import sqlbuilder.exceptions.ValueCannotBeEmptyException;
+import sqlbuilder.expressions.Condition;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Base of the builders that change existing rows. The rows are selected by conditions and the mutation can
+ * be executed in chunks through {@link ChunkedMutation}.
+ */
+abstract class MutationBuilder {
+    protected final SqlDialect dialect;
+    private final String schema;
+    private final List<Condition> conditions = new ArrayList<>();
+    private String table = null;
+
+    protected MutationBuilder(SqlDialect dialect, String schema) {
+        this.dialect = dialect;
+        this.schema = Schemas.normalize(schema);
+    }
+
+    protected void setTable(String table) {
+        if(table == null || table.isBlank()) {
+            throw new ValueCannotBeEmptyException("table");
+        }
+
+        this.table = table;
+    }
+
+    protected void addCondition(Condition condition) {
+        if(condition != null) {
+            conditions.add(condition);
+        }
+    }
+
+    protected String getQualifiedTable() {
+        if(table == null) {
+            throw new IllegalStateException("A table must be specified");
+        }
+
+        return Schemas.qualify(schema, table);
+    }
+
+    /**
+     * Renders the conditions chained by AND
+     *
+     * @return the condition or null if no condition is defined
+     */
+    protected String renderCondition() {
+        if(conditions.isEmpty()) {
+            return null;
+        }
+
+        return new Condition.CompositeCondition("AND", conditions).toSql(dialect);
+    }
+
+    protected List<Object> getConditionParameters() {
+        return new Condition.CompositeCondition("AND", conditions).getParameters();
+    }
+
+    /**
+     * Renders the conditions restricted to a half-open range of keys
+     *
+     * @param keyColumn The numeric key column
+     * @return the condition
+     */
+    protected String renderKeyRangeCondition(String keyColumn) {
+        String range = keyColumn + " >= ? AND " + keyColumn + " <= ?";
+        String condition = renderCondition();
+        return condition == null ? range : "(" + condition + ") AND " + range;
+    }
+
+    protected List<Object> getKeyRangeParameters(long lowerBound, long upperBound) {
+        List<Object> parameters = new ArrayList<>(getConditionParameters());
+        parameters.add(lowerBound);
+        parameters.add(upperBound);
+        return parameters;
+    }
+
+    /**
+     * Builds the query for the smallest and the largest key of the rows matching the conditions
+     *
+     * @param keyColumn The numeric key column
+     * @return the query selecting MIN and MAX of the key
+     */
+    Query buildKeyBounds(String keyColumn) {
+        String condition = renderCondition();
+        String statement = "SELECT MIN(" + keyColumn + "), MAX(" + keyColumn + ") FROM " + getQualifiedTable()
+                + (condition == null ? "" : " WHERE " + condition);
+        return new Query(statement, getConditionParameters());
+    }
+
+    /**
+     * @return whether the mutation can be chunked by a number of rows. The rows have to no longer match
+     * the conditions after they were mutated, otherwise the chunks never end
+     */
+    protected boolean supportsRowChunks() {
+        return true;
+    }
+
+    /**
+     * Builds the mutation for at most the given number of rows
+     *
+     * @param rows The maximum number of rows
+     * @return the row limited mutation
+     */
+    public abstract Query buildChunk(int rows);
+
+    /**
+     * Builds the mutation for the rows with a key in the range [lowerBound, upperBound]. The upper bound is inclusive,
+     * so the range can end at {@link Long#MAX_VALUE}
+     *
+     * @param keyColumn The numeric key column
+     * @param lowerBound The inclusive lower bound
+     * @param upperBound The inclusive upper bound
+     * @return the mutation of the key range
+     */
+    public abstract Query buildChunk(String keyColumn, long lowerBound, long upperBound);
+
+    /**
+     * Returns an executor that runs the mutation in bounded chunks until all rows are processed
+     *
+     * @return the chunked mutation
+     */
+    public ChunkedMutation chunked() {
+        return new ChunkedMutation(this);
+    }
+}
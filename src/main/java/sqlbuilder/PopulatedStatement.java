@@ -0,0 +1,141 @@
+package sqlbuilder;
+
+import sqlbuilder.dialects.SqlDialect;
+import sqlbuilder.expressions.Operand;
+
+import java.util.List;
+
+/**
+ * A statement with its parameters inlined as literals. The statement is only rendered when it is read,
+ * so passing it to a disabled logger costs nothing. The rendered output is bounded: long literals and
+ * long lists of values are shortened and the whole statement is cut after a maximum length.
+ */
+public class PopulatedStatement implements CharSequence {
+    public static final int UNLIMITED = Integer.MAX_VALUE;
+    public static final int DEFAULT_MAX_LENGTH = 4096;
+    public static final int DEFAULT_MAX_LITERAL_LENGTH = 256;
+    public static final int DEFAULT_MAX_LIST_VALUES = 20;
+
+    private static final String LIST_SEPARATOR = ", ";
+
+    private final String statement;
+    private final List<Object> parameters;
+    private final SqlDialect dialect;
+    private final int maxLength;
+    private final int maxLiteralLength;
+    private final int maxListValues;
+    private volatile String rendered = null;
+
+    PopulatedStatement(String statement, List<Object> parameters, SqlDialect dialect) {
+        this(statement, parameters, dialect, DEFAULT_MAX_LENGTH, DEFAULT_MAX_LITERAL_LENGTH, DEFAULT_MAX_LIST_VALUES);
+    }
+
+    /**
+     * @param statement The prepared statement
+     * @param parameters The parameters of the statement
+     * @param dialect The dialect used to render the literals
+     * @param maxLength The maximum length of the rendered statement without the truncation marker
+     * @param maxLiteralLength The maximum length of a single value before it is shortened
+     * @param maxListValues The maximum number of values rendered for a list of values, e.g. of an IN condition
+     */
+    PopulatedStatement(String statement, List<Object> parameters, SqlDialect dialect, int maxLength, int maxLiteralLength, int maxListValues) {
+        this.statement = statement;
+        this.parameters = parameters;
+        this.dialect = dialect;
+        this.maxLength = Math.max(maxLength, 1);
+        this.maxLiteralLength = Math.max(maxLiteralLength, 1);
+        this.maxListValues = Math.max(maxListValues, 1);
+    }
+
+    @Override
+    public int length() {
+        return render().length();
+    }
+
+    @Override
+    public char charAt(int index) {
+        return render().charAt(index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return render().subSequence(start, end);
+    }
+
+    @Override
+    public String toString() {
+        return render();
+    }
+
+    private String render() {
+        String result = rendered;
+        if(result == null) {
+            result = populate();
+            rendered = result;
+        }
+        return result;
+    }
+
+    private String populate() {
+        StringBuilder populated = new StringBuilder(Math.min(statement.length() + parameters.size() * 8, maxLength) + 16);
+        int segmentStart = 0;
+        int parameterIndex = 0;
+        int listValues = 0;
+        int omittedValues = 0;
+
+        while(populated.length() <= maxLength) {
+            int placeholder = statement.indexOf('?', segmentStart);
+            int segmentEnd = placeholder < 0 ? statement.length() : placeholder;
+            boolean continuesList = parameterIndex > 0 && isListSeparator(segmentStart, segmentEnd);
+            listValues = continuesList ? listValues + 1 : 1;
+
+            if(continuesList && listValues > maxListValues) {
+                omittedValues++;
+            } else {
+                if(omittedValues > 0) {
+                    populated.append(LIST_SEPARATOR).append("... [+").append(omittedValues).append(" values]");
+                    omittedValues = 0;
+                }
+                populated.append(statement, segmentStart, segmentEnd);
+            }
+
+            if(placeholder < 0) {
+                break;
+            }
+
+            if(omittedValues == 0) {
+                populated.append(parameterIndex < parameters.size() ? toLiteral(parameters.get(parameterIndex)) : "?");
+            }
+            parameterIndex++;
+            segmentStart = placeholder + 1;
+        }
+
+        if(populated.length() > maxLength) {
+            populated.setLength(maxLength);
+            populated.append("... [truncated]");
+        }
+        return populated.toString();
+    }
+
+    private boolean isListSeparator(int start, int end) {
+        return end - start == LIST_SEPARATOR.length() && statement.startsWith(LIST_SEPARATOR, start);
+    }
+
+    private String toLiteral(Object parameter) {
+        Object value = parameter;
+        if(parameter instanceof Operand.Parameter.Param param) {
+            if(param.getValue() == null) {
+                // parameter without a value stays a placeholder
+                return "?";
+            }
+            value = param.getRawValue();
+        }
+
+        if(value instanceof CharSequence text && text.length() > maxLiteralLength) {
+            int omittedChars = text.length() - maxLiteralLength;
+            String literal = dialect.toLiteral(text.subSequence(0, maxLiteralLength).toString());
+            return literal.substring(0, literal.length() - 1) + "...' [+" + omittedChars + " chars]";
+        }
+        return dialect.toLiteral(value);
+    }
+}
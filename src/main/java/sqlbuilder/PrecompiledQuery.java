@@ -0,0 +1,159 @@
+package sqlbuilder;
+
+import sqlbuilder.expressions.Operand;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The final statement text and parameter layout of a static query. Precompiled queries are generated at build time
+ * by {@link sqlbuilder.precompile.QueryPrecompiler}, so at runtime no builder is allocated and nothing is rendered.
+ * Every parameter slot holds either a constant value or the key of a named parameter that is bound on execution.
+ */
+public final class PrecompiledQuery {
+    private final String statement;
+    private final Object[] values;
+    private final String[] parameterKeys;
+
+    /**
+     * @param statement The prepared statement
+     * @param values The constant value of every parameter slot. Slots of named parameters are ignored
+     * @param parameterKeys The key of every parameter slot that holds a named parameter, null for slots holding a constant value
+     */
+    public PrecompiledQuery(String statement, Object[] values, String[] parameterKeys) {
+        if(values.length != parameterKeys.length) {
+            throw new IllegalArgumentException("values and parameterKeys must have the same length");
+        }
+
+        this.statement = statement;
+        this.values = values.clone();
+        this.parameterKeys = parameterKeys.clone();
+    }
+
+    /**
+     * Captures the statement and parameter layout of a built query
+     *
+     * @param query The query
+     * @return the precompiled query
+     */
+    public static PrecompiledQuery of(Query query) {
+        List<Object> parameters = query.getParameters();
+        Object[] values = new Object[parameters.size()];
+        String[] parameterKeys = new String[parameters.size()];
+        for(int i = 0; i < parameters.size(); i++) {
+            if(parameters.get(i) instanceof Operand.Parameter.Param parameter) {
+                parameterKeys[i] = parameter.getNameKey();
+            } else {
+                values[i] = parameters.get(i);
+            }
+        }
+        return new PrecompiledQuery(query.getStatement(), values, parameterKeys);
+    }
+
+    public String getStatement() {
+        return statement;
+    }
+
+    public List<Object> getValues() {
+        return Arrays.asList(values.clone());
+    }
+
+    public List<String> getParameterKeysPerSlot() {
+        return Arrays.asList(parameterKeys.clone());
+    }
+
+    /**
+     * @return the keys of all named parameters in the order of their first slot
+     */
+    public List<String> getParameterKeys() {
+        LinkedHashSet<String> keys = new LinkedHashSet<>();
+        for(String key : parameterKeys) {
+            if(key != null) {
+                keys.add(key);
+            }
+        }
+        return new ArrayList<>(keys);
+    }
+
+    public PreparedStatement prepare(Connection connection) throws SQLException {
+        return prepare(connection, Map.of());
+    }
+
+    /**
+     * Creates a prepared statement and binds the constant values and the named parameters
+     *
+     * @param connection The connection the statement is prepared on
+     * @param namedValues The values of the named parameters by their key
+     * @return the prepared statement. The caller is responsible for closing it
+     * @throws SQLException if the statement cannot be prepared
+     * @throws IllegalStateException if a named parameter has no value
+     */
+    public PreparedStatement prepare(Connection connection, Map<String, ?> namedValues) throws SQLException {
+        PreparedStatement preparedStatement = connection.prepareStatement(statement);
+        try {
+            bindParameters(preparedStatement, namedValues);
+        } catch(SQLException | RuntimeException e) {
+            preparedStatement.close();
+            throw e;
+        }
+        return preparedStatement;
+    }
+
+    /**
+     * Executes the query with the deadline of the current scope. The execution is watched and recorded like {@link Query#executeQuery(Connection, RowMapper)}
+     *
+     * @param connection The connection the query is executed on
+     * @param namedValues The values of the named parameters by their key
+     * @param rowMapper Maps the rows
+     * @return the mapped rows
+     * @throws SQLException if the query fails, is cancelled or times out
+     */
+    public <R> List<R> executeQuery(Connection connection, Map<String, ?> namedValues, RowMapper<R> rowMapper) throws SQLException {
+        return Query.execute(statement, () -> prepare(connection, namedValues), Deadline.current().orElse(Deadline.none()),
+                (preparedStatement, watchdog) -> {
+                    List<R> rows = new ArrayList<>();
+                    try(ResultSet resultSet = preparedStatement.executeQuery()) {
+                        while(resultSet.next()) {
+                            watchdog.checkCancelled();
+                            rows.add(rowMapper.map(resultSet));
+                        }
+                    }
+                    return rows;
+                }, List::size);
+    }
+
+    /**
+     * Executes a statement that writes with the deadline of the current scope
+     *
+     * @param connection The connection the statement is executed on
+     * @param namedValues The values of the named parameters by their key
+     * @return the number of affected rows
+     * @throws SQLException if the statement fails, is cancelled or times out
+     */
+    public int executeUpdate(Connection connection, Map<String, ?> namedValues) throws SQLException {
+        return Query.execute(statement, () -> prepare(connection, namedValues), Deadline.current().orElse(Deadline.none()),
+                (preparedStatement, watchdog) -> preparedStatement.executeUpdate(), Integer::longValue);
+    }
+
+    public void bindParameters(PreparedStatement preparedStatement, Map<String, ?> namedValues) throws SQLException {
+        List<Object> parameters = new ArrayList<>(values.length);
+        for(int i = 0; i < values.length; i++) {
+            String key = parameterKeys[i];
+            if(key == null) {
+                parameters.add(values[i]);
+            } else if(namedValues.containsKey(key)) {
+                parameters.add(namedValues.get(key));
+            } else {
+                throw new IllegalStateException("Parameter with key '%s' has no value!".formatted(key));
+            }
+        }
+        Query.bindValues(preparedStatement, parameters);
+    }
+}
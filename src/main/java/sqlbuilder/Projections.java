@@ -0,0 +1,96 @@
+package sqlbuilder;
+
+import sqlbuilder.exceptions.ValueCannotBeNullException;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Derives the select list from the type a row is mapped to, so only the columns that are read are transferred.
+ */
+public class Projections {
+    private Projections() {
+    }
+
+    /**
+     * @param type The record a row is mapped to
+     * @return the names of the record components
+     */
+    public static List<String> of(Class<? extends Record> type) {
+        return new RecordMapper<>(type).getColumns();
+    }
+
+    /**
+     * Returns the columns a mapper reads. The mapper is called once with a result set that records the column labels
+     * and returns NULL for every column, so it has to read all its columns independent of their values.
+     *
+     * @param mapper The mapper
+     * @return the column labels in the order they are read
+     * @throws IllegalStateException if the mapper reads columns by index or fails on NULL values
+     */
+    public static List<String> of(RowMapper<?> mapper) {
+        if(mapper == null) {
+            throw new ValueCannotBeNullException("mapper");
+        }
+
+        if(mapper instanceof RecordMapper<?> recordMapper) {
+            return recordMapper.getColumns();
+        }
+
+        Set<String> columns = new LinkedHashSet<>();
+        ResultSet recorder = (ResultSet) Proxy.newProxyInstance(Projections.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> record(columns, method, args));
+        try {
+            mapper.map(recorder);
+        } catch(SQLException | RuntimeException e) {
+            throw new IllegalStateException("The columns read by the mapper cannot be derived", e);
+        }
+
+        if(columns.isEmpty()) {
+            throw new IllegalStateException("The mapper does not read any column by its label");
+        }
+        return List.copyOf(columns);
+    }
+
+    private static Object record(Set<String> columns, Method method, Object[] args) {
+        String name = method.getName();
+        if(name.equals("wasNull")) {
+            return true;
+        }
+
+        if(!name.startsWith("get") || args == null || args.length == 0) {
+            throw new UnsupportedOperationException("ResultSet." + name + " is not supported while deriving the columns of a mapper");
+        }
+
+        if(!(args[0] instanceof String column)) {
+            throw new UnsupportedOperationException("Columns read by index cannot be derived");
+        }
+
+        columns.add(column);
+        return defaultValue(method.getReturnType());
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if(!type.isPrimitive()) {
+            return null;
+        } else if(type == boolean.class) {
+            return false;
+        } else if(type == int.class) {
+            return 0;
+        } else if(type == long.class) {
+            return 0L;
+        } else if(type == double.class) {
+            return 0d;
+        } else if(type == float.class) {
+            return 0f;
+        } else if(type == short.class) {
+            return (short) 0;
+        }
+        return (byte) 0;
+    }
+}
@@ -1,16 +1,28 @@
 package sqlbuilder;
 
+import sqlbuilder.columnar.ColumnarResult;
 import sqlbuilder.dialects.SqlDialect;
+import sqlbuilder.explain.PlanNode;
+import sqlbuilder.spill.SpillableResult;
 import sqlbuilder.expressions.Operand;
+import sqlbuilder.statistics.QueryStatistics;
 
-import java.lang.reflect.Parameter;
+import javax.sql.DataSource;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.function.ToLongFunction;
 
 public class Query {
+    private static volatile QueryStatistics statistics = QueryStatistics.global();
+
     private final String statement;
     private final List<Object> parameters = new ArrayList<>();
 
@@ -19,6 +31,21 @@ public class Query {
         this.parameters.addAll(parameters);
     }
 
+    /**
+     * Sets the registry every execution of a statement by the library is recorded in, including inserts, upserts, chunked mutations
+     * and {@link PrecompiledQuery} executions. Statements executed on a {@link PreparedStatement} returned by a {@code prepare}
+     * method are not recorded. By default the executions are recorded in {@link QueryStatistics#global()}.
+     *
+     * @param statistics The registry or null to not record the executions
+     */
+    public static void setStatistics(QueryStatistics statistics) {
+        Query.statistics = statistics;
+    }
+
+    public static QueryStatistics getStatistics() {
+        return statistics;
+    }
+
     public void setParameter(String parameterKey, String value) {
         Operand.Parameter.Param parameter = getParameterForKey(parameterKey);
         parameter.setValue(value);
@@ -34,6 +61,26 @@ public class Query {
         parameter.setValue(value);
     }
 
+    /**
+     * Sets a large value that is streamed when the statement is bound, see {@link Lob}
+     */
+    public void setParameter(String parameterKey, Lob value) {
+        Operand.Parameter.Param parameter = getParameterForKey(parameterKey);
+        parameter.setValue(value);
+    }
+
+    public void setParameter(String parameterKey, InputStream value, long length) {
+        setParameter(parameterKey, Lob.binary(value, length));
+    }
+
+    public void setParameter(String parameterKey, Reader value, long length) {
+        setParameter(parameterKey, Lob.characters(value, length));
+    }
+
+    public void setParameter(String parameterKey, ByteBuffer value) {
+        setParameter(parameterKey, Lob.binary(value));
+    }
+
     private Operand.Parameter.Param getParameterForKey(String parameterKey) {
         return parameters.stream()
                 .filter(param -> param instanceof Operand.Parameter.Param)
@@ -51,40 +98,263 @@ public class Query {
         return statement;
     }
 
+    /**
+     * Returns the statement with all parameters inlined. The output is not shortened.
+     * For logging use {@link #populated(SqlDialect)} instead.
+     *
+     * @param dialect The dialect used to render the values
+     * @return the populated statement
+     */
     public String getPopulatedStatement(SqlDialect dialect) {
-        StringBuffer populatedStatement = new StringBuffer();
-        Matcher matcher = Pattern.compile("\\?").matcher(statement);
+        return populated(dialect, PopulatedStatement.UNLIMITED, PopulatedStatement.UNLIMITED, PopulatedStatement.UNLIMITED).toString();
+    }
+
+    /**
+     * Returns a lazy view of the statement with all parameters inlined that is only rendered when it is read.
+     * The output is shortened using the default limits of {@link PopulatedStatement}.
+     *
+     * @param dialect The dialect used to render the values
+     * @return the populated statement
+     */
+    public PopulatedStatement populated(SqlDialect dialect) {
+        return new PopulatedStatement(statement, parameters, dialect);
+    }
+
+    public PopulatedStatement populated(SqlDialect dialect, int maxLength, int maxLiteralLength, int maxListValues) {
+        return new PopulatedStatement(statement, parameters, dialect, maxLength, maxLiteralLength, maxListValues);
+    }
+
+    /**
+     * Creates a prepared statement for the statement and binds all parameters
+     *
+     * @param connection The connection the statement is prepared on
+     * @return the prepared statement. The caller is responsible for closing it
+     * @throws SQLException if the statement cannot be prepared
+     * @throws IllegalStateException if a named parameter has no value
+     */
+    public PreparedStatement prepare(Connection connection) throws SQLException {
+        PreparedStatement preparedStatement = connection.prepareStatement(statement);
+        try {
+            bindParameters(preparedStatement);
+        } catch(SQLException | RuntimeException e) {
+            preparedStatement.close();
+            throw e;
+        }
+        return preparedStatement;
+    }
 
-        for(Object param : parameters) {
-            String parameterValue;
-            if(param instanceof Operand.Parameter.Param parameter) {
+    public void bindParameters(PreparedStatement preparedStatement) throws SQLException {
+        bindValues(preparedStatement, parameters);
+    }
+
+    static void bindValues(PreparedStatement preparedStatement, List<Object> values) throws SQLException {
+        for(int i = 0; i < values.size(); i++) {
+            Object value = values.get(i);
+            if(value instanceof Operand.Parameter.Param parameter) {
                 if(parameter.getValue() == null) {
-                    // move the matcher forward to ignore prepared statement parameter
-                    matcher.find();
-                    continue;
+                    throw new IllegalStateException("Parameter with key '%s' has no value!".formatted(parameter.getNameKey()));
                 }
+                value = parameter.getRawValue();
+            }
 
-                parameterValue = parameter.toSqlValue(dialect);
+            if(value == null) {
+                preparedStatement.setNull(i + 1, Types.NULL);
+            } else if(value instanceof Lob lob) {
+                lob.bind(preparedStatement, i + 1);
             } else {
-                parameterValue = param instanceof String ? "'%s'".formatted(param) : param.toString();
+                preparedStatement.setObject(i + 1, value);
             }
-            replacePreparedParameter(matcher, populatedStatement, parameterValue);
         }
+    }
 
-        matcher.appendTail(populatedStatement);
-        return populatedStatement.toString();
+    /**
+     * Executes the query with the deadline of the current scope, see {@link Deadline#run(Deadline.Scoped)}
+     *
+     * @param connection The connection the query is executed on
+     * @param rowMapper Maps the rows
+     * @return the mapped rows
+     * @throws SQLException if the query fails, is cancelled or times out
+     */
+    public <R> List<R> executeQuery(Connection connection, RowMapper<R> rowMapper) throws SQLException {
+        return executeQuery(connection, rowMapper, Deadline.current().orElse(Deadline.none()));
+    }
+
+    /**
+     * Executes the query. The statement is cancelled when the deadline passes or the thread is interrupted,
+     * which throws a {@link java.sql.SQLTimeoutException} or a {@link SQLException}.
+     *
+     * @param connection The connection the query is executed on
+     * @param rowMapper Maps the rows
+     * @param deadline The deadline, {@link Deadline#none()} if the query is only cancelled on interrupt
+     * @return the mapped rows
+     * @throws SQLException if the query fails, is cancelled or times out
+     */
+    public <R> List<R> executeQuery(Connection connection, RowMapper<R> rowMapper, Deadline deadline) throws SQLException {
+        return executeQuery(connection, deadline, (resultSet, watchdog) -> {
+            List<R> rows = new ArrayList<>();
+            while(resultSet.next()) {
+                watchdog.checkCancelled();
+                rows.add(rowMapper.map(resultSet));
+            }
+            return rows;
+        }, List::size);
     }
 
-    private void replacePreparedParameter(Matcher matcher, StringBuffer buffer, String replacement) {
-        if(!matcher.find()) {
-            return;
+    /**
+     * Executes the query with the deadline of the current scope and reads the rows into one array per column.
+     * Use it for large results of numeric columns, see {@link ColumnarResult}.
+     *
+     * @param connection The connection the query is executed on
+     * @return the columnar result
+     * @throws SQLException if the query fails, is cancelled or times out
+     */
+    public ColumnarResult executeColumnar(Connection connection) throws SQLException {
+        return executeQuery(connection, Deadline.current().orElse(Deadline.none()), (resultSet, watchdog) -> {
+            ColumnarResult result = ColumnarResult.read(resultSet);
+            watchdog.checkCancelled();
+            return result;
+        }, ColumnarResult::getRowCount);
+    }
+
+    /**
+     * Executes the query with the deadline of the current scope and holds the rows for multiple passes.
+     * Rows beyond the memory threshold are written to a temporary file, see {@link SpillableResult}.
+     *
+     * @param connection The connection the query is executed on
+     * @param memoryThreshold The estimated size in bytes above which the rows are written to a file
+     * @return the result, which has to be closed to delete the file
+     * @throws SQLException if the query fails, is cancelled or times out
+     */
+    public SpillableResult executeSpillable(Connection connection, long memoryThreshold) throws SQLException {
+        return executeQuery(connection, Deadline.current().orElse(Deadline.none()), (resultSet, watchdog) -> {
+            SpillableResult result = SpillableResult.read(resultSet, memoryThreshold);
+            if(watchdog.isCancelled()) {
+                result.close();
+                watchdog.checkCancelled();
+            }
+            return result;
+        }, SpillableResult::size);
+    }
+
+    private <T> T executeQuery(Connection connection, Deadline deadline, ResultReader<T> reader, ToLongFunction<T> rowCount) throws SQLException {
+        return execute(statement, () -> prepare(connection), deadline, (preparedStatement, watchdog) -> {
+            try(ResultSet resultSet = preparedStatement.executeQuery()) {
+                return reader.read(resultSet, watchdog);
+            }
+        }, rowCount);
+    }
+
+    /**
+     * Executes a prepared statement while it is watched for the deadline and interrupts and records the execution
+     * in the statistics. All statements of the library are executed by this method, statements that are not a single
+     * query or update, like JDBC batches, pass their own work.
+     *
+     * @param statement The statement the execution is recorded for
+     * @param preparer Prepares the statement and binds its parameters
+     * @param deadline The deadline, {@link Deadline#none()} if the statement is only cancelled on interrupt
+     * @param work Executes the statement and reads the result
+     * @param rowCount Returns the number of rows read or written from the result
+     * @return the result of the work
+     * @throws SQLException if the statement fails, is cancelled or times out
+     */
+    static <T> T execute(String statement, StatementPreparer preparer, Deadline deadline, StatementWork<T> work, ToLongFunction<T> rowCount) throws SQLException {
+        QueryStatistics target = statistics;
+        long start = System.nanoTime();
+        try {
+            T result;
+            try(PreparedStatement preparedStatement = preparer.prepare();
+                StatementWatchdog watchdog = StatementWatchdog.watch(preparedStatement, deadline)) {
+                try {
+                    result = work.execute(preparedStatement, watchdog);
+                } catch(SQLException e) {
+                    throw watchdog.translate(e);
+                }
+            }
+            if(target != null) {
+                target.recordSuccess(statement, System.nanoTime() - start, rowCount.applyAsLong(result));
+            }
+            return result;
+        } catch(SQLException | RuntimeException e) {
+            if(target != null) {
+                target.recordError(statement, System.nanoTime() - start);
+            }
+            throw e;
         }
+    }
+
+    @FunctionalInterface
+    interface StatementPreparer {
+        PreparedStatement prepare() throws SQLException;
+    }
 
-        matcher.appendReplacement(buffer, replacement);
+    @FunctionalInterface
+    interface StatementWork<T> {
+        T execute(PreparedStatement preparedStatement, StatementWatchdog watchdog) throws SQLException;
     }
 
-    public ResultSet execute() {
-        //TODO: implement execution of sql statement
-        return null;
+    @FunctionalInterface
+    private interface ResultReader<T> {
+        T read(ResultSet resultSet, StatementWatchdog watchdog) throws SQLException;
+    }
+
+    /**
+     * Executes the query on a connection of the data source. The connection is closed as soon as the query
+     * completes or is cancelled.
+     */
+    public <R> List<R> executeQuery(DataSource dataSource, RowMapper<R> rowMapper) throws SQLException {
+        try(Connection connection = dataSource.getConnection()) {
+            return executeQuery(connection, rowMapper);
+        }
+    }
+
+    /**
+     * Executes a statement that writes with the deadline of the current scope
+     *
+     * @param connection The connection the statement is executed on
+     * @return the number of affected rows
+     * @throws SQLException if the statement fails, is cancelled or times out
+     */
+    public int executeUpdate(Connection connection) throws SQLException {
+        return executeUpdate(connection, Deadline.current().orElse(Deadline.none()));
+    }
+
+    public int executeUpdate(Connection connection, Deadline deadline) throws SQLException {
+        return execute(statement, () -> prepare(connection), deadline, (preparedStatement, watchdog) -> preparedStatement.executeUpdate(), Integer::longValue);
+    }
+
+    public String getExplainStatement(SqlDialect dialect) {
+        return dialect.explain(statement);
+    }
+
+    /**
+     * Explains the execution plan of the statement with the bound parameters and the deadline of the current scope
+     *
+     * @param connection The connection the plan is explained on
+     * @param dialect The dialect of the database
+     * @return the root node of the plan
+     * @throws SQLException if the explain statement fails
+     * @throws UnsupportedOperationException if the dialect does not support EXPLAIN
+     */
+    public PlanNode explain(Connection connection, SqlDialect dialect) throws SQLException {
+        String explainStatement = getExplainStatement(dialect);
+        List<String> lines = execute(explainStatement, () -> {
+            PreparedStatement preparedStatement = connection.prepareStatement(explainStatement);
+            try {
+                bindParameters(preparedStatement);
+            } catch(SQLException | RuntimeException e) {
+                preparedStatement.close();
+                throw e;
+            }
+            return preparedStatement;
+        }, Deadline.current().orElse(Deadline.none()), (preparedStatement, watchdog) -> {
+            List<String> planLines = new ArrayList<>();
+            try(ResultSet result = preparedStatement.executeQuery()) {
+                while(result.next()) {
+                    planLines.addAll(result.getString(1).lines().toList());
+                }
+            }
+            return planLines;
+        }, List::size);
+        return dialect.parsePlan(lines);
     }
 }
@@ -0,0 +1,86 @@
+package sqlbuilder;
+
+import sqlbuilder.exceptions.ValueCannotBeNullException;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.RecordComponent;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Maps a row to a record. Every record component is read from the column with the name of the component,
+ * so the select list can be derived from the record with {@link SelectBuilder#select(Class)} instead of selecting all columns.
+ *
+ * @param <R> The type of the record
+ */
+public class RecordMapper<R extends Record> implements RowMapper<R> {
+    private final Constructor<R> constructor;
+    private final RecordComponent[] components;
+    private final List<String> columns;
+
+    public RecordMapper(Class<R> type) {
+        if(type == null) {
+            throw new ValueCannotBeNullException("type");
+        }
+
+        if(!type.isRecord()) {
+            throw new IllegalArgumentException(type.getName() + " is not a record");
+        }
+
+        this.components = type.getRecordComponents();
+        this.columns = Arrays.stream(components).map(RecordComponent::getName).toList();
+        try {
+            this.constructor = type.getDeclaredConstructor(Arrays.stream(components).map(RecordComponent::getType).toArray(Class<?>[]::new));
+        } catch(NoSuchMethodException e) {
+            throw new IllegalArgumentException("The canonical constructor of %s cannot be found".formatted(type.getName()), e);
+        }
+        // records that are not public can only be created after making the constructor accessible
+        constructor.trySetAccessible();
+    }
+
+    /**
+     * @return the columns read by the mapper in the order of the record components
+     */
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    @Override
+    public R map(ResultSet resultSet) throws SQLException {
+        Object[] values = new Object[components.length];
+        for(int i = 0; i < components.length; i++) {
+            values[i] = read(resultSet, columns.get(i), components[i].getType());
+        }
+
+        try {
+            return constructor.newInstance(values);
+        } catch(InstantiationException | IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("Cannot create " + constructor.getDeclaringClass().getName(), e);
+        }
+    }
+
+    private static Object read(ResultSet resultSet, String column, Class<?> type) throws SQLException {
+        // primitives are read by their getters, which return 0 or false for NULL
+        if(type == int.class) {
+            return resultSet.getInt(column);
+        } else if(type == long.class) {
+            return resultSet.getLong(column);
+        } else if(type == double.class) {
+            return resultSet.getDouble(column);
+        } else if(type == boolean.class) {
+            return resultSet.getBoolean(column);
+        } else if(type == float.class) {
+            return resultSet.getFloat(column);
+        } else if(type == short.class) {
+            return resultSet.getShort(column);
+        } else if(type == byte.class) {
+            return resultSet.getByte(column);
+        } else if(type == String.class) {
+            return resultSet.getString(column);
+        }
+        return resultSet.getObject(column, type);
+    }
+}
@@ -0,0 +1,14 @@
+package sqlbuilder;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps the current row of a result set to an object
+ *
+ * @param <R> The type of the mapped row
+ */
+@FunctionalInterface
+public interface RowMapper<R> {
+    R map(ResultSet resultSet) throws SQLException;
+}
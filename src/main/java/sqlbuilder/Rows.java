@@ -0,0 +1,209 @@
+package sqlbuilder;
+
+import sqlbuilder.exceptions.ValueCannotBeEmptyException;
+import sqlbuilder.exceptions.ValueCannotBeNullException;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.RecordComponent;
+import java.util.*;
+import java.util.function.IntFunction;
+
+/**
+ * The columns and rows of the builders that write multiple rows. Rows can be added as lists of values, maps or records.
+ */
+class Rows {
+    private final List<String> columns = new ArrayList<>();
+    private final List<List<Object>> rows = new ArrayList<>();
+
+    /**
+     * Defines the columns of the rows. If no columns are defined, they are taken from the first row
+     * that is added as map or record.
+     *
+     * @param columns The columns
+     */
+    void setColumns(String... columns) {
+        if(columns.length == 0) {
+            throw new ValueCannotBeEmptyException("columns");
+        }
+
+        if(!rows.isEmpty()) {
+            throw new IllegalStateException("Columns must be defined before the first row is added");
+        }
+
+        this.columns.clear();
+        this.columns.addAll(List.of(columns));
+    }
+
+    /**
+     * Adds a row. The values have to be in the order of the columns.
+     *
+     * @param values The values of the row
+     */
+    void add(List<?> values) {
+        if(columns.isEmpty()) {
+            throw new IllegalStateException("Columns must be defined before a row is added as list of values");
+        }
+
+        if(values.size() != columns.size()) {
+            throw new IllegalArgumentException("Row has %d values but %d columns are defined".formatted(values.size(), columns.size()));
+        }
+
+        rows.add(new ArrayList<>(values));
+    }
+
+    /**
+     * Adds a row. Columns that are not contained in the map are written as NULL.
+     *
+     * @param values The values of the row by their column
+     * @throws IllegalArgumentException if the map contains a key that is not one of the columns
+     */
+    void add(Map<String, ?> values) {
+        if(columns.isEmpty()) {
+            columns.addAll(values.keySet());
+        } else if(!columns.containsAll(values.keySet())) {
+            // the value would be dropped silently
+            Set<String> unknownColumns = new LinkedHashSet<>(values.keySet());
+            columns.forEach(unknownColumns::remove);
+            throw new IllegalArgumentException("Row contains the columns %s that are not in the columns %s".formatted(unknownColumns, columns));
+        }
+
+        List<Object> row = new ArrayList<>(columns.size());
+        for(String column : columns) {
+            row.add(values.get(column));
+        }
+        rows.add(row);
+    }
+
+    /**
+     * Adds a row. The record components are used as columns.
+     *
+     * @param values The record holding the values of the row
+     */
+    void add(Record values) {
+        RecordComponent[] components = values.getClass().getRecordComponents();
+        Map<String, Object> row = new LinkedHashMap<>();
+        for(RecordComponent component : components) {
+            Method accessor = component.getAccessor();
+            // records that are not public can only be read after making the accessor accessible
+            accessor.trySetAccessible();
+            try {
+                row.put(component.getName(), accessor.invoke(values));
+            } catch(IllegalAccessException | InvocationTargetException e) {
+                throw new IllegalArgumentException("Cannot read component '%s' of %s".formatted(component.getName(), values.getClass().getName()), e);
+            }
+        }
+        add(row);
+    }
+
+    /**
+     * Adds multiple rows. Every row can be a list of values, a map or a record.
+     *
+     * @param rows The rows
+     */
+    void addAll(Collection<?> rows) {
+        for(Object row : rows) {
+            if(row instanceof Record record) {
+                add(record);
+            } else if(row instanceof Map<?, ?> map) {
+                @SuppressWarnings("unchecked")
+                Map<String, ?> values = (Map<String, ?>) map;
+                add(values);
+            } else if(row instanceof List<?> list) {
+                add(list);
+            } else if(row == null) {
+                throw new ValueCannotBeNullException("row");
+            } else {
+                throw new IllegalArgumentException("Rows must be lists, maps or records but got " + row.getClass().getName());
+            }
+        }
+    }
+
+    List<String> getColumns() {
+        return columns;
+    }
+
+    List<List<Object>> getRows() {
+        return rows;
+    }
+
+    boolean isEmpty() {
+        return rows.isEmpty();
+    }
+
+    int size() {
+        return rows.size();
+    }
+
+    /**
+     * Returns how many rows fit into one statement without exceeding the bind parameter limit
+     *
+     * @param maxBindParameters The maximum number of parameters per statement
+     * @param maxRows The maximum number of rows per statement
+     * @return the number of rows per statement
+     * @throws IllegalStateException if no columns are defined or a row exceeds the bind parameter limit
+     */
+    int getRowsPerStatement(int maxBindParameters, int maxRows) {
+        if(columns.isEmpty()) {
+            throw new IllegalStateException("The columns must be specified");
+        }
+
+        int rowsPerStatement = Math.min(maxBindParameters / columns.size(), maxRows);
+        if(rowsPerStatement < 1) {
+            throw new IllegalStateException("A row with %d columns exceeds the bind parameter limit of %d".formatted(columns.size(), maxBindParameters));
+        }
+        return rowsPerStatement;
+    }
+
+    /**
+     * Splits the rows into statements of at most rowsPerStatement rows
+     *
+     * @param rowsPerStatement The maximum number of rows per statement
+     * @param renderStatement Renders the statement for a number of rows
+     * @return the statements in the order of the rows
+     */
+    List<Query> toQueries(int rowsPerStatement, IntFunction<String> renderStatement) {
+        List<Query> queries = new ArrayList<>(rows.size() / rowsPerStatement + 1);
+        String fullStatement = null;
+        for(int start = 0; start < rows.size(); start += rowsPerStatement) {
+            int end = Math.min(start + rowsPerStatement, rows.size());
+            int rowCount = end - start;
+
+            // all chunks but the last one have the same size, so their statement is only rendered once
+            String statement;
+            if(rowCount == rowsPerStatement) {
+                if(fullStatement == null) {
+                    fullStatement = renderStatement.apply(rowCount);
+                }
+                statement = fullStatement;
+            } else {
+                statement = renderStatement.apply(rowCount);
+            }
+
+            List<Object> parameters = new ArrayList<>(rowCount * columns.size());
+            for(List<Object> row : rows.subList(start, end)) {
+                parameters.addAll(row);
+            }
+            queries.add(new Query(statement, parameters));
+        }
+        return queries;
+    }
+
+    /**
+     * Renders the placeholders of rowCount rows like {@code (?, ?), (?, ?)}
+     *
+     * @param rowCount The number of rows
+     * @return the placeholders
+     */
+    String renderPlaceholders(int rowCount) {
+        String rowPlaceholders = "(" + String.join(", ", Collections.nCopies(columns.size(), "?")) + ")";
+        StringBuilder placeholders = new StringBuilder(rowCount * (rowPlaceholders.length() + 2));
+        for(int i = 0; i < rowCount; i++) {
+            if(i > 0) {
+                placeholders.append(", ");
+            }
+            placeholders.append(rowPlaceholders);
+        }
+        return placeholders.toString();
+    }
+}
@@ -0,0 +1,149 @@
+package sqlbuilder;
+
+import sqlbuilder.exceptions.ValueCannotBeNullException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * A query whose schema is bound late, e.g. to run the same query against the schemas of many tenants.
+ * The query is built once with a placeholder schema and the statement is split at every table qualified with it.
+ * Rendering the query for a schema only joins the segments with the schema, and the most recently used schemas
+ * are cached, so the same {@link PrecompiledQuery} is shared by all executions for a tenant.
+ * <p>
+ * Tables with an explicit schema keep it. Values of the query are constants of the template, named parameters
+ * are bound when the precompiled query is prepared.
+ */
+public final class SchemaTemplate {
+    public static final int DEFAULT_CACHE_SIZE = 64;
+
+    // no real schema is called like this, so every occurrence followed by a dot is a table qualified with the template schema
+    private static final String SCHEMA_SLOT = "__sqlbuilder_schema_slot__";
+
+    private final List<String> segments;
+    private final PrecompiledQuery layout;
+    private final int cacheSize;
+    private final Map<String, PrecompiledQuery> cache;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private SchemaTemplate(List<String> segments, PrecompiledQuery layout, int cacheSize) {
+        this.segments = segments;
+        this.layout = layout;
+        this.cacheSize = cacheSize;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PrecompiledQuery> eldest) {
+                return size() > SchemaTemplate.this.cacheSize;
+            }
+        };
+    }
+
+    public static SchemaTemplate compile(Function<String, Query> definition) {
+        return compile(definition, DEFAULT_CACHE_SIZE);
+    }
+
+    public static SchemaTemplate compile(Function<String, Query> definition, int cacheSize) {
+        return compile(definition, cacheSize, false);
+    }
+
+    /**
+     * Compiles a template. The definition is called once with a placeholder schema, which has to be passed
+     * to every builder of the query including the builders of sub queries.
+     *
+     * @param definition Builds the query for a schema, e.g. {@code schema -> new SelectBuilder(dialect, schema).from("ORDERS").build()}
+     * @param cacheSize The number of schemas whose rendered queries are kept. All values smaller than 0 are interpreted as 0
+     * @param allowNoSchemaSlots Accepts a query without a table qualified with the schema, which renders the same statement for every schema
+     * @return the template
+     * @throws IllegalStateException if no table is qualified with the schema and this is not allowed, which usually means
+     * the definition does not pass the schema to its builders
+     */
+    public static SchemaTemplate compile(Function<String, Query> definition, int cacheSize, boolean allowNoSchemaSlots) {
+        if(definition == null) {
+            throw new ValueCannotBeNullException("definition");
+        }
+
+        Query query = definition.apply(SCHEMA_SLOT);
+        String statement = query.getStatement();
+        String qualifier = SCHEMA_SLOT + ".";
+        List<String> segments = new ArrayList<>();
+        int segmentStart = 0;
+        int slot;
+        while((slot = statement.indexOf(qualifier, segmentStart)) >= 0) {
+            segments.add(statement.substring(segmentStart, slot));
+            segmentStart = slot + qualifier.length();
+        }
+        segments.add(statement.substring(segmentStart));
+
+        if(segments.stream().anyMatch(segment -> segment.contains(SCHEMA_SLOT))) {
+            throw new IllegalStateException("The placeholder schema is used outside of a table name: " + statement);
+        }
+
+        if(segments.size() == 1 && !allowNoSchemaSlots) {
+            throw new IllegalStateException("No table of the query is qualified with the schema: " + statement);
+        }
+        return new SchemaTemplate(List.copyOf(segments), PrecompiledQuery.of(query), Math.max(cacheSize, 0));
+    }
+
+    /**
+     * @return the number of tables qualified with the schema
+     */
+    public int getSchemaSlots() {
+        return segments.size() - 1;
+    }
+
+    /**
+     * Returns the query for a schema. The query is taken from the cache or rendered by joining the segments.
+     *
+     * @param schema The schema. Can be null or empty for unqualified tables
+     * @return the query
+     * @throws sqlbuilder.exceptions.InvalidIdentifierException if the schema is not a plain identifier
+     */
+    public PrecompiledQuery forSchema(String schema) {
+        String normalizedSchema = Schemas.validate(Schemas.normalize(schema));
+        lock.lock();
+        try {
+            PrecompiledQuery cached = cache.get(normalizedSchema);
+            if(cached != null) {
+                return cached;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        PrecompiledQuery query = new PrecompiledQuery(render(normalizedSchema),
+                layout.getValues().toArray(), layout.getParameterKeysPerSlot().toArray(String[]::new));
+        lock.lock();
+        try {
+            cache.put(normalizedSchema, query);
+        } finally {
+            lock.unlock();
+        }
+        return query;
+    }
+
+    /**
+     * Renders the statement for a schema without using the cache
+     *
+     * @param schema The schema. Can be null or empty for unqualified tables
+     * @return the statement
+     * @throws sqlbuilder.exceptions.InvalidIdentifierException if the schema is not a plain identifier
+     */
+    public String render(String schema) {
+        String qualifier = Schemas.qualify(Schemas.validate(Schemas.normalize(schema)), "");
+        int length = qualifier.length() * getSchemaSlots();
+        for(String segment : segments) {
+            length += segment.length();
+        }
+
+        StringBuilder statement = new StringBuilder(length);
+        statement.append(segments.get(0));
+        for(int i = 1; i < segments.size(); i++) {
+            statement.append(qualifier).append(segments.get(i));
+        }
+        return statement.toString();
+    }
+}
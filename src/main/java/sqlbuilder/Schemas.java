@@ -0,0 +1,47 @@
+package sqlbuilder;
+
+import sqlbuilder.identifiers.Identifiers;
+
+class Schemas {
+    private Schemas() {
+    }
+
+    /**
+     * Normalizes the schema passed to a builder
+     *
+     * @param schema The schema. Can be null or empty for no schema
+     * @return The schema without a trailing dot or an empty string for no schema
+     */
+    static String normalize(String schema) {
+        if(schema == null || schema.isEmpty()) {
+            return "";
+        }
+
+        // Remove dot at the end if existing.
+        // This is done because in qualify the schema is added with a dot.
+        // Without this removal that would lead to a double dot which is invalid syntax
+        int lastIdx = schema.length() - 1;
+        if(schema.charAt(lastIdx) == '.') {
+            schema = schema.substring(0, lastIdx);
+        }
+        return schema;
+    }
+
+    /**
+     * Validates a normalized schema that is spliced into a statement without a builder
+     *
+     * @param schema The normalized schema. Can be empty for no schema
+     * @return the schema
+     */
+    static String validate(String schema) {
+        return schema.isEmpty() ? schema : Identifiers.validate("schema", schema);
+    }
+
+    static String qualify(String schema, String table) {
+        if(schema == null || schema.isBlank()) {
+            return table;
+        }
+
+        return schema + "." + table;
+    }
+}
@@ -1,47 +1,92 @@
 package sqlbuilder;
 
 import sqlbuilder.dialects.SqlDialect;
+import sqlbuilder.exceptions.DuplicateKeyException;
 import sqlbuilder.exceptions.ValueCannotBeEmptyException;
+import sqlbuilder.exceptions.ValueCannotBeNullException;
 import sqlbuilder.expressions.Condition;
+import sqlbuilder.hints.Hint;
+import sqlbuilder.identifiers.Column;
+import sqlbuilder.identifiers.Table;
 
 import java.util.*;
 
 public class SelectBuilder {
     private static final String ERROR_MESSAGE_MULTIPLE_ORDER_DIRECTION_CALLS = "order direction can only be set once. Multiple calls of desc() or asc() are not allowed!";
+    private static final String CORRELATED_TABLE = "correlated";
+    private static volatile boolean strictProjectionByDefault = false;
+
     private final SqlDialect dialect;
     private final String schema;
 
+    private final Map<String, CommonTableExpression> commonTableExpressions = new LinkedHashMap<>();
     private final List<String> columns = new ArrayList<>();
     private final List<String> tables = new ArrayList<>();
-    private final List<String> joins = new ArrayList<>();
+    private final List<Join> joins = new ArrayList<>();
     private final List<Condition> conditions = new ArrayList<>();
     private final List<String> groupColumns = new ArrayList<>();
     private final List<String> orderColumns = new ArrayList<>();
+    private final List<Hint> hints = new ArrayList<>();
     private Condition havingCondition = null;
     private String orderDirection = null;
     private boolean distinct = false;
+    private boolean strictProjection = strictProjectionByDefault;
 
     private int limit = -1;
     private int offset = 0;
 
+    private final StatementBuffer renderBuffer = new StatementBuffer();
+
     public SelectBuilder(SqlDialect dialect) {
         this(dialect, null);
     }
 
     public SelectBuilder(SqlDialect dialect, String schema) {
         this.dialect = dialect;
-        if(schema == null || schema.isEmpty()) {
-            schema = ".";
+        this.schema = Schemas.normalize(schema);
+    }
+
+    /**
+     * Defines a common table expression that is rendered once in the WITH clause of the statement.
+     * Tables with the name of the expression that are added after this call are not prefixed with the schema.
+     * Sub queries can reference the expression by using {@link #fromCommonTableExpression(String)}.
+     *
+     * @param name The name the expression is referenced by
+     * @param query The query of the expression
+     */
+    public SelectBuilder with(String name, SelectBuilder query) {
+        return with(name, List.of(), query);
+    }
+
+    public SelectBuilder with(String name, List<String> columns, SelectBuilder query) {
+        registerCommonTableExpression(new CommonTableExpression(name, columns, query));
+        return this;
+    }
+
+    /**
+     * Defines a recursive common table expression. The anchor query and the recursive query are chained by UNION ALL.
+     * The recursive query references the expression by using {@link #fromCommonTableExpression(String)}.
+     *
+     * @param name The name the expression is referenced by
+     * @param columns The column names of the expression
+     * @param anchorQuery The query for the initial rows
+     * @param recursiveQuery The query that references the expression itself
+     */
+    public SelectBuilder withRecursive(String name, List<String> columns, SelectBuilder anchorQuery, SelectBuilder recursiveQuery) {
+        if(recursiveQuery == null) {
+            throw new ValueCannotBeNullException("recursiveQuery");
         }
-        // Remove dot at the end if existing.
-        // This is done because in addSchemaToTable the schema is added with a dot.
-        // Without this removal that would lead to a double dot which is invalid syntax
-        int lastIdx = schema.length() - 1;
-        if(schema.charAt(lastIdx) == '.') {
-            schema = schema.substring(0, lastIdx);
+
+        registerCommonTableExpression(new CommonTableExpression(name, columns, anchorQuery, recursiveQuery));
+        return this;
+    }
+
+    private void registerCommonTableExpression(CommonTableExpression commonTableExpression) {
+        if(commonTableExpressions.containsKey(commonTableExpression.getName())) {
+            throw new DuplicateKeyException(commonTableExpression.getName());
         }
-        this.schema = schema;
 
+        commonTableExpressions.put(commonTableExpression.getName(), commonTableExpression);
     }
 
     public SelectBuilder select(String... columns) {
@@ -71,6 +116,49 @@ public class SelectBuilder {
         return this;
     }
 
+    public SelectBuilder select(Column column, Column... columns) {
+        this.columns.add(column.toSelectSql(dialect));
+        for(Column additionalColumn : columns) {
+            this.columns.add(additionalColumn.toSelectSql(dialect));
+        }
+        return this;
+    }
+
+    /**
+     * Selects the columns a row is mapped to by a {@link RecordMapper} of the record type
+     *
+     * @param type The record type
+     */
+    public SelectBuilder select(Class<? extends Record> type) {
+        return select(Projections.of(type).toArray(String[]::new));
+    }
+
+    /**
+     * Selects the columns read by the mapper, see {@link Projections#of(RowMapper)}
+     *
+     * @param mapper The mapper the rows are mapped with
+     */
+    public SelectBuilder select(RowMapper<?> mapper) {
+        return select(Projections.of(mapper).toArray(String[]::new));
+    }
+
+    /**
+     * Rejects statements without explicitly selected columns instead of selecting all columns with *
+     */
+    public SelectBuilder strictProjection() {
+        strictProjection = true;
+        return this;
+    }
+
+    /**
+     * Sets whether builders created afterwards reject statements without explicitly selected columns, e.g. to forbid * in production
+     *
+     * @param strict true to enable {@link #strictProjection()} for all new builders
+     */
+    public static void setStrictProjectionByDefault(boolean strict) {
+        strictProjectionByDefault = strict;
+    }
+
     public SelectBuilder selectDistinct(String... columns) {
         select(columns);
         distinct = true;
@@ -89,6 +177,12 @@ public class SelectBuilder {
         return this;
     }
 
+    public SelectBuilder selectDistinct(Column column, Column... columns) {
+        select(column, columns);
+        distinct = true;
+        return this;
+    }
+
     public SelectBuilder distinct() {
         distinct = true;
         return this;
@@ -126,6 +220,33 @@ public class SelectBuilder {
         return this;
     }
 
+    public SelectBuilder from(Table table, Table... tables) {
+        this.tables.add(renderTable(table));
+        for(Table additionalTable : tables) {
+            this.tables.add(renderTable(additionalTable));
+        }
+        return this;
+    }
+
+    /**
+     * Selects from a common table expression. The name is never prefixed with the schema, so this can be used
+     * in sub queries that reference an expression defined by the outer statement.
+     *
+     * @param name The name of the common table expression
+     */
+    public SelectBuilder fromCommonTableExpression(String name) {
+        return fromCommonTableExpression(name, name);
+    }
+
+    public SelectBuilder fromCommonTableExpression(String name, String alias) {
+        if(name == null || name.isBlank()) {
+            throw new ValueCannotBeEmptyException("name");
+        }
+
+        this.tables.add(name + " " + (alias == null || alias.isBlank() ? name : alias));
+        return this;
+    }
+
     public SelectBuilder join(String table, Condition joinCondition) {
         join(table, table, joinCondition);
         return this;
@@ -166,15 +287,42 @@ public class SelectBuilder {
         return this;
     }
 
+    public SelectBuilder join(Table table, Condition joinCondition) {
+        registerJoinVariation("JOIN", table, joinCondition);
+        return this;
+    }
+
+    public SelectBuilder leftJoin(Table table, Condition joinCondition) {
+        registerJoinVariation("LEFT JOIN", table, joinCondition);
+        return this;
+    }
+
+    public SelectBuilder rightJoin(Table table, Condition joinCondition) {
+        registerJoinVariation("RIGHT JOIN", table, joinCondition);
+        return this;
+    }
+
+    public SelectBuilder fullJoin(Table table, Condition joinCondition) {
+        registerJoinVariation("FULL JOIN", table, joinCondition);
+        return this;
+    }
+
+    private void registerJoinVariation(String joinOperator, Table table, Condition joinCondition) {
+        joins.add(new Join(joinOperator, renderTable(table), joinCondition));
+    }
+
     private void registerJoinVariation(String joinOperator, String table, String alias, Condition joinCondition) {
-        StringJoiner join = new StringJoiner(" ")
-                .add(joinOperator)
-                .add(addSchemaToTable(table))
-                .add(alias)
-                .add("ON")
-                .add(joinCondition.toSql(dialect));
+        joins.add(new Join(joinOperator, addSchemaToTable(table) + " " + alias, joinCondition));
+    }
 
-        joins.add(join.toString());
+    /**
+     * Adds hints for the optimizer. The dialect renders the hints in its own syntax and drops the hints it does not support.
+     *
+     * @param hints The hints
+     */
+    public SelectBuilder hint(Hint... hints) {
+        this.hints.addAll(List.of(hints));
+        return this;
     }
 
     /**
@@ -192,11 +340,39 @@ public class SelectBuilder {
         return this;
     }
 
+    /**
+     * Returns the conditions of the WHERE clause
+     *
+     * @return the conditions that are chained together using an AND
+     */
+    public List<Condition> getConditions() {
+        return Collections.unmodifiableList(conditions);
+    }
+
+    public List<Condition> getJoinConditions() {
+        return joins.stream().map(Join::condition).toList();
+    }
+
     public SelectBuilder groupBy(String... columns) {
         groupColumns.addAll(List.of(columns));
         return this;
     }
 
+    public SelectBuilder groupBy(Column column, Column... columns) {
+        groupColumns.add(column.getQualifiedName());
+        for(Column additionalColumn : columns) {
+            groupColumns.add(additionalColumn.getQualifiedName());
+        }
+        return this;
+    }
+
+    /**
+     * @return the condition of the HAVING clause or null if there is none
+     */
+    public Condition getHavingCondition() {
+        return havingCondition;
+    }
+
     public SelectBuilder having(Condition condition) {
         if(havingCondition != null) {
             throw new IllegalStateException("HAVING can only be called once!");
@@ -211,6 +387,25 @@ public class SelectBuilder {
         return this;
     }
 
+    public SelectBuilder orderBy(Column column, Column... columns) {
+        orderColumns.add(column.getQualifiedName());
+        for(Column additionalColumn : columns) {
+            orderColumns.add(additionalColumn.getQualifiedName());
+        }
+        return this;
+    }
+
+    public List<String> getOrderColumns() {
+        return Collections.unmodifiableList(orderColumns);
+    }
+
+    /**
+     * @return true if the rows are ordered descending, which is the default if no direction is set
+     */
+    public boolean isOrderDescending() {
+        return !"ASC".equals(orderDirection);
+    }
+
     public SelectBuilder desc() {
         if(orderDirection != null) {
             throw new IllegalStateException(ERROR_MESSAGE_MULTIPLE_ORDER_DIRECTION_CALLS);
@@ -249,28 +444,72 @@ public class SelectBuilder {
         return this;
     }
 
+    /**
+     * @return the limit or -1 if the number of rows is not limited
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
     public Query build() {
+        List<Object> parameters = new ArrayList<>();
+        StatementBuffer statement = renderBuffer.clear();
+        renderSelect(statement, parameters);
+        renderJoins(statement, parameters);
+        renderWhere(statement, parameters);
+        renderGroupBy(statement, parameters);
+        renderOrderBy(statement);
+        renderPaging(statement);
+        return new Query(statement.toString(), parameters);
+    }
+
+    /**
+     * Renders the WITH clause, the select list and the FROM clause
+     */
+    void renderSelect(StatementBuffer statement, List<Object> parameters) {
+        if(columns.isEmpty() && strictProjection) {
+            throw new IllegalStateException("The columns to select must be specified, * is rejected in strict projection mode");
+        }
+
+        renderSelect(statement, parameters, columns.isEmpty() ? "*" : String.join(", ", columns));
+    }
+
+    private void renderSelect(StatementBuffer statement, List<Object> parameters, String selectList) {
         if(tables.isEmpty()) {
             throw new IllegalStateException("A table to select from must be specified");
         }
 
-        List<Object> parameters = new ArrayList<>();
-
-        if(columns.isEmpty()) {
-            columns.add("*");
+        if(!commonTableExpressions.isEmpty()) {
+            addWithClause(statement, parameters);
         }
 
-        StringJoiner statement = new StringJoiner(" ")
-                .add("SELECT");
+        statement.add("SELECT");
+        if(!hints.isEmpty()) {
+            addIfNotEmpty(statement, dialect.renderSelectHints(hints));
+        }
         if(distinct) {
             statement.add("DISTINCT");
         }
-        statement.add(String.join(", ", columns))
+        statement.add(selectList)
                 .add("FROM")
-                .add(String.join(", ", tables));
+                .add(hints.isEmpty() ? String.join(", ", tables) : String.join(", ", tables.stream().map(this::addTableHints).toList()));
+    }
 
-        joins.forEach(statement::add);
+    void renderJoins(StatementBuffer statement, List<Object> parameters) {
+        for(Join join : joins) {
+            statement.add(join.operator())
+                    .add(hints.isEmpty() ? join.table() : addTableHints(join.table()))
+                    .add("ON")
+                    .add(join.condition().toSql(dialect));
+            parameters.addAll(join.condition().getParameters());
+        }
+    }
 
+    void renderWhere(StatementBuffer statement, List<Object> parameters) {
         if(!conditions.isEmpty()) {
             statement.add("WHERE");
 
@@ -278,7 +517,12 @@ public class SelectBuilder {
             parameters.addAll(chainedConditions.getParameters());
             statement.add(chainedConditions.toSql(dialect));
         }
+    }
 
+    /**
+     * Renders the GROUP BY and the HAVING clause
+     */
+    void renderGroupBy(StatementBuffer statement, List<Object> parameters) {
         if(!groupColumns.isEmpty()) {
             statement.add("GROUP BY")
                     .add(String.join(", ", groupColumns));
@@ -288,35 +532,259 @@ public class SelectBuilder {
             statement.add("HAVING").add(havingCondition.toSql(dialect));
             parameters.addAll(havingCondition.getParameters());
         }
+    }
 
+    void renderOrderBy(StatementBuffer statement) {
         if(!orderColumns.isEmpty()) {
-            if(orderDirection == null) {
-                orderDirection = "DESC";
-            }
-
-            statement.add("ORDER BY").add(String.join(", ", orderColumns)).add(orderDirection);
+            statement.add("ORDER BY").add(String.join(", ", orderColumns)).add(orderDirection == null ? "DESC" : orderDirection);
         }
+    }
 
+    /**
+     * Renders the paging and the hints that the dialect places at the end of the statement
+     */
+    void renderPaging(StatementBuffer statement) {
         if(limit > -1) {
             statement.add(dialect.applyPaging(limit, offset));
         }
 
+        if(!hints.isEmpty()) {
+            addIfNotEmpty(statement, dialect.renderQueryHints(hints));
+        }
+    }
+
+    /**
+     * Builds the statement as correlated sub query of an EXISTS condition. The select list is replaced by a constant
+     * and the selected column is compared with the column of the outer statement. Statements that are grouped or paged
+     * are wrapped as derived table, because the comparison cannot be added to their WHERE clause. The statement is also
+     * wrapped if the qualifier of the outer column is the name or alias of one of its tables, because the qualifier
+     * would be resolved to that table instead of the outer one.
+     *
+     * @param outerColumn The column of the outer statement, qualified with the alias of its table
+     * @return the correlated query
+     */
+    public Query buildCorrelated(String outerColumn) {
+        if(columns.size() != 1) {
+            throw new IllegalStateException("A correlated sub query must select exactly one column");
+        }
+
+        int qualifierEnd = outerColumn == null ? -1 : outerColumn.lastIndexOf('.');
+        if(qualifierEnd < 0) {
+            throw new IllegalArgumentException("The outer column has to be qualified with the alias of its table: " + outerColumn);
+        }
+
+        String qualifier = outerColumn.substring(0, qualifierEnd);
+        qualifier = qualifier.substring(qualifier.lastIndexOf('.') + 1);
+
+        // every column is rendered as "expression AS alias"
+        String column = columns.get(0);
+        int aliasStart = column.lastIndexOf(" AS ");
+        List<Object> parameters = new ArrayList<>();
+        StatementBuffer statement = new StatementBuffer();
+        if(!groupColumns.isEmpty() || havingCondition != null || limit > -1 || isTableReference(qualifier)) {
+            String derivedTable = qualifier.equalsIgnoreCase(CORRELATED_TABLE) ? CORRELATED_TABLE + "_sub_query" : CORRELATED_TABLE;
+            Query query = build();
+            parameters.addAll(query.getParameters());
+            statement.add("SELECT 1 FROM (")
+                    .add(query.getStatement())
+                    .add(") " + derivedTable + " WHERE")
+                    .add(derivedTable + "." + column.substring(aliasStart + 4) + " = " + outerColumn);
+            return new Query(statement.toString(), parameters);
+        }
+
+        renderSelect(statement, parameters, "1");
+        renderJoins(statement, parameters);
+        statement.add("WHERE");
+        if(!conditions.isEmpty()) {
+            // the conditions are bracketed, so an OR in them does not take precedence over the correlation
+            Condition.CompositeCondition chainedConditions = new Condition.CompositeCondition("AND", conditions);
+            parameters.addAll(chainedConditions.getParameters());
+            statement.add("(").add(chainedConditions.toSql(dialect)).add(") AND");
+        }
+        statement.add(column.substring(0, aliasStart) + " = " + outerColumn);
+        renderPaging(statement);
         return new Query(statement.toString(), parameters);
     }
 
+    private boolean isTableReference(String qualifier) {
+        List<String> referencedTables = new ArrayList<>(tables);
+        joins.forEach(join -> referencedTables.add(join.table()));
+        for(String table : referencedTables) {
+            // the table is rendered as "schema.name alias" or as "schema.name"
+            int aliasStart = table.lastIndexOf(' ');
+            String alias = table.substring(aliasStart + 1);
+            String name = aliasStart < 0 ? table : table.substring(0, aliasStart);
+            name = name.substring(name.lastIndexOf('.') + 1);
+            if(alias.equalsIgnoreCase(qualifier) || name.equalsIgnoreCase(qualifier)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String addTableHints(String table) {
+        // the table is rendered as "schema.name alias", so hints can reference the name or the alias
+        int aliasStart = table.lastIndexOf(' ');
+        String alias = table.substring(aliasStart + 1);
+        String name = aliasStart < 0 ? table : table.substring(0, aliasStart);
+        name = name.substring(name.lastIndexOf('.') + 1);
+
+        List<Hint.Index> indexHints = new ArrayList<>();
+        for(Hint hint : hints) {
+            if(hint instanceof Hint.Index index && (index.table().equals(alias) || index.table().equals(name))) {
+                indexHints.add(index);
+            }
+        }
+
+        String tableHints = indexHints.isEmpty() ? "" : dialect.renderTableHints(indexHints);
+        return tableHints.isEmpty() ? table : table + " " + tableHints;
+    }
+
+    private static void addIfNotEmpty(StatementBuffer statement, String sql) {
+        if(!sql.isEmpty()) {
+            statement.add(sql);
+        }
+    }
+
+    private void addWithClause(StatementBuffer statement, List<Object> parameters) {
+        statement.add("WITH");
+        boolean recursive = commonTableExpressions.values().stream().anyMatch(CommonTableExpression::isRecursive);
+        if(recursive && dialect.requiresRecursiveKeyword()) {
+            statement.add("RECURSIVE");
+        }
+
+        StringJoiner expressions = new StringJoiner(", ");
+        for(CommonTableExpression commonTableExpression : commonTableExpressions.values()) {
+            expressions.add(commonTableExpression.toSql(dialect));
+            parameters.addAll(commonTableExpression.getParameters());
+        }
+        statement.add(expressions.toString());
+    }
+
+    private String renderTable(Table table) {
+        if(table.getSchema() == null && commonTableExpressions.containsKey(table.getName())) {
+            return table.toSql(null);
+        }
+
+        return table.toSql(schema);
+    }
+
     private String addSchemaToTable(String table) {
-        if(schema == null || schema.isBlank()) {
+        if(commonTableExpressions.containsKey(table)) {
             return table;
         }
 
-        return schema + "." + table;
+        return Schemas.qualify(schema, table);
+    }
+
+    private String addAliasToColumn(String column, String alias) {
+        return column + " AS " + dialect.quote(alias);
+    }
+
+    /**
+     * Clears the builder so it can be reused for another statement with the same dialect and schema.
+     * The internal lists and the render buffer keep their capacity, so a reused builder allocates less.
+     * Queries built before stay valid.
+     */
+    public SelectBuilder reset() {
+        commonTableExpressions.clear();
+        columns.clear();
+        tables.clear();
+        joins.clear();
+        conditions.clear();
+        groupColumns.clear();
+        orderColumns.clear();
+        hints.clear();
+        havingCondition = null;
+        orderDirection = null;
+        distinct = false;
+        limit = -1;
+        offset = 0;
+        strictProjection = strictProjectionByDefault;
+        renderBuffer.release();
+        return this;
+    }
+
+    /**
+     * Returns a builder with the same clauses, e.g. to add a condition or paging for one execution without changing this builder.
+     * The conditions, common table expressions and hints are shared, only the clauses are copied.
+     *
+     * @return the copy
+     */
+    public SelectBuilder copy() {
+        SelectBuilder copy = new SelectBuilder(dialect, schema);
+        copy.commonTableExpressions.putAll(commonTableExpressions);
+        copy.columns.addAll(columns);
+        copy.tables.addAll(tables);
+        copy.joins.addAll(joins);
+        copy.conditions.addAll(conditions);
+        copy.groupColumns.addAll(groupColumns);
+        copy.orderColumns.addAll(orderColumns);
+        copy.hints.addAll(hints);
+        copy.havingCondition = havingCondition;
+        copy.orderDirection = orderDirection;
+        copy.distinct = distinct;
+        copy.strictProjection = strictProjection;
+        copy.limit = limit;
+        copy.offset = offset;
+        return copy;
+    }
+
+    void clearColumns() {
+        columns.clear();
+        distinct = false;
+    }
+
+    void clearJoins() {
+        joins.clear();
     }
 
-    private static String addAliasToColumn(String column, String alias) {
-        return column + " AS " + quoteAlias(alias);
+    void clearGroupBy() {
+        groupColumns.clear();
+        havingCondition = null;
     }
 
-    private static String quoteAlias(String alias) {
-        return "\"%s\"".formatted(alias);
+    void clearOrderBy() {
+        orderColumns.clear();
+        orderDirection = null;
+    }
+
+    private record Join(String operator, String table, Condition condition) {
+    }
+
+    /**
+     * Joins the parts of a statement with spaces. The buffer is kept between builds to avoid allocating a new one.
+     */
+    static class StatementBuffer {
+        // buffers that grew larger are dropped on release, so a reused builder does not hold on to a huge buffer
+        private static final int MAX_RETAINED_CAPACITY = 16 * 1024;
+
+        private StringBuilder buffer = new StringBuilder(256);
+
+        StatementBuffer clear() {
+            buffer.setLength(0);
+            return this;
+        }
+
+        StatementBuffer add(String part) {
+            if(!buffer.isEmpty()) {
+                buffer.append(' ');
+            }
+            buffer.append(part);
+            return this;
+        }
+
+        void release() {
+            if(buffer.capacity() > MAX_RETAINED_CAPACITY) {
+                buffer = new StringBuilder(256);
+            } else {
+                buffer.setLength(0);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return buffer.toString();
+        }
     }
 }
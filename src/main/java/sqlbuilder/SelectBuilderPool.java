@@ -0,0 +1,110 @@
+package sqlbuilder;
+
+import sqlbuilder.dialects.SqlDialect;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Keeps reset {@link SelectBuilder}s of one dialect and schema for reuse, so hot paths do not allocate
+ * a new builder with its lists and render buffer for every request. The pool is lock free and does not
+ * depend on the thread, so it also works with virtual threads, where a thread local would create a builder
+ * per virtual thread and never reuse it.
+ */
+public class SelectBuilderPool {
+    public static final int DEFAULT_MAX_POOLED = 64;
+
+    private final SqlDialect dialect;
+    private final String schema;
+    private final int maxPooled;
+    private final Queue<SelectBuilder> builders = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooled = new AtomicInteger();
+
+    public SelectBuilderPool(SqlDialect dialect) {
+        this(dialect, null, DEFAULT_MAX_POOLED);
+    }
+
+    /**
+     * @param dialect The dialect of the builders
+     * @param schema The schema of the builders
+     * @param maxPooled The maximum number of idle builders that are kept. Builders returned to a full pool are dropped
+     */
+    public SelectBuilderPool(SqlDialect dialect, String schema, int maxPooled) {
+        this.dialect = dialect;
+        this.schema = schema;
+        this.maxPooled = Math.max(maxPooled, 0);
+    }
+
+    /**
+     * Lends a builder for the scope of the function. The builder is reset and returned to the pool afterwards,
+     * so it must not be used outside the function. Queries built by it stay valid.
+     *
+     * @param function The function using the builder
+     * @return the result of the function
+     */
+    public <T> T use(Function<SelectBuilder, T> function) {
+        try(Lease lease = acquire()) {
+            return function.apply(lease.builder());
+        }
+    }
+
+    /**
+     * Lends a builder until the lease is closed. Use it in a try-with-resources block.
+     *
+     * @return the lease holding the builder
+     */
+    public Lease acquire() {
+        SelectBuilder builder = builders.poll();
+        if(builder == null) {
+            builder = new SelectBuilder(dialect, schema);
+        } else {
+            pooled.decrementAndGet();
+        }
+        return new Lease(builder);
+    }
+
+    /**
+     * @return the number of idle builders in the pool
+     */
+    public int size() {
+        return pooled.get();
+    }
+
+    private void release(SelectBuilder builder) {
+        builder.reset();
+        if(pooled.incrementAndGet() > maxPooled) {
+            pooled.decrementAndGet();
+            return;
+        }
+        builders.offer(builder);
+    }
+
+    public final class Lease implements AutoCloseable {
+        private SelectBuilder builder;
+
+        private Lease(SelectBuilder builder) {
+            this.builder = builder;
+        }
+
+        public SelectBuilder builder() {
+            if(builder == null) {
+                throw new IllegalStateException("The builder was already returned to the pool");
+            }
+            return builder;
+        }
+
+        /**
+         * Resets the builder and returns it to the pool. Closing a lease twice has no effect.
+         */
+        @Override
+        public void close() {
+            if(builder != null) {
+                SelectBuilder released = builder;
+                builder = null;
+                release(released);
+            }
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package sqlbuilder;
+
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cancels a running statement when the deadline passes or the executing thread is interrupted.
+ * JDBC calls do not react to interrupts, so the watchdog polls the state of the thread.
+ * The deadline is also set as query timeout, so the driver or the database can enforce it on its own.
+ * <p>
+ * Every statement is watched, a statement without a deadline is cancelled on interrupt only. All running statements
+ * are checked by one shared task, so watching a statement only adds it to a set instead of scheduling a task per statement.
+ */
+final class StatementWatchdog implements AutoCloseable {
+    static final long POLL_INTERVAL_MILLIS = 20;
+
+    private static final Set<StatementWatchdog> RUNNING = ConcurrentHashMap.newKeySet();
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+            .name("statement-watchdog")
+            .daemon()
+            .factory());
+
+    static {
+        SCHEDULER.scheduleWithFixedDelay(() -> RUNNING.forEach(StatementWatchdog::check),
+                POLL_INTERVAL_MILLIS, POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private enum Reason {
+        DEADLINE,
+        INTERRUPT
+    }
+
+    private final Statement statement;
+    private final Thread thread;
+    private final Deadline deadline;
+    private volatile Reason cancelled = null;
+
+    private StatementWatchdog(Statement statement, Deadline deadline) {
+        this.statement = statement;
+        this.thread = Thread.currentThread();
+        this.deadline = deadline;
+        RUNNING.add(this);
+    }
+
+    /**
+     * Starts watching a statement that is about to be executed on the current thread
+     *
+     * @param statement The statement
+     * @param deadline The deadline or null to cancel the statement only on interrupt
+     * @throws SQLException if the deadline has already passed or the thread is interrupted
+     */
+    static StatementWatchdog watch(Statement statement, Deadline deadline) throws SQLException {
+        if(Thread.currentThread().isInterrupted()) {
+            throw new SQLException("The statement was not executed because the thread is interrupted");
+        }
+
+        if(deadline == null) {
+            deadline = Deadline.none();
+        } else if(!deadline.isNone()) {
+            if(deadline.isExpired()) {
+                throw new SQLTimeoutException("The deadline passed before the statement was executed");
+            }
+
+            // the query timeout has a resolution of seconds, the watchdog cancels the statement in time
+            long remainingMillis = deadline.remaining().toMillis();
+            statement.setQueryTimeout((int) Math.max(Math.min((remainingMillis + 999) / 1000, Integer.MAX_VALUE), 1));
+        }
+        return new StatementWatchdog(statement, deadline);
+    }
+
+    boolean isCancelled() {
+        return cancelled != null;
+    }
+
+    /**
+     * Replaces the exception caused by a cancellation by one that names the reason
+     */
+    SQLException translate(SQLException exception) {
+        Reason reason = cancelled;
+        if(reason == Reason.DEADLINE || (reason == null && deadline.isExpired())) {
+            return exception instanceof SQLTimeoutException ? exception : new SQLTimeoutException("The statement was cancelled because the deadline passed", exception);
+        }
+
+        if(reason == Reason.INTERRUPT) {
+            return new SQLException("The statement was cancelled because the thread was interrupted", exception);
+        }
+        return exception;
+    }
+
+    /**
+     * Throws if the statement was cancelled, e.g. while the rows are read
+     */
+    void checkCancelled() throws SQLException {
+        if(isCancelled()) {
+            throw translate(new SQLException("The statement was cancelled"));
+        }
+    }
+
+    private void check() {
+        if(cancelled != null) {
+            return;
+        }
+
+        if(thread.isInterrupted()) {
+            cancel(Reason.INTERRUPT);
+        } else if(deadline.isExpired()) {
+            cancel(Reason.DEADLINE);
+        }
+    }
+
+    private void cancel(Reason reason) {
+        cancelled = reason;
+        RUNNING.remove(this);
+        // cancelling is a round trip to the database, so it must not delay the checks of other statements
+        Thread.ofVirtual().name("statement-cancel").start(() -> {
+            try {
+                statement.cancel();
+            } catch(SQLException e) {
+                // the statement may have completed in the meantime
+            }
+        });
+    }
+
+    @Override
+    public void close() {
+        RUNNING.remove(this);
+    }
+}
@@ -0,0 +1,102 @@
+package sqlbuilder;
+
+import sqlbuilder.dialects.SqlDialect;
+import sqlbuilder.exceptions.ValueCannotBeEmptyException;
+import sqlbuilder.expressions.Condition;
+import sqlbuilder.expressions.Expression;
+import sqlbuilder.expressions.Operand;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+public class UpdateBuilder extends MutationBuilder {
+    private final Map<String, Operand> assignments = new LinkedHashMap<>();
+
+    public UpdateBuilder(SqlDialect dialect) {
+        this(dialect, null);
+    }
+
+    public UpdateBuilder(SqlDialect dialect, String schema) {
+        super(dialect, schema);
+    }
+
+    public UpdateBuilder table(String table) {
+        setTable(table);
+        return this;
+    }
+
+    /**
+     * Sets a column to a value. The value can be an {@link Operand}, e.g. a column or a case expression.
+     *
+     * @param column The column
+     * @param value The new value
+     */
+    public UpdateBuilder set(String column, Object value) {
+        if(column == null || column.isBlank()) {
+            throw new ValueCannotBeEmptyException("column");
+        }
+
+        assignments.put(column, value instanceof Operand operand ? operand : Expression.value(value));
+        return this;
+    }
+
+    /**
+     * Define conditions to limit the updated rows.
+     * When called multiple times the conditions are chained together using an AND.
+     *
+     * @param condition The condition
+     */
+    public UpdateBuilder where(Condition condition) {
+        addCondition(condition);
+        return this;
+    }
+
+    public Query build() {
+        String condition = renderCondition();
+        String statement = "UPDATE " + getQualifiedTable() + " SET " + renderAssignments() + (condition == null ? "" : " WHERE " + condition);
+        return new Query(statement, getParameters(getConditionParameters()));
+    }
+
+    /**
+     * Builds the update for at most the given number of rows. A chunked update is only limited by key ranges,
+     * because the updated rows usually still match the conditions.
+     *
+     * @param rows The maximum number of rows
+     * @return the row limited update
+     */
+    @Override
+    protected boolean supportsRowChunks() {
+        return false;
+    }
+
+    @Override
+    public Query buildChunk(int rows) {
+        return new Query(dialect.limitUpdate(getQualifiedTable(), renderAssignments(), renderCondition(), rows), getParameters(getConditionParameters()));
+    }
+
+    @Override
+    public Query buildChunk(String keyColumn, long lowerBound, long upperBound) {
+        String statement = "UPDATE " + getQualifiedTable() + " SET " + renderAssignments() + " WHERE " + renderKeyRangeCondition(keyColumn);
+        return new Query(statement, getParameters(getKeyRangeParameters(lowerBound, upperBound)));
+    }
+
+    private String renderAssignments() {
+        if(assignments.isEmpty()) {
+            throw new IllegalStateException("At least one column must be set");
+        }
+
+        StringJoiner sql = new StringJoiner(", ");
+        assignments.forEach((column, value) -> sql.add(column + " = " + value.toSql(dialect)));
+        return sql.toString();
+    }
+
+    private List<Object> getParameters(List<Object> conditionParameters) {
+        List<Object> parameters = new ArrayList<>();
+        assignments.values().forEach(value -> value.addParameters(parameters));
+        parameters.addAll(conditionParameters);
+        return parameters;
+    }
+}
@@ -0,0 +1,195 @@
+package sqlbuilder;
+
+import sqlbuilder.dialects.SqlDialect;
+import sqlbuilder.exceptions.ValueCannotBeEmptyException;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.*;
+
+/**
+ * Builds statements that insert rows and update the existing rows with the same key in one round trip.
+ * The syntax is chosen by {@link SqlDialect#upsert(String, List, List, List, int)}. Many rows are written
+ * per statement and the rows are split into as many statements as needed to stay within the bind parameter limit.
+ */
+public class UpsertBuilder {
+    private final SqlDialect dialect;
+    private final String schema;
+
+    private String table = null;
+    private final Rows rows = new Rows();
+    private final List<String> keyColumns = new ArrayList<>();
+    private List<String> updateColumns = null;
+
+    public UpsertBuilder(SqlDialect dialect) {
+        this(dialect, null);
+    }
+
+    public UpsertBuilder(SqlDialect dialect, String schema) {
+        this.dialect = dialect;
+        this.schema = Schemas.normalize(schema);
+    }
+
+    public UpsertBuilder into(String table) {
+        if(table == null || table.isBlank()) {
+            throw new ValueCannotBeEmptyException("table");
+        }
+
+        this.table = table;
+        return this;
+    }
+
+    /**
+     * Defines the columns of the rows. If no columns are defined, they are taken from the first row
+     * that is added as map or record.
+     *
+     * @param columns The columns
+     */
+    public UpsertBuilder columns(String... columns) {
+        rows.setColumns(columns);
+        return this;
+    }
+
+    /**
+     * Defines the columns that identify a row. A row is updated if a row with the same key exists.
+     *
+     * @param keyColumns The key columns
+     */
+    public UpsertBuilder key(String... keyColumns) {
+        if(keyColumns.length == 0) {
+            throw new ValueCannotBeEmptyException("keyColumns");
+        }
+
+        this.keyColumns.clear();
+        this.keyColumns.addAll(List.of(keyColumns));
+        return this;
+    }
+
+    /**
+     * Defines the columns that are updated for existing rows. By default all columns except the key columns are updated.
+     * When called without columns existing rows are kept unchanged.
+     *
+     * @param updateColumns The columns that are updated
+     */
+    public UpsertBuilder update(String... updateColumns) {
+        this.updateColumns = List.of(updateColumns);
+        return this;
+    }
+
+    public UpsertBuilder row(Object... values) {
+        return row(Arrays.asList(values));
+    }
+
+    /**
+     * Adds a row. The values have to be in the order of the columns.
+     *
+     * @param values The values of the row
+     */
+    public UpsertBuilder row(List<?> values) {
+        rows.add(values);
+        return this;
+    }
+
+    /**
+     * Adds a row. Columns that are not contained in the map are written as NULL.
+     *
+     * @param values The values of the row by their column
+     * @throws IllegalArgumentException if the map contains a key that is not one of the columns
+     */
+    public UpsertBuilder row(Map<String, ?> values) {
+        rows.add(values);
+        return this;
+    }
+
+    /**
+     * Adds a row. The record components are used as columns.
+     *
+     * @param values The record holding the values of the row
+     */
+    public UpsertBuilder row(Record values) {
+        rows.add(values);
+        return this;
+    }
+
+    /**
+     * Adds multiple rows. Every row can be a list of values, a map or a record.
+     *
+     * @param rows The rows
+     */
+    public UpsertBuilder rows(Collection<?> rows) {
+        this.rows.addAll(rows);
+        return this;
+    }
+
+    /**
+     * Builds the upsert statements. If multiple rows have the same key only the last one is written,
+     * because a single statement must not insert or update the same row twice.
+     *
+     * @return the statements in the order of the rows
+     */
+    public List<Query> build() {
+        if(table == null) {
+            throw new IllegalStateException("A table to upsert into must be specified");
+        }
+
+        if(rows.isEmpty()) {
+            throw new IllegalStateException("At least one row must be added");
+        }
+
+        if(keyColumns.isEmpty()) {
+            throw new IllegalStateException("The key columns must be specified");
+        }
+
+        List<String> columns = rows.getColumns();
+        if(!columns.containsAll(keyColumns)) {
+            throw new IllegalStateException("The key columns %s must be contained in the columns %s".formatted(keyColumns, columns));
+        }
+
+        List<String> columnsToUpdate = updateColumns != null ? updateColumns : columns.stream()
+                .filter(column -> !keyColumns.contains(column))
+                .toList();
+        Rows uniqueRows = getRowsWithUniqueKeys();
+        String qualifiedTable = Schemas.qualify(schema, table);
+        int rowsPerStatement = uniqueRows.getRowsPerStatement(dialect.getMaxBindParameters(), dialect.getMaxRowsPerInsert());
+        return uniqueRows.toQueries(rowsPerStatement,
+                rowCount -> dialect.upsert(qualifiedTable, columns, keyColumns, columnsToUpdate, rowCount));
+    }
+
+    /**
+     * Executes all upsert statements
+     *
+     * @param connection The connection used to write the rows
+     * @return the number of affected rows as reported by the driver
+     * @throws SQLException if a statement fails
+     */
+    public int execute(Connection connection) throws SQLException {
+        int affected = 0;
+        for(Query query : build()) {
+            affected += query.executeUpdate(connection);
+        }
+        return affected;
+    }
+
+    private Rows getRowsWithUniqueKeys() {
+        List<String> columns = rows.getColumns();
+        int[] keyIndexes = keyColumns.stream().mapToInt(columns::indexOf).toArray();
+
+        Map<List<Object>, List<Object>> rowsByKey = new LinkedHashMap<>();
+        for(List<Object> row : rows.getRows()) {
+            List<Object> key = new ArrayList<>(keyIndexes.length);
+            for(int keyIndex : keyIndexes) {
+                key.add(row.get(keyIndex));
+            }
+            rowsByKey.put(key, row);
+        }
+
+        if(rowsByKey.size() == rows.size()) {
+            return rows;
+        }
+
+        Rows uniqueRows = new Rows();
+        uniqueRows.setColumns(columns.toArray(String[]::new));
+        rowsByKey.values().forEach(uniqueRows::add);
+        return uniqueRows;
+    }
+}
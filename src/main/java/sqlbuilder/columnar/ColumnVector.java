@@ -0,0 +1,328 @@
+package sqlbuilder.columnar;
+
+import java.util.*;
+
+/**
+ * The values of one column of a {@link ColumnarResult}, stored in a primitive array with a bitmap marking
+ * the NULL values. Strings are dictionary encoded, every distinct string is stored once and the rows hold codes.
+ */
+public abstract sealed class ColumnVector permits ColumnVector.LongVector, ColumnVector.IntVector, ColumnVector.DoubleVector,
+        ColumnVector.StringVector, ColumnVector.ObjectVector {
+    static final int INITIAL_CAPACITY = 1024;
+
+    private final String name;
+    private long[] nulls = new long[INITIAL_CAPACITY / 64];
+    protected int size = 0;
+
+    ColumnVector(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isNull(int row) {
+        checkRow(row);
+        return (nulls[row >>> 6] & (1L << row)) != 0;
+    }
+
+    /**
+     * @return the value of the row boxed, or null. Use the typed getters of the subclasses to avoid boxing
+     */
+    public abstract Object getObject(int row);
+
+    protected void addNull() {
+        int row = size;
+        grow(row + 1);
+        nulls[row >>> 6] |= 1L << row;
+        size++;
+    }
+
+    /**
+     * Makes room for the row and its null bit
+     */
+    protected void grow(int minCapacity) {
+        if(minCapacity > nulls.length * 64) {
+            nulls = Arrays.copyOf(nulls, Math.max(nulls.length + (nulls.length >> 1), (minCapacity + 63) / 64));
+        }
+        ensureCapacity(minCapacity);
+    }
+
+    protected abstract void ensureCapacity(int minCapacity);
+
+    /**
+     * Shrinks the arrays to the number of rows
+     */
+    void trim() {
+        nulls = Arrays.copyOf(nulls, (size + 63) / 64);
+    }
+
+    protected void checkRow(int row) {
+        if(row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row %d is out of bounds for %d rows".formatted(row, size));
+        }
+    }
+
+    protected static int newCapacity(int capacity, int minCapacity) {
+        return Math.max(capacity + (capacity >> 1), minCapacity);
+    }
+
+    public static final class LongVector extends ColumnVector {
+        private long[] values = new long[INITIAL_CAPACITY];
+
+        LongVector(String name) {
+            super(name);
+        }
+
+        /**
+         * @return the value, 0 for NULL
+         */
+        public long get(int row) {
+            checkRow(row);
+            return values[row];
+        }
+
+        /**
+         * Returns the values without copying them. Only the first {@link #size()} values are valid, NULL values are 0.
+         */
+        public long[] values() {
+            return values;
+        }
+
+        @Override
+        public Object getObject(int row) {
+            return isNull(row) ? null : values[row];
+        }
+
+        void add(long value) {
+            grow(size + 1);
+            values[size++] = value;
+        }
+
+        @Override
+        protected void ensureCapacity(int minCapacity) {
+            if(minCapacity > values.length) {
+                values = Arrays.copyOf(values, newCapacity(values.length, minCapacity));
+            }
+        }
+
+        @Override
+        void trim() {
+            super.trim();
+            values = Arrays.copyOf(values, size);
+        }
+    }
+
+    public static final class IntVector extends ColumnVector {
+        private int[] values = new int[INITIAL_CAPACITY];
+
+        IntVector(String name) {
+            super(name);
+        }
+
+        /**
+         * @return the value, 0 for NULL
+         */
+        public int get(int row) {
+            checkRow(row);
+            return values[row];
+        }
+
+        /**
+         * Returns the values without copying them. Only the first {@link #size()} values are valid, NULL values are 0.
+         */
+        public int[] values() {
+            return values;
+        }
+
+        @Override
+        public Object getObject(int row) {
+            return isNull(row) ? null : values[row];
+        }
+
+        void add(int value) {
+            grow(size + 1);
+            values[size++] = value;
+        }
+
+        @Override
+        protected void ensureCapacity(int minCapacity) {
+            if(minCapacity > values.length) {
+                values = Arrays.copyOf(values, newCapacity(values.length, minCapacity));
+            }
+        }
+
+        @Override
+        void trim() {
+            super.trim();
+            values = Arrays.copyOf(values, size);
+        }
+    }
+
+    public static final class DoubleVector extends ColumnVector {
+        private double[] values = new double[INITIAL_CAPACITY];
+
+        DoubleVector(String name) {
+            super(name);
+        }
+
+        /**
+         * @return the value, 0 for NULL
+         */
+        public double get(int row) {
+            checkRow(row);
+            return values[row];
+        }
+
+        /**
+         * Returns the values without copying them. Only the first {@link #size()} values are valid, NULL values are 0.
+         */
+        public double[] values() {
+            return values;
+        }
+
+        @Override
+        public Object getObject(int row) {
+            return isNull(row) ? null : values[row];
+        }
+
+        void add(double value) {
+            grow(size + 1);
+            values[size++] = value;
+        }
+
+        @Override
+        protected void ensureCapacity(int minCapacity) {
+            if(minCapacity > values.length) {
+                values = Arrays.copyOf(values, newCapacity(values.length, minCapacity));
+            }
+        }
+
+        @Override
+        void trim() {
+            super.trim();
+            values = Arrays.copyOf(values, size);
+        }
+    }
+
+    public static final class StringVector extends ColumnVector {
+        public static final int NULL_CODE = -1;
+
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> dictionary = new ArrayList<>();
+        private int[] values = new int[INITIAL_CAPACITY];
+
+        StringVector(String name) {
+            super(name);
+        }
+
+        public String get(int row) {
+            checkRow(row);
+            int code = values[row];
+            return code == NULL_CODE ? null : dictionary.get(code);
+        }
+
+        /**
+         * @return the dictionary code of the row or {@link #NULL_CODE}
+         */
+        public int getCode(int row) {
+            checkRow(row);
+            return values[row];
+        }
+
+        /**
+         * Returns the codes without copying them. Only the first {@link #size()} codes are valid.
+         */
+        public int[] codes() {
+            return values;
+        }
+
+        /**
+         * @return the distinct strings, the position of a string is its code
+         */
+        public List<String> getDictionary() {
+            return Collections.unmodifiableList(dictionary);
+        }
+
+        @Override
+        public Object getObject(int row) {
+            return get(row);
+        }
+
+        void add(String value) {
+            if(value == null) {
+                addNull();
+                values[size - 1] = NULL_CODE;
+                return;
+            }
+
+            Integer code = codes.get(value);
+            if(code == null) {
+                code = dictionary.size();
+                dictionary.add(value);
+                codes.put(value, code);
+            }
+            grow(size + 1);
+            values[size++] = code;
+        }
+
+        @Override
+        protected void ensureCapacity(int minCapacity) {
+            if(minCapacity > values.length) {
+                values = Arrays.copyOf(values, newCapacity(values.length, minCapacity));
+            }
+        }
+
+        @Override
+        void trim() {
+            super.trim();
+            values = Arrays.copyOf(values, size);
+            codes.clear();
+        }
+    }
+
+    /**
+     * Holds the values of columns without a primitive representation, e.g. dates
+     */
+    public static final class ObjectVector extends ColumnVector {
+        private Object[] values = new Object[INITIAL_CAPACITY];
+
+        ObjectVector(String name) {
+            super(name);
+        }
+
+        @Override
+        public Object getObject(int row) {
+            checkRow(row);
+            return values[row];
+        }
+
+        void add(Object value) {
+            if(value == null) {
+                addNull();
+                return;
+            }
+
+            grow(size + 1);
+            values[size++] = value;
+        }
+
+        @Override
+        protected void ensureCapacity(int minCapacity) {
+            if(minCapacity > values.length) {
+                values = Arrays.copyOf(values, newCapacity(values.length, minCapacity));
+            }
+        }
+
+        @Override
+        void trim() {
+            super.trim();
+            values = Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package sqlbuilder.concurrency;
+
+import java.time.Duration;
+
+/**
+ * Increases the limit by one after as many requests completed in time as the limit allows, which is about once
+ * per round trip while the limit is in use. Multiplies the limit by the backoff ratio for every request that
+ * is too slow or dropped.
+ */
+public class AimdLimit implements LimitAlgorithm {
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long latencyThresholdNanos;
+
+    private int successes = 0;
+
+    public AimdLimit(Duration latencyThreshold) {
+        this(10, 1, 200, 0.9, latencyThreshold);
+    }
+
+    /**
+     * @param initialLimit The limit before the first sample
+     * @param minLimit The smallest limit
+     * @param maxLimit The largest limit
+     * @param backoffRatio The factor the limit is multiplied with on overload, between 0.5 and 1
+     * @param latencyThreshold The latency above which a request counts as overload
+     */
+    public AimdLimit(int initialLimit, int minLimit, int maxLimit, double backoffRatio, Duration latencyThreshold) {
+        if(minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("The limits must satisfy 1 <= minLimit <= initialLimit <= maxLimit");
+        }
+
+        if(backoffRatio < 0.5 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("The backoff ratio must be between 0.5 and 1");
+        }
+
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyThresholdNanos = latencyThreshold.toNanos();
+    }
+
+    @Override
+    public int getInitialLimit() {
+        return initialLimit;
+    }
+
+    @Override
+    public int update(int limit, long rttNanos, int inFlight, boolean dropped) {
+        if(dropped || rttNanos > latencyThresholdNanos) {
+            successes = 0;
+            return Math.max(minLimit, (int) (limit * backoffRatio));
+        }
+
+        // only grow while the limit is used, otherwise an idle period would raise it without evidence
+        if(inFlight * 2 >= limit && ++successes >= limit) {
+            successes = 0;
+            return Math.min(maxLimit, limit + 1);
+        }
+        return limit;
+    }
+}
@@ -0,0 +1,164 @@
+package sqlbuilder.concurrency;
+
+import sqlbuilder.exceptions.ValueCannotBeNullException;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.logging.Logger;
+
+/**
+ * Wraps a data source so that only as many connections are in use as the limiter allows.
+ * A permit is acquired when a connection is taken and released when it is closed, so the latency sample
+ * is the time the connection was used. A connection that was aborted or whose statements timed out counts as dropped.
+ */
+public class ConcurrencyLimitedDataSource implements DataSource {
+    private final DataSource dataSource;
+    private final ConcurrencyLimiter limiter;
+
+    public ConcurrencyLimitedDataSource(DataSource dataSource, ConcurrencyLimiter limiter) {
+        if(dataSource == null) {
+            throw new ValueCannotBeNullException("dataSource");
+        }
+
+        if(limiter == null) {
+            throw new ValueCannotBeNullException("limiter");
+        }
+
+        this.dataSource = dataSource;
+        this.limiter = limiter;
+    }
+
+    public ConcurrencyLimiter getLimiter() {
+        return limiter;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        ConcurrencyLimiter.Permit permit = limiter.acquire();
+        try {
+            return limit(dataSource.getConnection(), permit);
+        } catch(SQLException | RuntimeException e) {
+            permit.onDropped();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        ConcurrencyLimiter.Permit permit = limiter.acquire();
+        try {
+            return limit(dataSource.getConnection(username, password), permit);
+        } catch(SQLException | RuntimeException e) {
+            permit.onDropped();
+            throw e;
+        }
+    }
+
+    private static Connection limit(Connection connection, ConcurrencyLimiter.Permit permit) {
+        boolean[] dropped = {false};
+        return (Connection) Proxy.newProxyInstance(ConcurrencyLimitedDataSource.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    switch(method.getName()) {
+                        case "close" -> {
+                            try {
+                                connection.close();
+                            } finally {
+                                if(dropped[0]) {
+                                    permit.onDropped();
+                                } else {
+                                    permit.onSuccess();
+                                }
+                            }
+                            return null;
+                        }
+                        case "abort" -> dropped[0] = true;
+                        case "unwrap" -> {
+                            if(((Class<?>) args[0]).isInstance(proxy)) {
+                                return proxy;
+                            }
+                        }
+                    }
+
+                    Object result;
+                    try {
+                        result = method.invoke(connection, args);
+                    } catch(InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                    return result instanceof Statement statement && method.getReturnType().isInterface()
+                            ? watchTimeouts(statement, method.getReturnType(), (Connection) proxy, dropped)
+                            : result;
+                });
+    }
+
+    /**
+     * Marks the connection as dropped when a statement times out, because the request did not complete
+     * and its latency is not a sample of the database
+     */
+    private static Statement watchTimeouts(Statement statement, Class<?> type, Connection connection, boolean[] dropped) {
+        return (Statement) Proxy.newProxyInstance(ConcurrencyLimitedDataSource.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    switch(method.getName()) {
+                        case "getConnection" -> {
+                            return connection;
+                        }
+                        case "unwrap" -> {
+                            if(((Class<?>) args[0]).isInstance(proxy)) {
+                                return proxy;
+                            }
+                        }
+                    }
+
+                    try {
+                        return method.invoke(statement, args);
+                    } catch(InvocationTargetException e) {
+                        if(e.getCause() instanceof SQLTimeoutException) {
+                            dropped[0] = true;
+                        }
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return dataSource.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        dataSource.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        dataSource.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return dataSource.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        return dataSource.getParentLogger();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> type) throws SQLException {
+        return type.isInstance(this) ? type.cast(this) : dataSource.unwrap(type);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> type) throws SQLException {
+        return type.isInstance(this) || dataSource.isWrapperFor(type);
+    }
+}
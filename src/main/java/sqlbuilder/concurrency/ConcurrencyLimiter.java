@@ -0,0 +1,163 @@
+package sqlbuilder.concurrency;
+
+import sqlbuilder.exceptions.LimitExceededException;
+import sqlbuilder.exceptions.ValueCannotBeNullException;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Limits the number of requests in flight. The limit is adjusted by a {@link LimitAlgorithm} from the latency
+ * of completed requests, so fewer requests are let through when the database slows down.
+ * A request over the limit waits up to the maximum wait time for a permit and is rejected afterwards.
+ */
+public class ConcurrencyLimiter {
+    private final LimitAlgorithm algorithm;
+    private final long maxWaitNanos;
+    private final LongSupplier clock;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition permitReleased = lock.newCondition();
+    private int limit;
+    private int inFlight = 0;
+
+    public ConcurrencyLimiter(LimitAlgorithm algorithm) {
+        this(algorithm, Duration.ZERO, System::nanoTime);
+    }
+
+    /**
+     * @param algorithm The algorithm adjusting the limit
+     * @param maxWait How long a request over the limit waits for a permit. Zero rejects it right away
+     * @param clock The clock measuring the latency in nanoseconds
+     */
+    public ConcurrencyLimiter(LimitAlgorithm algorithm, Duration maxWait, LongSupplier clock) {
+        if(algorithm == null) {
+            throw new ValueCannotBeNullException("algorithm");
+        }
+
+        if(maxWait == null || maxWait.isNegative()) {
+            throw new IllegalArgumentException("The maximum wait time must not be negative");
+        }
+
+        if(clock == null) {
+            throw new ValueCannotBeNullException("clock");
+        }
+
+        this.algorithm = algorithm;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.clock = clock;
+        this.limit = algorithm.getInitialLimit();
+    }
+
+    /**
+     * Acquires a permit for a request. The permit has to be closed when the request completes.
+     *
+     * @return the permit
+     * @throws LimitExceededException if no permit is available within the maximum wait time
+     * @throws SQLException if the thread is interrupted while waiting
+     */
+    public Permit acquire() throws SQLException {
+        lock.lock();
+        try {
+            long remainingNanos = maxWaitNanos;
+            while(inFlight >= limit) {
+                if(remainingNanos <= 0) {
+                    throw new LimitExceededException(limit);
+                }
+                remainingNanos = permitReleased.awaitNanos(remainingNanos);
+            }
+
+            inFlight++;
+            return new Permit(inFlight, clock.getAsLong());
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a permit", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release(Permit permit, boolean sample, boolean dropped) {
+        long rttNanos = clock.getAsLong() - permit.startNanos;
+        lock.lock();
+        try {
+            inFlight--;
+            int previousLimit = limit;
+            if(sample) {
+                limit = Math.max(algorithm.update(limit, rttNanos, permit.inFlight, dropped), 1);
+            }
+
+            if(limit > previousLimit) {
+                permitReleased.signalAll();
+            } else {
+                permitReleased.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * A permit for one request. Report the outcome with {@link #onSuccess()} or {@link #onDropped()},
+     * closing it without an outcome releases the permit without adjusting the limit.
+     */
+    public final class Permit implements AutoCloseable {
+        private final int inFlight;
+        private final long startNanos;
+        private boolean released = false;
+
+        private Permit(int inFlight, long startNanos) {
+            this.inFlight = inFlight;
+            this.startNanos = startNanos;
+        }
+
+        /**
+         * Releases the permit and uses the latency of the request to adjust the limit
+         */
+        public void onSuccess() {
+            release(true, false);
+        }
+
+        /**
+         * Releases the permit of a request that failed because of overload, e.g. a timeout
+         */
+        public void onDropped() {
+            release(true, true);
+        }
+
+        @Override
+        public void close() {
+            release(false, false);
+        }
+
+        private void release(boolean sample, boolean dropped) {
+            if(released) {
+                return;
+            }
+
+            released = true;
+            ConcurrencyLimiter.this.release(this, sample, dropped);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package sqlbuilder.concurrency;
+
+/**
+ * Computes the concurrency limit from the samples of completed requests.
+ * The methods are called under the lock of the {@link ConcurrencyLimiter}, so implementations can keep state
+ * without synchronization.
+ */
+public interface LimitAlgorithm {
+    int getInitialLimit();
+
+    /**
+     * @param limit The current limit
+     * @param rttNanos The time the request took
+     * @param inFlight The number of requests in flight when the request started, including itself
+     * @param dropped Whether the request failed in a way that indicates overload, e.g. a timeout
+     * @return the new limit
+     */
+    int update(int limit, long rttNanos, int inFlight, boolean dropped);
+}
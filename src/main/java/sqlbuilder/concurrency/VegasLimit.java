@@ -0,0 +1,78 @@
+package sqlbuilder.concurrency;
+
+/**
+ * Estimates the number of requests queued in the database from the ratio of the smallest observed latency
+ * to the current latency, like TCP Vegas. The limit grows while the estimated queue is shorter than alpha
+ * and shrinks while it is longer than beta.
+ * <p>
+ * The smallest latency is forgotten after a number of samples, so a permanent change of the workload
+ * does not keep the limit low forever.
+ */
+public class VegasLimit implements LimitAlgorithm {
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final int alpha;
+    private final int beta;
+    private final int probeInterval;
+
+    private long rttNoLoadNanos = Long.MAX_VALUE;
+    private int samples = 0;
+
+    public VegasLimit() {
+        this(10, 1, 200, 3, 6, 1000);
+    }
+
+    /**
+     * @param initialLimit The limit before the first sample
+     * @param minLimit The smallest limit
+     * @param maxLimit The largest limit
+     * @param alpha The estimated queue length below which the limit grows
+     * @param beta The estimated queue length above which the limit shrinks
+     * @param probeInterval The number of samples after which the smallest latency is measured again
+     */
+    public VegasLimit(int initialLimit, int minLimit, int maxLimit, int alpha, int beta, int probeInterval) {
+        if(minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("The limits must satisfy 1 <= minLimit <= initialLimit <= maxLimit");
+        }
+
+        if(alpha < 0 || beta <= alpha) {
+            throw new IllegalArgumentException("The thresholds must satisfy 0 <= alpha < beta");
+        }
+
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.alpha = alpha;
+        this.beta = beta;
+        this.probeInterval = Math.max(probeInterval, 1);
+    }
+
+    @Override
+    public int getInitialLimit() {
+        return initialLimit;
+    }
+
+    @Override
+    public int update(int limit, long rttNanos, int inFlight, boolean dropped) {
+        if(++samples >= probeInterval) {
+            samples = 0;
+            rttNoLoadNanos = Long.MAX_VALUE;
+        }
+        rttNoLoadNanos = Math.min(rttNoLoadNanos, Math.max(rttNanos, 1));
+
+        if(dropped) {
+            return Math.max(minLimit, limit / 2);
+        }
+
+        int queueSize = (int) Math.ceil(limit * (1 - (double) rttNoLoadNanos / Math.max(rttNanos, 1)));
+        if(queueSize > beta) {
+            return Math.max(minLimit, limit - 1);
+        }
+
+        if(queueSize < alpha && inFlight * 2 >= limit) {
+            return Math.min(maxLimit, limit + 1);
+        }
+        return limit;
+    }
+}
@@ -1,14 +1,224 @@
 package sqlbuilder.dialects;
 
+import sqlbuilder.Lob;
 import sqlbuilder.exceptions.ValueCannotBeEmptyException;
+import sqlbuilder.explain.PlanNode;
+import sqlbuilder.explain.PlanParsers;
+import sqlbuilder.hints.Hint;
 
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.StringJoiner;
 
 public interface SqlDialect {
     default public String quote(String identifier) {
         return "\"" + identifier + "\"";
     }
 
+    /**
+     * Renders a value as SQL literal. This is only used to display statements with inlined values
+     * and is never used for executed statements.
+     *
+     * @param value The value
+     * @return the escaped literal
+     */
+    default public String toLiteral(Object value) {
+        if(value == null) {
+            return "NULL";
+        }
+
+        if(value instanceof Number) {
+            return value.toString();
+        }
+
+        if(value instanceof Boolean bool) {
+            return bool ? "TRUE" : "FALSE";
+        }
+
+        if(value instanceof Lob lob) {
+            // a placeholder, reading the content would consume the stream
+            return lob.toString();
+        }
+
+        return "'" + value.toString().replace("'", "''") + "'";
+    }
+
+    /**
+     * Whether a WITH clause containing a recursive common table expression has to be introduced by WITH RECURSIVE
+     *
+     * @return true if the RECURSIVE keyword is required
+     */
+    default public boolean requiresRecursiveKeyword() {
+        return true;
+    }
+
+    /**
+     * The maximum number of bind parameters a single statement can contain
+     *
+     * @return the maximum number of parameters
+     */
+    default public int getMaxBindParameters() {
+        return 32767;
+    }
+
+    /**
+     * Whether an INSERT statement can contain multiple rows in its VALUES clause
+     *
+     * @return true if multi-row VALUES are supported
+     */
+    default public boolean supportsMultiRowValues() {
+        return true;
+    }
+
+    /**
+     * The maximum number of rows in the VALUES clause of a single INSERT statement
+     *
+     * @return the maximum number of rows
+     */
+    default public int getMaxRowsPerInsert() {
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * Renders a statement that inserts rowCount rows and updates the existing rows with the same key instead.
+     * The parameters are bound row by row in the order of the columns.
+     * The default implementation renders a MERGE statement with a VALUES table as source.
+     *
+     * @param table The schema qualified table
+     * @param columns All columns of the rows
+     * @param keyColumns The columns identifying a row
+     * @param updateColumns The columns that are updated for existing rows. Can be empty to keep existing rows unchanged
+     * @param rowCount The number of rows in the statement
+     * @return the upsert statement
+     */
+    default public String upsert(String table, List<String> columns, List<String> keyColumns, List<String> updateColumns, int rowCount) {
+        String source = "(VALUES " + placeholders(columns.size(), rowCount) + ") AS source (" + String.join(", ", columns) + ")";
+        return merge(table, source, columns, keyColumns, updateColumns);
+    }
+
+    /**
+     * Renders the placeholders of rowCount rows like {@code (?, ?), (?, ?)}
+     */
+    private static String placeholders(int columnCount, int rowCount) {
+        String row = "(" + String.join(", ", Collections.nCopies(columnCount, "?")) + ")";
+        return String.join(", ", Collections.nCopies(rowCount, row));
+    }
+
+    private static String merge(String table, String source, List<String> columns, List<String> keyColumns, List<String> updateColumns) {
+        StringJoiner on = new StringJoiner(" AND ");
+        keyColumns.forEach(key -> on.add("target." + key + " = source." + key));
+
+        StringJoiner merge = new StringJoiner(" ")
+                .add("MERGE INTO").add(table).add("target")
+                .add("USING").add(source)
+                .add("ON (" + on + ")");
+        if(!updateColumns.isEmpty()) {
+            StringJoiner set = new StringJoiner(", ");
+            updateColumns.forEach(column -> set.add("target." + column + " = source." + column));
+            merge.add("WHEN MATCHED THEN UPDATE SET").add(set.toString());
+        }
+
+        StringJoiner values = new StringJoiner(", ");
+        columns.forEach(column -> values.add("source." + column));
+        merge.add("WHEN NOT MATCHED THEN INSERT (" + String.join(", ", columns) + ")")
+                .add("VALUES (" + values + ")");
+        return merge.toString();
+    }
+
+    /**
+     * Renders a DELETE statement that deletes at most the given number of rows
+     *
+     * @param table The schema qualified table
+     * @param condition The condition of the rows to delete. Can be null to delete all rows
+     * @param rows The maximum number of rows deleted by the statement
+     * @return the delete statement
+     */
+    default public String limitDelete(String table, String condition, int rows) {
+        return "DELETE FROM " + table + where(condition) + " FETCH FIRST " + rows + " ROWS ONLY";
+    }
+
+    /**
+     * Renders an UPDATE statement that updates at most the given number of rows.
+     * The parameters of the assignments have to be bound before the parameters of the condition.
+     *
+     * @param table The schema qualified table
+     * @param assignments The SET clause without the SET keyword
+     * @param condition The condition of the rows to update. Can be null to update all rows
+     * @param rows The maximum number of rows updated by the statement
+     * @return the update statement
+     */
+    default public String limitUpdate(String table, String assignments, String condition, int rows) {
+        return "UPDATE " + table + " SET " + assignments + where(condition) + " FETCH FIRST " + rows + " ROWS ONLY";
+    }
+
+    private static String where(String condition) {
+        return condition == null || condition.isBlank() ? "" : " WHERE " + condition;
+    }
+
+    /**
+     * Renders the hints that are placed directly after the SELECT keyword
+     *
+     * @param hints All hints of the statement
+     * @return the rendered hints or an empty string if the dialect supports none of them
+     */
+    default public String renderSelectHints(List<Hint> hints) {
+        return "";
+    }
+
+    /**
+     * Renders the index hints that are placed after a table and its alias
+     *
+     * @param indexHints The index hints of the table
+     * @return the rendered hints or an empty string if the dialect supports none of them
+     */
+    default public String renderTableHints(List<Hint.Index> indexHints) {
+        return "";
+    }
+
+    /**
+     * Renders the hints that are placed at the end of the statement
+     *
+     * @param hints All hints of the statement
+     * @return the rendered hints or an empty string if the dialect supports none of them
+     */
+    default public String renderQueryHints(List<Hint> hints) {
+        return "";
+    }
+
+    /**
+     * Returns the statement that explains the execution plan of a statement. The parameters of the statement
+     * are bound to the explain statement in the same order.
+     *
+     * @param statement The statement
+     * @return the explain statement
+     * @throws UnsupportedOperationException if the dialect cannot explain a statement in a single query
+     */
+    default public String explain(String statement) {
+        throw new UnsupportedOperationException("EXPLAIN is not supported for " + getClass().getSimpleName());
+    }
+
+    /**
+     * Parses the result of the explain statement
+     *
+     * @param lines The first column of every row of the result
+     * @return the root node of the plan
+     */
+    default public PlanNode parsePlan(List<String> lines) {
+        throw new UnsupportedOperationException("EXPLAIN is not supported for " + getClass().getSimpleName());
+    }
+
+    /**
+     * How a semi join created by {@link sqlbuilder.expressions.Expression#semiJoin(String, sqlbuilder.SelectBuilder)} is rendered.
+     * Most optimizers turn a correlated EXISTS into a semi join, so EXISTS is the default.
+     *
+     * @return the form of the semi join
+     */
+    default public SemiJoinStyle getSemiJoinStyle() {
+        return SemiJoinStyle.EXISTS;
+    }
+
     /**
      * Applies paging with an offset to the SQL statement using the dialect specific syntax
      *
@@ -18,8 +228,88 @@ public interface SqlDialect {
      */
     public String applyPaging(int limit, int offset);
 
+    enum SemiJoinStyle {
+        /**
+         * {@code column IN (SELECT ...)}
+         */
+        IN,
+        /**
+         * {@code EXISTS (SELECT 1 ... WHERE inner = column)}
+         */
+        EXISTS
+    }
+
     public class OracleDialect implements SqlDialect {
 
+        @Override
+        public String upsert(String table, List<String> columns, List<String> keyColumns, List<String> updateColumns, int rowCount) {
+            // Oracle has no VALUES tables, so the rows are selected from DUAL
+            StringJoiner row = new StringJoiner(", ", "SELECT ", " FROM DUAL");
+            columns.forEach(column -> row.add("? " + column));
+            String source = "(" + String.join(" UNION ALL ", Collections.nCopies(rowCount, row.toString())) + ") source";
+            return merge(table, source, columns, keyColumns, updateColumns);
+        }
+
+        @Override
+        public int getMaxBindParameters() {
+            return 65535;
+        }
+
+        @Override
+        public boolean supportsMultiRowValues() {
+            // multi-row VALUES are only supported since Oracle 23
+            return false;
+        }
+
+        @Override
+        public String toLiteral(Object value) {
+            // no boolean literals, booleans are stored as numbers
+            if(value instanceof Boolean bool) {
+                return bool ? "1" : "0";
+            }
+            return SqlDialect.super.toLiteral(value);
+        }
+
+        @Override
+        public boolean requiresRecursiveKeyword() {
+            return false;
+        }
+
+        @Override
+        public String limitDelete(String table, String condition, int rows) {
+            return "DELETE FROM " + table + " WHERE " + rowNumLimit(condition, rows);
+        }
+
+        @Override
+        public String limitUpdate(String table, String assignments, String condition, int rows) {
+            return "UPDATE " + table + " SET " + assignments + " WHERE " + rowNumLimit(condition, rows);
+        }
+
+        private static String rowNumLimit(String condition, int rows) {
+            String limit = "ROWNUM <= " + rows;
+            return condition == null || condition.isBlank() ? limit : "(" + condition + ") AND " + limit;
+        }
+
+        @Override
+        public String renderSelectHints(List<Hint> hints) {
+            StringJoiner sql = new StringJoiner(" ", "/*+ ", " */");
+            sql.setEmptyValue("");
+            for(Hint hint : hints) {
+                switch(hint) {
+                    case Hint.Index index -> sql.add("INDEX(" + index.table() + " " + index.index() + ")");
+                    case Hint.Join join -> sql.add(switch(join.method()) {
+                        case HASH -> "USE_HASH";
+                        case MERGE -> "USE_MERGE";
+                        case NESTED_LOOPS -> "USE_NL";
+                    } + "(" + join.table() + ")");
+                    case Hint.Parallel parallel -> sql.add("PARALLEL(" + parallel.degree() + ")");
+                    // Oracle has no hint to bypass the cached plan
+                    case Hint.Recompile recompile -> {}
+                }
+            }
+            return sql.toString();
+        }
+
         @Override
         public String applyPaging(int limit, int offset) {
             return " LIMIT " + limit + " OFFSET " + offset;
@@ -27,6 +317,23 @@ public interface SqlDialect {
     }
 
     public class DB2Dialect implements SqlDialect {
+        @Override
+        public boolean requiresRecursiveKeyword() {
+            return false;
+        }
+
+        @Override
+        public String limitDelete(String table, String condition, int rows) {
+            return "DELETE FROM (SELECT * FROM " + table + where(condition) + " FETCH FIRST " + rows + " ROWS ONLY)";
+        }
+
+        @Override
+        public String limitUpdate(String table, String assignments, String condition, int rows) {
+            // the rows are selected in a sub query, so the parameters of the assignments stay in front of the condition
+            return "UPDATE " + table + " SET " + assignments
+                    + " WHERE RID() IN (SELECT RID() FROM " + table + where(condition) + " FETCH FIRST " + rows + " ROWS ONLY)";
+        }
+
         @Override
         public String applyPaging(int limit, int offset) {
             //TODO implement paging syntax
@@ -35,6 +342,76 @@ public interface SqlDialect {
     }
 
     public class MsSQLDialect implements SqlDialect {
+        @Override
+        public String upsert(String table, List<String> columns, List<String> keyColumns, List<String> updateColumns, int rowCount) {
+            // MERGE has to be terminated by a semicolon
+            return SqlDialect.super.upsert(table, columns, keyColumns, updateColumns, rowCount) + ";";
+        }
+
+        @Override
+        public int getMaxBindParameters() {
+            return 2100;
+        }
+
+        @Override
+        public int getMaxRowsPerInsert() {
+            return 1000;
+        }
+
+        @Override
+        public String toLiteral(Object value) {
+            // no boolean literals, booleans are stored as numbers
+            if(value instanceof Boolean bool) {
+                return bool ? "1" : "0";
+            }
+            return SqlDialect.super.toLiteral(value);
+        }
+
+        @Override
+        public boolean requiresRecursiveKeyword() {
+            return false;
+        }
+
+        @Override
+        public String limitDelete(String table, String condition, int rows) {
+            return "DELETE TOP (" + rows + ") FROM " + table + where(condition);
+        }
+
+        @Override
+        public String limitUpdate(String table, String assignments, String condition, int rows) {
+            return "UPDATE TOP (" + rows + ") " + table + " SET " + assignments + where(condition);
+        }
+
+        @Override
+        public String renderTableHints(List<Hint.Index> indexHints) {
+            if(indexHints.isEmpty()) {
+                return "";
+            }
+
+            return "WITH (INDEX(" + String.join(", ", indexHints.stream().map(Hint.Index::index).toList()) + "))";
+        }
+
+        @Override
+        public String renderQueryHints(List<Hint> hints) {
+            // a set because multiple join hints with the same method result in the same option
+            Set<String> options = new LinkedHashSet<>();
+            for(Hint hint : hints) {
+                switch(hint) {
+                    // join hints are set for the whole query because table level join hints also force the join order
+                    case Hint.Join join -> options.add(switch(join.method()) {
+                        case HASH -> "HASH JOIN";
+                        case MERGE -> "MERGE JOIN";
+                        case NESTED_LOOPS -> "LOOP JOIN";
+                    });
+                    case Hint.Parallel parallel -> options.add("MAXDOP " + parallel.degree());
+                    case Hint.Recompile recompile -> options.add("RECOMPILE");
+                    // rendered as table hint
+                    case Hint.Index index -> {}
+                }
+            }
+            return options.isEmpty() ? "" : "OPTION (" + String.join(", ", options) + ")";
+        }
+
         @Override
         public String applyPaging(int limit, int offset) {
             //TODO implement paging syntax
@@ -43,6 +420,44 @@ public interface SqlDialect {
     }
 
     public class PostgresDialect implements SqlDialect {
+        @Override
+        public String upsert(String table, List<String> columns, List<String> keyColumns, List<String> updateColumns, int rowCount) {
+            StringJoiner upsert = new StringJoiner(" ")
+                    .add("INSERT INTO").add(table)
+                    .add("(" + String.join(", ", columns) + ")")
+                    .add("VALUES").add(placeholders(columns.size(), rowCount))
+                    .add("ON CONFLICT (" + String.join(", ", keyColumns) + ")");
+            if(updateColumns.isEmpty()) {
+                return upsert.add("DO NOTHING").toString();
+            }
+
+            StringJoiner set = new StringJoiner(", ");
+            updateColumns.forEach(column -> set.add(column + " = EXCLUDED." + column));
+            return upsert.add("DO UPDATE SET").add(set.toString()).toString();
+        }
+
+        @Override
+        public String limitDelete(String table, String condition, int rows) {
+            // DELETE has no LIMIT, so the rows are selected by their physical location
+            return "DELETE FROM " + table + " WHERE ctid IN (SELECT ctid FROM " + table + where(condition) + " LIMIT " + rows + ")";
+        }
+
+        @Override
+        public String limitUpdate(String table, String assignments, String condition, int rows) {
+            return "UPDATE " + table + " SET " + assignments
+                    + " WHERE ctid IN (SELECT ctid FROM " + table + where(condition) + " LIMIT " + rows + ")";
+        }
+
+        @Override
+        public String explain(String statement) {
+            return "EXPLAIN " + statement;
+        }
+
+        @Override
+        public PlanNode parsePlan(List<String> lines) {
+            return PlanParsers.parsePostgres(lines);
+        }
+
         @Override
         public String applyPaging(int limit, int offset) {
             return " LIMIT " + limit + " OFFSET " + offset;
@@ -50,6 +465,43 @@ public interface SqlDialect {
     }
 
     public class H2Dialect implements SqlDialect {
+        @Override
+        public String upsert(String table, List<String> columns, List<String> keyColumns, List<String> updateColumns, int rowCount) {
+            // MERGE INTO ... KEY always updates all other columns, so partial updates need the standard MERGE
+            List<String> otherColumns = columns.stream().filter(column -> !keyColumns.contains(column)).toList();
+            if(!updateColumns.containsAll(otherColumns)) {
+                return SqlDialect.super.upsert(table, columns, keyColumns, updateColumns, rowCount);
+            }
+
+            return "MERGE INTO " + table + " (" + String.join(", ", columns) + ") KEY (" + String.join(", ", keyColumns) + ") VALUES "
+                    + placeholders(columns.size(), rowCount);
+        }
+
+        @Override
+        public String renderTableHints(List<Hint.Index> indexHints) {
+            if(indexHints.isEmpty()) {
+                return "";
+            }
+
+            return "USE INDEX (" + String.join(", ", indexHints.stream().map(Hint.Index::index).toList()) + ")";
+        }
+
+        @Override
+        public SemiJoinStyle getSemiJoinStyle() {
+            // H2 evaluates a correlated EXISTS once per row, but looks up the rows of IN (SELECT ...) by index
+            return SemiJoinStyle.IN;
+        }
+
+        @Override
+        public String explain(String statement) {
+            return "EXPLAIN " + statement;
+        }
+
+        @Override
+        public PlanNode parsePlan(List<String> lines) {
+            return PlanParsers.parseH2(lines);
+        }
+
         @Override
         public String applyPaging(int limit, int offset) {
             return " LIMIT " + limit + " OFFSET " + offset;
@@ -0,0 +1,7 @@
+package sqlbuilder.exceptions;
+
+public class InvalidIdentifierException extends IllegalArgumentException {
+    public InvalidIdentifierException(String identifier) {
+        super("'%s' is not a valid SQL identifier".formatted(identifier));
+    }
+}
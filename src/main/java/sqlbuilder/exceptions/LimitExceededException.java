@@ -0,0 +1,9 @@
+package sqlbuilder.exceptions;
+
+import java.sql.SQLTransientException;
+
+public class LimitExceededException extends SQLTransientException {
+    public LimitExceededException(int limit) {
+        super("The concurrency limit of %d queries is exceeded".formatted(limit));
+    }
+}
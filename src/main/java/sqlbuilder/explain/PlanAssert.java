@@ -0,0 +1,22 @@
+package sqlbuilder.explain;
+
+/**
+ * Assertions on execution plans for integration tests, so plan regressions of hot queries fail the build.
+ * Obtain the plan with {@link sqlbuilder.Query#explain(java.sql.Connection, sqlbuilder.dialects.SqlDialect)}.
+ */
+public class PlanAssert {
+    private PlanAssert() {
+    }
+
+    public static void assertNoFullScan(PlanNode plan) {
+        if(!plan.getFullScans().isEmpty()) {
+            throw new AssertionError("Expected no full table scan but the plan contains " + plan.getFullScans().size() + ":\n" + plan);
+        }
+    }
+
+    public static void assertUsesIndex(PlanNode plan, String index) {
+        if(!plan.usesIndex(index)) {
+            throw new AssertionError("Expected the plan to use the index '" + index + "':\n" + plan);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package sqlbuilder.explain;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * A node of an execution plan as reported by EXPLAIN. Values that the database does not report are -1 or null.
+ */
+public class PlanNode {
+    public static final double UNKNOWN = -1;
+
+    private final String operator;
+    private final String table;
+    private final String index;
+    private final double estimatedRows;
+    private final double cost;
+    private final boolean fullScan;
+    private final List<String> details = new ArrayList<>();
+    private final List<PlanNode> children = new ArrayList<>();
+
+    PlanNode(String operator, String table, String index, double estimatedRows, double cost, boolean fullScan) {
+        this.operator = operator;
+        this.table = table;
+        this.index = index;
+        this.estimatedRows = estimatedRows;
+        this.cost = cost;
+        this.fullScan = fullScan;
+    }
+
+    void addDetail(String detail) {
+        details.add(detail);
+    }
+
+    void addChild(PlanNode child) {
+        children.add(child);
+    }
+
+    public String getOperator() {
+        return operator;
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    /**
+     * @return the name of the index used to access the table or null if no index is used
+     */
+    public String getIndex() {
+        return index;
+    }
+
+    public double getEstimatedRows() {
+        return estimatedRows;
+    }
+
+    /**
+     * @return the estimated total cost of the node in the unit of the database
+     */
+    public double getCost() {
+        return cost;
+    }
+
+    /**
+     * @return true if the node reads the whole table
+     */
+    public boolean isFullScan() {
+        return fullScan;
+    }
+
+    public List<String> getDetails() {
+        return Collections.unmodifiableList(details);
+    }
+
+    public List<PlanNode> getChildren() {
+        return Collections.unmodifiableList(children);
+    }
+
+    /**
+     * Returns this node and all its descendants that match the predicate
+     *
+     * @param predicate The predicate
+     * @return the matching nodes in depth-first order
+     */
+    public List<PlanNode> find(Predicate<PlanNode> predicate) {
+        List<PlanNode> nodes = new ArrayList<>();
+        collect(predicate, nodes);
+        return nodes;
+    }
+
+    private void collect(Predicate<PlanNode> predicate, List<PlanNode> nodes) {
+        if(predicate.test(this)) {
+            nodes.add(this);
+        }
+        children.forEach(child -> child.collect(predicate, nodes));
+    }
+
+    public List<PlanNode> getFullScans() {
+        return find(PlanNode::isFullScan);
+    }
+
+    public boolean usesIndex(String index) {
+        return !find(node -> index.equalsIgnoreCase(node.getIndex())).isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder plan = new StringBuilder();
+        append(plan, 0);
+        return plan.toString();
+    }
+
+    private void append(StringBuilder plan, int depth) {
+        plan.append("  ".repeat(depth)).append(operator);
+        if(table != null) {
+            plan.append(" on ").append(table);
+        }
+        if(index != null) {
+            plan.append(" using ").append(index);
+        }
+        if(estimatedRows != UNKNOWN) {
+            plan.append(" rows=").append(estimatedRows);
+        }
+        if(cost != UNKNOWN) {
+            plan.append(" cost=").append(cost);
+        }
+        plan.append('\n');
+        children.forEach(child -> child.append(plan, depth + 1));
+    }
+}
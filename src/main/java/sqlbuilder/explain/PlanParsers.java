@@ -0,0 +1,120 @@
+package sqlbuilder.explain;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Parses the output of EXPLAIN into a tree of {@link PlanNode}s
+ */
+public class PlanParsers {
+    private static final Pattern POSTGRES_NODE = Pattern.compile("^(.*?)(?: using (\\S+))?(?: on (\\S+)(?: \\S+)?)?$");
+    private static final Pattern POSTGRES_ESTIMATES = Pattern.compile("\\(cost=[\\d.]+\\.\\.([\\d.]+) rows=(\\d+)");
+    private static final Pattern H2_TABLE_ACCESS = Pattern.compile("(?:FROM|JOIN)\\s+((?:\"[^\"]+\"\\.)*\"([^\"]+)\")(?:\\s+\"[^\"]+\")?\\s*/\\*\\s*(.+?)\\s*\\*/", Pattern.DOTALL);
+    private static final String H2_TABLE_SCAN = ".tableScan";
+
+    private PlanParsers() {
+    }
+
+    /**
+     * Parses the text format of a Postgres EXPLAIN. Every line is one row of the result.
+     *
+     * @param lines The lines of the plan
+     * @return the root node of the plan
+     */
+    public static PlanNode parsePostgres(List<String> lines) {
+        PlanNode root = null;
+        // the parent of a node is the last node with an arrow in a smaller column
+        Deque<IndentedNode> parents = new ArrayDeque<>();
+        for(String line : lines) {
+            int arrow = line.indexOf("->");
+            boolean isNode = root == null || (arrow > -1 && line.substring(0, arrow).isBlank());
+            if(!isNode) {
+                if(!parents.isEmpty()) {
+                    parents.peek().node().addDetail(line.strip());
+                }
+                continue;
+            }
+
+            int column = root == null ? -1 : arrow;
+            PlanNode node = parsePostgresNode(root == null ? line.strip() : line.substring(arrow + 2).strip());
+            while(!parents.isEmpty() && parents.peek().column() >= column) {
+                parents.pop();
+            }
+
+            if(root == null) {
+                root = node;
+            } else if(!parents.isEmpty()) {
+                parents.peek().node().addChild(node);
+            }
+            parents.push(new IndentedNode(column, node));
+        }
+
+        if(root == null) {
+            throw new IllegalArgumentException("The plan is empty");
+        }
+        return root;
+    }
+
+    private static PlanNode parsePostgresNode(String line) {
+        int estimatesStart = line.indexOf("  (");
+        String description = estimatesStart < 0 ? line : line.substring(0, estimatesStart);
+        double cost = PlanNode.UNKNOWN;
+        double rows = PlanNode.UNKNOWN;
+        if(estimatesStart > -1) {
+            Matcher estimates = POSTGRES_ESTIMATES.matcher(line);
+            if(estimates.find(estimatesStart)) {
+                cost = Double.parseDouble(estimates.group(1));
+                rows = Double.parseDouble(estimates.group(2));
+            }
+        }
+
+        Matcher node = POSTGRES_NODE.matcher(description);
+        if(!node.matches()) {
+            return new PlanNode(description, null, null, rows, cost, false);
+        }
+
+        String operator = node.group(1);
+        return new PlanNode(operator, node.group(3), node.group(2), rows, cost, operator.endsWith("Seq Scan"));
+    }
+
+    /**
+     * Parses the output of a H2 EXPLAIN. H2 returns the statement with a comment after every table
+     * that names the index used to access the table. H2 does not report estimated rows or costs.
+     *
+     * @param lines The lines of the plan
+     * @return the root node of the plan with one child per table access
+     */
+    public static PlanNode parseH2(List<String> lines) {
+        String plan = String.join("\n", lines);
+        PlanNode root = new PlanNode("SELECT", null, null, PlanNode.UNKNOWN, PlanNode.UNKNOWN, false);
+
+        Matcher access = H2_TABLE_ACCESS.matcher(plan);
+        while(access.find()) {
+            String table = access.group(2);
+            String comment = access.group(3);
+            int conditionStart = comment.indexOf(':');
+            String indexName = conditionStart < 0 ? comment : comment.substring(0, conditionStart);
+
+            PlanNode node;
+            if(indexName.endsWith(H2_TABLE_SCAN)) {
+                node = new PlanNode("Table Scan", table, null, PlanNode.UNKNOWN, PlanNode.UNKNOWN, true);
+            } else {
+                // strip the schema of the index
+                node = new PlanNode("Index Scan", table, indexName.substring(indexName.lastIndexOf('.') + 1).strip(),
+                        PlanNode.UNKNOWN, PlanNode.UNKNOWN, false);
+            }
+
+            if(conditionStart > -1) {
+                node.addDetail(comment.substring(conditionStart + 1).strip());
+            }
+            root.addChild(node);
+        }
+        return root;
+    }
+
+    private record IndentedNode(int column, PlanNode node) {
+    }
+}
@@ -126,6 +126,14 @@ public interface Condition {
             this.conditions = conditions;
         }
 
+        String getType() {
+            return type;
+        }
+
+        List<Condition> getConditions() {
+            return conditions;
+        }
+
         @Override
         public String toSql(SqlDialect dialect) {
             if(conditions.isEmpty()) {
@@ -157,6 +165,18 @@ class ComparisionCondition implements Condition {
         this.comparisonValue = comparisonValue;
     }
 
+    Operand getColumn() {
+        return column;
+    }
+
+    String getOperator() {
+        return operator;
+    }
+
+    Operand getComparisonValue() {
+        return comparisonValue;
+    }
+
     @Override
     public String toSql(SqlDialect dialect) {
         return new StringJoiner(" ")
@@ -198,6 +218,14 @@ class LikeCondition implements Condition {
         this.escapeChar = escape;
     }
 
+    Operand getColumn() {
+        return column;
+    }
+
+    Operand getPattern() {
+        return pattern;
+    }
+
     @Override
     public String toSql(SqlDialect dialect) {
         StringJoiner statement = new StringJoiner(" ")
@@ -256,6 +284,10 @@ class NotCondition implements Condition {
         this.condition = condition;
     }
 
+    Condition getCondition() {
+        return condition;
+    }
+
     @Override
     public String toSql(SqlDialect dialect) {
         return "NOT " + condition.toSql(dialect);
@@ -374,6 +406,58 @@ class NotExistsCondition extends ExistsCondition {
     }
 }
 
+class SubQueryJoinCondition implements Condition {
+    private final String column;
+    private final SelectBuilder subQuery;
+    private final boolean anti;
+
+    public SubQueryJoinCondition(String column, SelectBuilder subQuery, boolean anti) {
+        if(column == null || column.isBlank()) {
+            throw new ValueCannotBeEmptyException("column");
+        }
+
+        this.column = column;
+        this.subQuery = subQuery;
+        this.anti = anti;
+    }
+
+    String getColumn() {
+        return column;
+    }
+
+    SelectBuilder getSubQuery() {
+        return subQuery;
+    }
+
+    private boolean isCorrelated(SqlDialect dialect) {
+        // an unqualified column could be resolved to a column of the sub query
+        return anti || (dialect.getSemiJoinStyle() == SqlDialect.SemiJoinStyle.EXISTS && column.contains("."));
+    }
+
+    @Override
+    public String toSql(SqlDialect dialect) {
+        StringJoiner sql = new StringJoiner(" ");
+        if(isCorrelated(dialect)) {
+            sql.add(anti ? "NOT EXISTS" : "EXISTS")
+                    .add("(")
+                    .add(subQuery.buildCorrelated(column).getStatement());
+        } else {
+            sql.add(column)
+                    .add("IN")
+                    .add("(")
+                    .add(subQuery.build().getStatement());
+        }
+        sql.add(")");
+        return sql.toString();
+    }
+
+    @Override
+    public List<Object> getParameters() {
+        // the correlated statement has the same parameters in the same order
+        return subQuery.build().getParameters();
+    }
+}
+
 class BetweenCondition implements Condition {
     private final Operand column;
     private final Operand lowerBound;
@@ -385,6 +469,10 @@ class BetweenCondition implements Condition {
         this.upperBound = upperBound;
     }
 
+    Operand getColumn() {
+        return column;
+    }
+
     @Override
     public String toSql(SqlDialect dialect) {
         return new StringJoiner(" ")
@@ -0,0 +1,115 @@
+package sqlbuilder.expressions;
+
+import java.math.BigInteger;
+import java.util.*;
+
+/**
+ * Determines the values a column is restricted to by conditions, e.g. to find the shards or partitions
+ * a query has to read. Only equality and IN conditions with values restrict a column. A column name matches
+ * if it is equal to the name or qualified by a table alias, ignoring the case.
+ */
+public final class ConditionValues {
+    private ConditionValues() {
+    }
+
+    /**
+     * Returns the values of a column that can match conditions chained by AND
+     *
+     * @param column The column
+     * @param conditions The conditions
+     * @return the values, or an empty optional if the conditions do not restrict the column to a set of values
+     */
+    public static Optional<Set<Object>> of(String column, Collection<Condition> conditions) {
+        Set<Object> values = null;
+        for(Condition condition : conditions) {
+            values = intersect(values, valuesOf(column, condition));
+        }
+        return Optional.ofNullable(values);
+    }
+
+    public static Optional<Set<Object>> of(String column, Condition condition) {
+        return of(column, List.of(condition));
+    }
+
+    /**
+     * @return the values or null if the condition does not restrict the column
+     */
+    private static Set<Object> valuesOf(String column, Condition condition) {
+        switch(condition) {
+            case Condition.CompositeCondition composite when "AND".equals(composite.getType()) -> {
+                Set<Object> values = null;
+                for(Condition child : composite.getConditions()) {
+                    values = intersect(values, valuesOf(column, child));
+                }
+                return values;
+            }
+            case Condition.CompositeCondition composite when "OR".equals(composite.getType()) -> {
+                Set<Object> values = new LinkedHashSet<>();
+                for(Condition child : composite.getConditions()) {
+                    Set<Object> childValues = valuesOf(column, child);
+                    if(childValues == null) {
+                        return null;
+                    }
+                    values.addAll(childValues);
+                }
+                return values.isEmpty() ? null : values;
+            }
+            case ComparisionCondition comparison when "=".equals(comparison.getOperator())
+                    && isColumn(comparison.getColumn(), column)
+                    && comparison.getComparisonValue() instanceof ValueOperand value
+                    && value.getValue() != null -> {
+                return new LinkedHashSet<>(List.of(value.getValue()));
+            }
+            case InCondition in when !(in instanceof NotInCondition) && in.values != null && matches(in.column, column) -> {
+                Set<Object> values = new LinkedHashSet<>(in.values);
+                values.remove(null);
+                return values;
+            }
+            default -> {
+                // NOT, ranges and all other conditions can match any value of the column
+                return null;
+            }
+        }
+    }
+
+    private static Set<Object> intersect(Set<Object> values, Set<Object> otherValues) {
+        if(values == null) {
+            return otherValues;
+        }
+
+        if(otherValues != null) {
+            Set<Object> otherKeys = new HashSet<>();
+            for(Object value : otherValues) {
+                otherKeys.add(normalize(value));
+            }
+            values.removeIf(value -> !otherKeys.contains(normalize(value)));
+        }
+        return values;
+    }
+
+    /**
+     * Integral numbers of different types are equal if they have the same value, e.g. 5 and 5L
+     */
+    private static Object normalize(Object value) {
+        if(value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            return ((Number) value).longValue();
+        }
+        if(value instanceof BigInteger bigInteger && bigInteger.bitLength() < Long.SIZE) {
+            return bigInteger.longValue();
+        }
+        return value;
+    }
+
+    private static boolean isColumn(Operand operand, String column) {
+        return operand instanceof ColumnOperand columnOperand && matches(columnOperand.getColumnName(), column);
+    }
+
+    private static boolean matches(String name, String column) {
+        if(name.equalsIgnoreCase(column)) {
+            return true;
+        }
+
+        int qualifier = name.lastIndexOf('.');
+        return qualifier > -1 && name.substring(qualifier + 1).equalsIgnoreCase(column);
+    }
+}
@@ -1,6 +1,7 @@
 package sqlbuilder.expressions;
 
 import sqlbuilder.SelectBuilder;
+import sqlbuilder.identifiers.Column;
 
 import java.util.Arrays;
 import java.util.List;
@@ -22,6 +23,10 @@ public class Expression {
         return new ColumnOperand(alias + "." + columnName);
     }
 
+    public static Operand column(Column column) {
+        return new ColumnOperand(column.getQualifiedName());
+    }
+
     public static Operand value(Object value) {
         return new ValueOperand(value);
     }
@@ -150,6 +155,34 @@ public class Expression {
         return new NotExistsCondition(subQuery);
     }
 
+    /**
+     * Creates a condition that keeps the rows with a matching row in the sub query. Unlike {@link #in(String, SelectBuilder)}
+     * the dialect chooses whether it is rendered as IN or as correlated EXISTS, see {@link sqlbuilder.dialects.SqlDialect#getSemiJoinStyle()}.
+     * If the column is not qualified with the alias of its table, IN is always used.
+     *
+     * @param column The column of the outer statement
+     * @param subQuery The sub query selecting exactly one column
+     */
+    public static Condition semiJoin(String column, SelectBuilder subQuery) {
+        return new SubQueryJoinCondition(column, subQuery, false);
+    }
+
+    /**
+     * Creates a condition that keeps the rows without a matching row in the sub query. It is rendered as correlated NOT EXISTS,
+     * which is planned as anti join. Unlike {@link #notIn(String, SelectBuilder)} NULL values in the sub query do not filter out all rows
+     * and rows with a NULL column are kept.
+     *
+     * @param column The column of the outer statement, qualified with the alias of its table
+     * @param subQuery The sub query selecting exactly one column
+     */
+    public static Condition antiJoin(String column, SelectBuilder subQuery) {
+        if(column == null || !column.contains(".")) {
+            throw new IllegalArgumentException("The column of an anti join has to be qualified with the alias of its table: " + column);
+        }
+
+        return new SubQueryJoinCondition(column, subQuery, true);
+    }
+
     public static Condition between(String column, Object lowerBound, Object upperBound) {
         return new BetweenCondition(column(column), value(lowerBound), value(upperBound));
     }
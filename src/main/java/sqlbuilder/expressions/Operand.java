@@ -1,5 +1,6 @@
 package sqlbuilder.expressions;
 
+import sqlbuilder.Lob;
 import sqlbuilder.SelectBuilder;
 import sqlbuilder.dialects.SqlDialect;
 import sqlbuilder.exceptions.DuplicateKeyException;
@@ -75,6 +76,10 @@ public interface Operand {
             this.subQuery = subQuery;
         }
 
+        SelectBuilder getSubQuery() {
+            return subQuery;
+        }
+
         @Override
         public String toSql(SqlDialect dialect) {
             return "( %s )".formatted(subQuery.build().getStatement());
@@ -142,12 +147,30 @@ public interface Operand {
                 this.value = new ValueOperand(value);
             }
 
+            /**
+             * Sets a large value that is streamed when the statement is bound
+             *
+             * @param value The value
+             */
+            public void setValue(Lob value) {
+                this.value = new ValueOperand(value);
+            }
+
             public Operand getValue() {
                 return this.value;
             }
 
+            /**
+             * Returns the value that is bound to the prepared statement
+             *
+             * @return The value or null if no value is set
+             */
+            public Object getRawValue() {
+                return this.value == null ? null : this.value.getValue();
+            }
+
             public String toSqlValue(SqlDialect dialect) {
-                return this.value.toSql(dialect);
+                return dialect.toLiteral(getRawValue());
             }
         }
     }
@@ -160,6 +183,10 @@ class ValueOperand implements Operand {
         this.value = value;
     }
 
+    Object getValue() {
+        return value;
+    }
+
     @Override
     public String toSql(SqlDialect dialect) {
         return "?";
@@ -178,6 +205,10 @@ class ColumnOperand implements Operand {
         this.columnName = columnName;
     }
 
+    String getColumnName() {
+        return columnName;
+    }
+
     @Override
     public String toSql(SqlDialect dialect) {
         return columnName;
@@ -208,6 +239,13 @@ class AnyAllOperand implements Operand {
         this.subQuery = subQuery;
     }
 
+    /**
+     * @return the sub query or null if the values are a list
+     */
+    SelectBuilder getSubQuery() {
+        return subQuery;
+    }
+
     @Override
     public String toSql(SqlDialect dialect) {
         StringJoiner sql = new StringJoiner(" ")
@@ -225,7 +263,7 @@ class AnyAllOperand implements Operand {
     @Override
     public void addParameters(List<Object> parameters) {
         if(values != null) {
-            parameters.addAll(values);
+            values.forEach(value -> value.addParameters(parameters));
         } else {
             parameters.addAll(subQuery.build().getParameters());
         }
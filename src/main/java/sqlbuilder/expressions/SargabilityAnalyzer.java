@@ -0,0 +1,158 @@
+package sqlbuilder.expressions;
+
+import sqlbuilder.SelectBuilder;
+import sqlbuilder.dialects.SqlDialect;
+
+import java.util.*;
+
+/**
+ * Finds patterns in conditions that prevent the database from using an index, like a LIKE pattern
+ * starting with a wildcard or a function wrapped around a column. The analysis only looks at the condition
+ * tree, so it can run in tests or before a statement is executed.
+ */
+public class SargabilityAnalyzer {
+    // aggregates are only allowed in HAVING, where they are evaluated per group and not looked up in an index
+    private static final Set<String> AGGREGATES = Set.of("COUNT", "SUM", "AVG", "MIN", "MAX");
+
+    private final SqlDialect dialect;
+
+    public SargabilityAnalyzer(SqlDialect dialect) {
+        this.dialect = dialect;
+    }
+
+    /**
+     * Analyzes the WHERE, JOIN and HAVING conditions of a query and of all its sub queries, including sub queries
+     * used as operands of a comparison or of ANY and ALL
+     *
+     * @param query The query
+     * @return the warnings in the order of the conditions
+     */
+    public List<SargabilityWarning> analyze(SelectBuilder query) {
+        List<SargabilityWarning> warnings = new ArrayList<>();
+        analyze(query, warnings, Collections.newSetFromMap(new IdentityHashMap<>()));
+        return warnings;
+    }
+
+    public List<SargabilityWarning> analyze(Condition condition) {
+        List<SargabilityWarning> warnings = new ArrayList<>();
+        analyze(condition, warnings, Collections.newSetFromMap(new IdentityHashMap<>()));
+        return warnings;
+    }
+
+    private void analyze(SelectBuilder query, List<SargabilityWarning> warnings, Set<SelectBuilder> analyzedQueries) {
+        // a sub query can be used multiple times, but its warnings are only reported once
+        if(!analyzedQueries.add(query)) {
+            return;
+        }
+
+        query.getJoinConditions().forEach(condition -> analyze(condition, warnings, analyzedQueries));
+        query.getConditions().forEach(condition -> analyze(condition, warnings, analyzedQueries));
+        if(query.getHavingCondition() != null) {
+            analyze(query.getHavingCondition(), warnings, analyzedQueries);
+        }
+    }
+
+    private void analyze(Condition condition, List<SargabilityWarning> warnings, Set<SelectBuilder> analyzedQueries) {
+        switch(condition) {
+            case Condition.CompositeCondition composite -> {
+                if("OR".equals(composite.getType())) {
+                    Set<String> columns = new LinkedHashSet<>();
+                    collectColumns(composite, columns);
+                    if(columns.size() > 1) {
+                        warn(warnings, SargabilityWarning.Type.OR_ACROSS_COLUMNS, composite,
+                                "OR across the columns %s prevents using a single index".formatted(columns));
+                    }
+                }
+                composite.getConditions().forEach(child -> analyze(child, warnings, analyzedQueries));
+            }
+            case NotCondition not -> analyze(not.getCondition(), warnings, analyzedQueries);
+            case ComparisionCondition comparison -> {
+                checkColumn(comparison.getColumn(), comparison, warnings);
+                if(comparison.getColumn() instanceof Operand.CaseBuilder || comparison.getComparisonValue() instanceof Operand.CaseBuilder) {
+                    warn(warnings, SargabilityWarning.Type.CASE_IN_COMPARISON, comparison,
+                            "a CASE expression in a comparison cannot be matched against an index");
+                }
+                analyze(comparison.getColumn(), warnings, analyzedQueries);
+                analyze(comparison.getComparisonValue(), warnings, analyzedQueries);
+            }
+            case LikeCondition like -> {
+                checkColumn(like.getColumn(), like, warnings);
+                if(like.getPattern() instanceof ValueOperand value && value.getValue() instanceof String pattern
+                        && (pattern.startsWith("%") || pattern.startsWith("_"))) {
+                    warn(warnings, SargabilityWarning.Type.LEADING_WILDCARD, like,
+                            "the LIKE pattern '%s' starts with a wildcard".formatted(pattern));
+                }
+            }
+            case InCondition in -> {
+                checkColumn(in.column, in, warnings);
+                if(in.subQuery != null) {
+                    if(in instanceof NotInCondition) {
+                        warn(warnings, SargabilityWarning.Type.NOT_IN_SUB_QUERY, in,
+                                "NOT IN over a sub query blocks anti-join plans and never matches if the sub query returns NULL");
+                    }
+                    analyze(in.subQuery, warnings, analyzedQueries);
+                }
+            }
+            case ExistsCondition exists -> analyze(exists.subQuery, warnings, analyzedQueries);
+            case SubQueryJoinCondition join -> {
+                checkColumn(join.getColumn(), join, warnings);
+                analyze(join.getSubQuery(), warnings, analyzedQueries);
+            }
+            case NullCondition isNull -> checkColumn(isNull.column, isNull, warnings);
+            case BetweenCondition between -> checkColumn(between.getColumn(), between, warnings);
+            default -> {
+                // conditions without columns, e.g. custom implementations
+            }
+        }
+    }
+
+    private void analyze(Operand operand, List<SargabilityWarning> warnings, Set<SelectBuilder> analyzedQueries) {
+        switch(operand) {
+            case Operand.SubQuery subQuery -> analyze(subQuery.getSubQuery(), warnings, analyzedQueries);
+            case AnyAllOperand anyAll when anyAll.getSubQuery() != null -> analyze(anyAll.getSubQuery(), warnings, analyzedQueries);
+            case null, default -> {
+                // operands without a sub query
+            }
+        }
+    }
+
+    private void checkColumn(Operand column, Condition condition, List<SargabilityWarning> warnings) {
+        if(column instanceof ColumnOperand columnOperand) {
+            checkColumn(columnOperand.getColumnName(), condition, warnings);
+        }
+    }
+
+    private void checkColumn(String column, Condition condition, List<SargabilityWarning> warnings) {
+        int function = column.indexOf('(');
+        if(function > -1 && !AGGREGATES.contains(column.substring(0, function).strip().toUpperCase(Locale.ROOT))) {
+            warn(warnings, SargabilityWarning.Type.FUNCTION_ON_COLUMN, condition,
+                    "the function in '%s' prevents using an index on the column".formatted(column));
+        }
+    }
+
+    private static void collectColumns(Condition condition, Set<String> columns) {
+        switch(condition) {
+            case Condition.CompositeCondition composite -> composite.getConditions().forEach(child -> collectColumns(child, columns));
+            case NotCondition not -> collectColumns(not.getCondition(), columns);
+            case ComparisionCondition comparison -> collectColumn(comparison.getColumn(), columns);
+            case LikeCondition like -> collectColumn(like.getColumn(), columns);
+            case BetweenCondition between -> collectColumn(between.getColumn(), columns);
+            case InCondition in -> columns.add(in.column);
+            case SubQueryJoinCondition join -> columns.add(join.getColumn());
+            case NullCondition isNull -> columns.add(isNull.column);
+            default -> {
+                // EXISTS and custom conditions reference no column of the outer query
+            }
+        }
+    }
+
+    private static void collectColumn(Operand column, Set<String> columns) {
+        if(column instanceof ColumnOperand columnOperand) {
+            columns.add(columnOperand.getColumnName());
+        }
+    }
+
+    private void warn(List<SargabilityWarning> warnings, SargabilityWarning.Type type, Condition condition, String message) {
+        warnings.add(new SargabilityWarning(type, condition.toSql(dialect), message));
+    }
+}
@@ -0,0 +1,23 @@
+package sqlbuilder.expressions;
+
+/**
+ * A pattern in a condition that prevents the database from using an index
+ *
+ * @param type The kind of pattern
+ * @param condition The SQL of the condition containing the pattern
+ * @param message A description of the pattern
+ */
+public record SargabilityWarning(Type type, String condition, String message) {
+    public enum Type {
+        LEADING_WILDCARD,
+        NOT_IN_SUB_QUERY,
+        OR_ACROSS_COLUMNS,
+        FUNCTION_ON_COLUMN,
+        CASE_IN_COMPARISON
+    }
+
+    @Override
+    public String toString() {
+        return type + ": " + message + " [" + condition + "]";
+    }
+}
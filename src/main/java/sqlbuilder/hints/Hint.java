@@ -0,0 +1,93 @@
+package sqlbuilder.hints;
+
+import sqlbuilder.exceptions.ValueCannotBeEmptyException;
+import sqlbuilder.exceptions.ValueCannotBeNullException;
+
+/**
+ * A hint for the optimizer of the database. Every dialect renders the hints it supports in its own syntax
+ * and drops the others, so a statement with hints stays valid for every dialect.
+ */
+public sealed interface Hint {
+    enum JoinMethod {
+        HASH,
+        MERGE,
+        NESTED_LOOPS
+    }
+
+    /**
+     * Use an index to access a table
+     *
+     * @param table The table or its alias
+     * @param index The name of the index
+     */
+    record Index(String table, String index) implements Hint {
+        public Index {
+            if(table == null || table.isBlank()) {
+                throw new ValueCannotBeEmptyException("table");
+            }
+            if(index == null || index.isBlank()) {
+                throw new ValueCannotBeEmptyException("index");
+            }
+        }
+    }
+
+    /**
+     * Use a join method to join a table
+     *
+     * @param table The joined table or its alias
+     * @param method The join method
+     */
+    record Join(String table, JoinMethod method) implements Hint {
+        public Join {
+            if(table == null || table.isBlank()) {
+                throw new ValueCannotBeEmptyException("table");
+            }
+            if(method == null) {
+                throw new ValueCannotBeNullException("method");
+            }
+        }
+    }
+
+    /**
+     * Execute the statement in parallel
+     *
+     * @param degree The maximum degree of parallelism
+     */
+    record Parallel(int degree) implements Hint {
+        public Parallel {
+            if(degree < 1) {
+                throw new IllegalArgumentException("degree must be at least 1");
+            }
+        }
+    }
+
+    /**
+     * Compile a new plan on every execution instead of using a cached plan
+     */
+    record Recompile() implements Hint {
+    }
+
+    static Hint index(String table, String index) {
+        return new Index(table, index);
+    }
+
+    static Hint hashJoin(String table) {
+        return new Join(table, JoinMethod.HASH);
+    }
+
+    static Hint mergeJoin(String table) {
+        return new Join(table, JoinMethod.MERGE);
+    }
+
+    static Hint nestedLoopsJoin(String table) {
+        return new Join(table, JoinMethod.NESTED_LOOPS);
+    }
+
+    static Hint parallel(int degree) {
+        return new Parallel(degree);
+    }
+
+    static Hint recompile() {
+        return new Recompile();
+    }
+}
@@ -0,0 +1,105 @@
+package sqlbuilder.identifiers;
+
+import sqlbuilder.dialects.SqlDialect;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An interned column identifier. The qualified name is rendered once when the identifier is created and the
+ * select form with the quoted alias is rendered once per dialect.
+ * Only the first {@value InternPool#DEFAULT_MAX_SIZE} distinct columns are interned, identifiers beyond that
+ * are created on every call.
+ */
+public final class Column {
+    private static final InternPool<Key, Column> INTERNED = new InternPool<>();
+
+    private final String qualifier;
+    private final String name;
+    private final String alias;
+    private final String qualifiedName;
+    private final Map<Class<? extends SqlDialect>, String> selectSqlPerDialect = new ConcurrentHashMap<>();
+
+    private Column(String qualifier, String name, String alias) {
+        this.qualifier = qualifier;
+        this.name = name;
+        this.alias = alias;
+        this.qualifiedName = qualifier == null ? name : qualifier + "." + name;
+    }
+
+    public static Column of(String name) {
+        return of(null, name);
+    }
+
+    public static Column of(String qualifier, String name) {
+        return of(qualifier, name, name);
+    }
+
+    /**
+     * Returns the interned column identifier.
+     *
+     * @param qualifier The table or table alias the column belongs to. Can be null for an unqualified column
+     * @param name The name of the column
+     * @param alias The alias the column is selected as
+     * @return The interned identifier
+     */
+    public static Column of(String qualifier, String name, String alias) {
+        Key key = new Key(qualifier, name, alias);
+        // only validated identifiers are interned, so a hit does not need to be validated again
+        Column column = INTERNED.get(key);
+        if(column != null) {
+            return column;
+        }
+
+        if(qualifier != null) {
+            Identifiers.validate("qualifier", qualifier);
+        }
+        Identifiers.validate("column", name);
+        Identifiers.validateAlias(alias);
+
+        return INTERNED.intern(key, new Column(qualifier, name, alias));
+    }
+
+    public Column as(String alias) {
+        return of(qualifier, name, alias);
+    }
+
+    public String getQualifier() {
+        return qualifier;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getAlias() {
+        return alias;
+    }
+
+    /**
+     * Returns the column as used in conditions, GROUP BY and ORDER BY
+     *
+     * @return The qualified name of the column
+     */
+    public String getQualifiedName() {
+        return qualifiedName;
+    }
+
+    /**
+     * Returns the column as used in the select list including the quoted alias
+     *
+     * @param dialect The dialect used to quote the alias
+     * @return The rendered column
+     */
+    public String toSelectSql(SqlDialect dialect) {
+        return selectSqlPerDialect.computeIfAbsent(dialect.getClass(), d -> qualifiedName + " AS " + dialect.quote(alias));
+    }
+
+    @Override
+    public String toString() {
+        return qualifiedName;
+    }
+
+    private record Key(String qualifier, String name, String alias) {
+    }
+}
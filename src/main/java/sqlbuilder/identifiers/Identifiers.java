@@ -0,0 +1,53 @@
+package sqlbuilder.identifiers;
+
+import sqlbuilder.exceptions.InvalidIdentifierException;
+import sqlbuilder.exceptions.ValueCannotBeEmptyException;
+
+import java.util.regex.Pattern;
+
+/**
+ * Validation of plain SQL identifiers, so names passed at runtime cannot inject SQL
+ */
+public final class Identifiers {
+    private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_][A-Za-z0-9_$#]*");
+
+    private Identifiers() {
+    }
+
+    /**
+     * Validates that the passed name is a plain unquoted SQL identifier
+     *
+     * @param valueName The name of the value used in the exception message
+     * @param identifier The identifier that is validated
+     * @return The identifier
+     * @throws ValueCannotBeEmptyException if the identifier is null or blank
+     * @throws InvalidIdentifierException if the identifier is not a plain identifier
+     */
+    public static String validate(String valueName, String identifier) {
+        if(identifier == null || identifier.isBlank()) {
+            throw new ValueCannotBeEmptyException(valueName);
+        }
+
+        if(!IDENTIFIER.matcher(identifier).matches()) {
+            throw new InvalidIdentifierException(identifier);
+        }
+        return identifier;
+    }
+
+    /**
+     * Validates an alias. Aliases are always quoted, so every character except the quote character is allowed.
+     *
+     * @param alias The alias that is validated
+     * @return The alias
+     */
+    static String validateAlias(String alias) {
+        if(alias == null || alias.isBlank()) {
+            throw new ValueCannotBeEmptyException("alias");
+        }
+
+        if(alias.indexOf('"') > -1) {
+            throw new InvalidIdentifierException(alias);
+        }
+        return alias;
+    }
+}
@@ -0,0 +1,53 @@
+package sqlbuilder.identifiers;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds the interned identifiers of one kind. The pool stops growing at its maximum size, identifiers created
+ * afterwards are returned without being interned, so identifiers built from dynamic values cannot grow the pool without limit.
+ *
+ * @param <K> The type of the key an identifier is looked up by
+ * @param <V> The type of the identifier
+ */
+final class InternPool<K, V> {
+    static final int DEFAULT_MAX_SIZE = 10_000;
+
+    private final Map<K, V> interned = new ConcurrentHashMap<>();
+    private final int maxSize;
+
+    InternPool() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    InternPool(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @return the interned identifier or null if the key was not interned
+     */
+    V get(K key) {
+        return interned.get(key);
+    }
+
+    /**
+     * Interns an identifier if the pool is not full
+     *
+     * @param key The key of the identifier
+     * @param identifier The identifier
+     * @return the identifier interned for the key, which is the passed identifier unless another thread was faster
+     */
+    V intern(K key, V identifier) {
+        if(interned.size() >= maxSize) {
+            return identifier;
+        }
+
+        V existing = interned.putIfAbsent(key, identifier);
+        return existing == null ? identifier : existing;
+    }
+
+    int size() {
+        return interned.size();
+    }
+}
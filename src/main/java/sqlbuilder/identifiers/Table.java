@@ -0,0 +1,126 @@
+package sqlbuilder.identifiers;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An interned table identifier. The schema qualified name and the name with alias are rendered once
+ * when the identifier is created, so using the identifier in a statement does not format any strings.
+ * Only the first {@value InternPool#DEFAULT_MAX_SIZE} distinct tables are interned, identifiers beyond that
+ * are created on every call.
+ */
+public final class Table {
+    private static final InternPool<Key, Table> INTERNED = new InternPool<>();
+    private static final int MAX_DEFAULT_SCHEMAS = 64;
+
+    private final String schema;
+    private final String name;
+    private final String alias;
+    private final String qualifiedName;
+    private final String sql;
+    private final Map<String, String> sqlPerDefaultSchema = new ConcurrentHashMap<>();
+
+    private Table(String schema, String name, String alias) {
+        this.schema = schema;
+        this.name = name;
+        this.alias = alias;
+        this.qualifiedName = schema == null ? name : schema + "." + name;
+        this.sql = qualifiedName + " " + alias;
+    }
+
+    public static Table of(String name) {
+        return of(null, name);
+    }
+
+    public static Table of(String schema, String name) {
+        return of(schema, name, name);
+    }
+
+    /**
+     * Returns the interned table identifier.
+     *
+     * @param schema The schema of the table. Can be null to use the schema of the builder the table is used in
+     * @param name The name of the table
+     * @param alias The alias of the table
+     * @return The interned identifier
+     */
+    public static Table of(String schema, String name, String alias) {
+        Key key = new Key(schema, name, alias);
+        // only validated identifiers are interned, so a hit does not need to be validated again
+        Table table = INTERNED.get(key);
+        if(table != null) {
+            return table;
+        }
+
+        if(schema != null) {
+            Identifiers.validate("schema", schema);
+        }
+        Identifiers.validate("table", name);
+        Identifiers.validate("alias", alias);
+
+        return INTERNED.intern(key, new Table(schema, name, alias));
+    }
+
+    public Table as(String alias) {
+        return of(schema, name, alias);
+    }
+
+    /**
+     * Returns a column identifier of this table that is qualified by the alias of the table
+     *
+     * @param column The name of the column
+     * @return The interned column identifier
+     */
+    public Column column(String column) {
+        return Column.of(alias, column);
+    }
+
+    public String getSchema() {
+        return schema;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getAlias() {
+        return alias;
+    }
+
+    public String getQualifiedName() {
+        return qualifiedName;
+    }
+
+    /**
+     * Returns the table with its alias as used in the FROM clause. The default schema is only applied
+     * if the table has no schema of its own.
+     *
+     * @param defaultSchema The schema of the builder. Can be null or blank for no schema
+     * @return The rendered table
+     */
+    public String toSql(String defaultSchema) {
+        if(schema != null || defaultSchema == null || defaultSchema.isBlank()) {
+            return sql;
+        }
+
+        String cached = sqlPerDefaultSchema.get(defaultSchema);
+        if(cached != null) {
+            return cached;
+        }
+
+        // tables used with the schema of every tenant would otherwise cache a string per tenant
+        String rendered = defaultSchema + "." + sql;
+        if(sqlPerDefaultSchema.size() < MAX_DEFAULT_SCHEMAS) {
+            sqlPerDefaultSchema.putIfAbsent(defaultSchema, rendered);
+        }
+        return rendered;
+    }
+
+    @Override
+    public String toString() {
+        return sql;
+    }
+
+    private record Key(String schema, String name, String alias) {
+    }
+}
@@ -0,0 +1,274 @@
+package sqlbuilder.paging;
+
+import sqlbuilder.Deadline;
+import sqlbuilder.Query;
+import sqlbuilder.RowMapper;
+import sqlbuilder.SelectBuilder;
+import sqlbuilder.exceptions.ValueCannotBeEmptyException;
+import sqlbuilder.exceptions.ValueCannotBeNullException;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Function;
+
+import static sqlbuilder.expressions.Expression.gt;
+import static sqlbuilder.expressions.Expression.param;
+
+/**
+ * Iterates over the pages of a query while the next pages are loaded in the background, so the database
+ * and the caller work at the same time. At most the prefetch depth of pages is loaded ahead of the caller,
+ * the loading pauses until the caller takes a page.
+ * <p>
+ * By default the pages are read by limit and offset, which requires a stable ORDER BY. With {@link #seek(String, Function)}
+ * every page continues after the last key of the previous page, so the database does not skip the offset rows.
+ * The pages are read by a copy of the query, so the query is not changed and can be iterated again.
+ * Close the iterator if it is not read to the end.
+ *
+ * @param <R> The type of the mapped rows
+ */
+public class PrefetchingPageIterator<R> implements Iterator<List<R>>, AutoCloseable {
+    public static final int DEFAULT_PAGE_SIZE = 1000;
+    public static final int DEFAULT_PREFETCH_DEPTH = 2;
+
+    private static final Object END = new Object();
+
+    private final DataSource dataSource;
+    private final SelectBuilder query;
+    private final RowMapper<R> rowMapper;
+
+    private int pageSize = DEFAULT_PAGE_SIZE;
+    private int prefetchDepth = DEFAULT_PREFETCH_DEPTH;
+    private String seekColumn = null;
+    private Function<R, ?> seekKey = null;
+
+    private BlockingQueue<Object> pages = null;
+    private Thread loader = null;
+    private volatile boolean closed = false;
+    private List<R> next = null;
+    private boolean finished = false;
+
+    public PrefetchingPageIterator(DataSource dataSource, SelectBuilder query, RowMapper<R> rowMapper) {
+        if(dataSource == null) {
+            throw new ValueCannotBeNullException("dataSource");
+        }
+
+        if(query == null) {
+            throw new ValueCannotBeNullException("query");
+        }
+
+        if(rowMapper == null) {
+            throw new ValueCannotBeNullException("rowMapper");
+        }
+
+        this.dataSource = dataSource;
+        this.query = query;
+        this.rowMapper = rowMapper;
+    }
+
+    /**
+     * @param pageSize The number of rows per page. All values smaller than 1 are interpreted as 1
+     */
+    public PrefetchingPageIterator<R> pageSize(int pageSize) {
+        checkNotStarted();
+        this.pageSize = Math.max(pageSize, 1);
+        return this;
+    }
+
+    /**
+     * @param prefetchDepth The maximum number of pages loaded ahead of the caller. All values smaller than 1 are interpreted as 1
+     */
+    public PrefetchingPageIterator<R> prefetch(int prefetchDepth) {
+        checkNotStarted();
+        this.prefetchDepth = Math.max(prefetchDepth, 1);
+        return this;
+    }
+
+    /**
+     * Reads the pages by the key of the last row instead of an offset. The query has to be ordered ascending
+     * by the key column only and the key has to be unique.
+     *
+     * @param keyColumn The column the rows are ordered by
+     * @param key Returns the value of the key column of a mapped row, a number or a string
+     */
+    public PrefetchingPageIterator<R> seek(String keyColumn, Function<R, ?> key) {
+        checkNotStarted();
+        if(keyColumn == null || keyColumn.isBlank()) {
+            throw new ValueCannotBeEmptyException("keyColumn");
+        }
+
+        if(key == null) {
+            throw new ValueCannotBeNullException("key");
+        }
+
+        this.seekColumn = keyColumn;
+        this.seekKey = key;
+        return this;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if(next != null) {
+            return true;
+        }
+
+        if(finished) {
+            return false;
+        }
+
+        start();
+        Object page;
+        try {
+            page = pages.take();
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            close();
+            throw new IllegalStateException("Interrupted while waiting for the next page", e);
+        }
+
+        if(page == END) {
+            finished = true;
+            return false;
+        }
+
+        if(page instanceof Failure failure) {
+            finished = true;
+            close();
+            throw new IllegalStateException("Loading a page failed", failure.exception());
+        }
+
+        @SuppressWarnings("unchecked")
+        List<R> rows = (List<R>) page;
+        next = rows;
+        return true;
+    }
+
+    @Override
+    public List<R> next() {
+        if(!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        List<R> page = next;
+        next = null;
+        return page;
+    }
+
+    /**
+     * Stops loading pages. A query that is running is cancelled.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        finished = true;
+        next = null;
+        if(loader != null) {
+            loader.interrupt();
+            pages.clear();
+        }
+    }
+
+    private void start() {
+        if(loader != null) {
+            return;
+        }
+
+        if(seekColumn != null && (!query.getOrderColumns().equals(List.of(seekColumn)) || query.isOrderDescending())) {
+            throw new IllegalStateException("The query has to be ordered ascending by the seek column " + seekColumn);
+        }
+
+        pages = new ArrayBlockingQueue<>(prefetchDepth);
+        // the loader runs on another thread, so it gets the deadline of the caller passed.
+        // Without a deadline the queries are still watched, so closing the iterator cancels a running query
+        Deadline deadline = Deadline.current().orElse(Deadline.none());
+        loader = Thread.ofVirtual().name("page-prefetch").start(() -> load(deadline));
+    }
+
+    private void load(Deadline deadline) {
+        try {
+            // the pages are built from a copy, the caller may build or iterate the query again
+            SelectBuilder pageBuilder = query.copy().limit(pageSize);
+            Query seekQuery = null;
+            String seekParameter = null;
+            Object lastKey = null;
+            for(int page = 0; !closed; page++) {
+                Query pageQuery;
+                if(seekColumn == null) {
+                    pageQuery = pageBuilder.offset(offset(page)).build();
+                } else if(page == 0) {
+                    pageQuery = pageBuilder.offset(0).build();
+                } else {
+                    if(seekQuery == null) {
+                        seekParameter = "seek_" + UUID.randomUUID();
+                        seekQuery = pageBuilder.offset(0).where(gt(seekColumn, param(seekParameter))).build();
+                    }
+                    setKey(seekQuery, seekParameter, lastKey);
+                    pageQuery = seekQuery;
+                }
+
+                List<R> rows;
+                try(Connection connection = dataSource.getConnection()) {
+                    rows = pageQuery.executeQuery(connection, rowMapper, deadline);
+                }
+
+                if(rows.size() > pageSize) {
+                    throw new IllegalStateException("The dialect does not limit the rows of a page");
+                }
+
+                if(!rows.isEmpty()) {
+                    pages.put(rows);
+                }
+
+                if(rows.size() < pageSize) {
+                    break;
+                }
+
+                if(seekKey != null) {
+                    lastKey = seekKey.apply(rows.get(rows.size() - 1));
+                }
+            }
+            pages.put(END);
+        } catch(InterruptedException e) {
+            // the iterator was closed
+        } catch(SQLException | RuntimeException e) {
+            if(!closed) {
+                try {
+                    pages.put(new Failure(e));
+                } catch(InterruptedException interrupted) {
+                    // the iterator was closed
+                }
+            }
+        }
+    }
+
+    private int offset(int page) {
+        try {
+            return Math.multiplyExact(page, pageSize);
+        } catch(ArithmeticException e) {
+            throw new IllegalStateException("The offset of page %d exceeds the maximum offset, use seek paging instead".formatted(page), e);
+        }
+    }
+
+    private static void setKey(Query query, String parameter, Object key) {
+        switch(key) {
+            case Number number -> query.setParameter(parameter, number);
+            case String text -> query.setParameter(parameter, text);
+            case null, default -> throw new IllegalStateException("The seek key has to be a number or a string, but was " + key);
+        }
+    }
+
+    private void checkNotStarted() {
+        if(loader != null) {
+            throw new IllegalStateException("The iteration has already started");
+        }
+    }
+
+    private record Failure(Exception exception) {
+    }
+}
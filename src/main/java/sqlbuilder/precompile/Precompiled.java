@@ -0,0 +1,19 @@
+package sqlbuilder.precompile;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a static field holding a fully static {@link sqlbuilder.SelectBuilder} or {@link sqlbuilder.Query}
+ * that is precompiled by {@link QueryPrecompiler} during the build.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface Precompiled {
+    /**
+     * @return the name of the generated constant. Defaults to the name of the field
+     */
+    String value() default "";
+}
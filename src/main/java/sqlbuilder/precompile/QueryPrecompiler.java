@@ -0,0 +1,172 @@
+package sqlbuilder.precompile;
+
+import sqlbuilder.PrecompiledQuery;
+import sqlbuilder.Query;
+import sqlbuilder.SelectBuilder;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Generates classes holding the final statement text and parameter layout of static queries. For every class with
+ * fields annotated with {@link Precompiled} a class named like the class with the suffix {@value #CLASS_SUFFIX} is
+ * generated, holding one {@link PrecompiledQuery} constant per field.
+ * <p>
+ * The builders have to run, so the generator runs after the compilation of the classes declaring them and the
+ * generated sources are compiled in a second step, e.g. with the exec-maven-plugin in the process-classes phase
+ * and a second execution of the compiler plugin:
+ * <pre>
+ * java -cp target/classes sqlbuilder.precompile.QueryPrecompiler target/generated-sources/queries com.example.Queries
+ * </pre>
+ */
+public class QueryPrecompiler {
+    public static final String CLASS_SUFFIX = "Precompiled";
+
+    /**
+     * @param args The output directory for the generated sources followed by the names of the classes declaring the queries
+     */
+    public static void main(String[] args) throws IOException, ClassNotFoundException {
+        if(args.length < 2) {
+            System.err.println("Usage: QueryPrecompiler <output directory> <class name>...");
+            System.exit(1);
+        }
+
+        Path outputDirectory = Path.of(args[0]);
+        for(String className : Arrays.copyOfRange(args, 1, args.length)) {
+            Class<?> declaringClass = Class.forName(className);
+            Path source = outputDirectory.resolve(declaringClass.getPackageName().replace('.', '/'))
+                    .resolve(declaringClass.getSimpleName() + CLASS_SUFFIX + ".java");
+            Files.createDirectories(source.getParent());
+            Files.writeString(source, generate(declaringClass));
+        }
+    }
+
+    /**
+     * Generates the source of the class holding the precompiled queries of a class
+     *
+     * @param declaringClass The class declaring the annotated fields
+     * @return the source of the generated class
+     * @throws IllegalStateException if an annotated field is not static, has an unsupported type or a parameter value that cannot be written as literal
+     */
+    public static String generate(Class<?> declaringClass) {
+        List<String> constants = new ArrayList<>();
+        for(Field field : declaringClass.getDeclaredFields()) {
+            Precompiled precompiled = field.getAnnotation(Precompiled.class);
+            if(precompiled == null) {
+                continue;
+            }
+
+            String name = precompiled.value().isBlank() ? field.getName() : precompiled.value();
+            constants.add("    public static final PrecompiledQuery %s = %s;".formatted(name, toSource(PrecompiledQuery.of(buildQuery(field)))));
+        }
+
+        String packageName = declaringClass.getPackageName();
+        StringBuilder source = new StringBuilder();
+        if(!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        source.append("import sqlbuilder.PrecompiledQuery;\n\n")
+                .append("/**\n * Generated by ").append(QueryPrecompiler.class.getName())
+                .append(" from ").append(declaringClass.getName()).append(". Do not edit.\n */\n")
+                .append("public final class ").append(declaringClass.getSimpleName()).append(CLASS_SUFFIX).append(" {\n")
+                .append(String.join("\n\n", constants)).append("\n\n")
+                .append("    private ").append(declaringClass.getSimpleName()).append(CLASS_SUFFIX).append("() {\n    }\n")
+                .append("}\n");
+        return source.toString();
+    }
+
+    private static Query buildQuery(Field field) {
+        if(!Modifier.isStatic(field.getModifiers())) {
+            throw new IllegalStateException("Precompiled field '%s' must be static".formatted(field.getName()));
+        }
+
+        Object value;
+        try {
+            field.setAccessible(true);
+            value = field.get(null);
+        } catch(IllegalAccessException e) {
+            throw new IllegalStateException("Cannot read precompiled field '%s'".formatted(field.getName()), e);
+        }
+
+        if(value instanceof SelectBuilder builder) {
+            return builder.build();
+        }
+
+        if(value instanceof Query query) {
+            return query;
+        }
+        throw new IllegalStateException("Precompiled field '%s' must hold a SelectBuilder or a Query".formatted(field.getName()));
+    }
+
+    private static String toSource(PrecompiledQuery query) {
+        List<String> values = query.getValues().stream().map(QueryPrecompiler::toLiteral).toList();
+        List<String> keys = query.getParameterKeysPerSlot().stream().map(key -> key == null ? "null" : toLiteral(key)).toList();
+        return "new PrecompiledQuery(%s,\n            new Object[]{%s},\n            new String[]{%s})"
+                .formatted(toLiteral(query.getStatement()), String.join(", ", values), String.join(", ", keys));
+    }
+
+    private static String toLiteral(Object value) {
+        return switch(value) {
+            case null -> "null";
+            case String text -> "\"" + escape(text) + "\"";
+            case Integer number -> number.toString();
+            case Long number -> number + "L";
+            case Double number -> toLiteral(number);
+            case Float number -> toLiteral(number);
+            case Short number -> "(short) " + number;
+            case Byte number -> "(byte) " + number;
+            case Boolean bool -> bool.toString();
+            case Character character -> "'" + escape(character.toString()) + "'";
+            case BigDecimal number -> "new java.math.BigDecimal(\"" + number + "\")";
+            default -> throw new IllegalStateException("A value of type %s cannot be precompiled".formatted(value.getClass().getName()));
+        };
+    }
+
+    private static String toLiteral(Double number) {
+        // NaN and the infinities have no literal, they are referenced by their constants
+        if(number.isNaN()) {
+            return "Double.NaN";
+        } else if(number.isInfinite()) {
+            return number > 0 ? "Double.POSITIVE_INFINITY" : "Double.NEGATIVE_INFINITY";
+        }
+        return number + "d";
+    }
+
+    private static String toLiteral(Float number) {
+        if(number.isNaN()) {
+            return "Float.NaN";
+        } else if(number.isInfinite()) {
+            return number > 0 ? "Float.POSITIVE_INFINITY" : "Float.NEGATIVE_INFINITY";
+        }
+        return number + "f";
+    }
+
+    private static String escape(String text) {
+        StringBuilder escaped = new StringBuilder(text.length());
+        for(char c : text.toCharArray()) {
+            switch(c) {
+                case '"' -> escaped.append("\\\"");
+                case '\'' -> escaped.append("\\'");
+                case '\\' -> escaped.append("\\\\");
+                case '\n' -> escaped.append("\\n");
+                case '\r' -> escaped.append("\\r");
+                case '\t' -> escaped.append("\\t");
+                default -> {
+                    if(c < 0x20) {
+                        escaped.append("\\u%04x".formatted((int) c));
+                    } else {
+                        escaped.append(c);
+                    }
+                }
+            }
+        }
+        return escaped.toString();
+    }
+}
@@ -0,0 +1,18 @@
+package sqlbuilder.replication;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * Decides whether a replica lags too far behind the primary to serve reads,
+ * e.g. by comparing the replay timestamp of the replica with the current time
+ */
+@FunctionalInterface
+public interface ReplicaLagCheck {
+    /**
+     * @param replica The replica
+     * @return true if the replica must not be used for reads
+     * @throws SQLException if the lag cannot be determined, the replica is treated as stale then
+     */
+    boolean isStale(DataSource replica) throws SQLException;
+}
@@ -0,0 +1,239 @@
+package sqlbuilder.replication;
+
+import sqlbuilder.Query;
+import sqlbuilder.RowMapper;
+import sqlbuilder.SelectBuilder;
+import sqlbuilder.exceptions.ValueCannotBeNullException;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends reads to replicas and writes to the primary. A read goes to the replica with the fewest outstanding
+ * requests of this router, so a slow replica gets less load. Replicas that fail the lag check are skipped,
+ * and if no replica is usable the read goes to the primary. With a lag check, a replica is only used once its
+ * first check has passed.
+ * <p>
+ * Statements inside {@link #transaction(Transaction)} all run on the connection of the transaction,
+ * so reads see the writes of the transaction.
+ */
+public class ReplicaRouter {
+    public static final Duration DEFAULT_LAG_CHECK_INTERVAL = Duration.ofSeconds(1);
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final ThreadLocal<Connection> transactionConnection = new ThreadLocal<>();
+
+    private ReplicaLagCheck lagCheck = null;
+    private long lagCheckIntervalNanos = DEFAULT_LAG_CHECK_INTERVAL.toNanos();
+
+    public ReplicaRouter(DataSource primary, List<DataSource> replicas) {
+        if(primary == null) {
+            throw new ValueCannotBeNullException("primary");
+        }
+
+        if(replicas == null) {
+            throw new ValueCannotBeNullException("replicas");
+        }
+
+        this.primary = primary;
+        this.replicas = replicas.stream().map(Replica::new).toList();
+    }
+
+    /**
+     * Sets the check that excludes stale replicas. The result of the check is cached per replica for the interval,
+     * so the check does not run for every read.
+     *
+     * @param lagCheck The check
+     * @param interval How long the result of a check is used
+     */
+    public ReplicaRouter lagCheck(ReplicaLagCheck lagCheck, Duration interval) {
+        if(lagCheck == null) {
+            throw new ValueCannotBeNullException("lagCheck");
+        }
+
+        if(interval == null || interval.isNegative()) {
+            throw new IllegalArgumentException("The interval must not be negative");
+        }
+
+        this.lagCheck = lagCheck;
+        this.lagCheckIntervalNanos = interval.toNanos();
+        replicas.forEach(Replica::invalidate);
+        return this;
+    }
+
+    /**
+     * Executes a read-only query on a replica, or on the connection of the current transaction
+     *
+     * @param query The query
+     * @param rowMapper Maps the rows
+     * @return the mapped rows
+     * @throws SQLException if the query fails
+     */
+    public <R> List<R> query(SelectBuilder query, RowMapper<R> rowMapper) throws SQLException {
+        Query builtQuery = query.build();
+        Connection connection = transactionConnection.get();
+        if(connection != null) {
+            return builtQuery.executeQuery(connection, rowMapper);
+        }
+
+        Replica replica = selectReplica();
+        if(replica == null) {
+            try(Connection primaryConnection = primary.getConnection()) {
+                return builtQuery.executeQuery(primaryConnection, rowMapper);
+            }
+        }
+
+        replica.outstandingRequests.incrementAndGet();
+        try(Connection replicaConnection = replica.dataSource.getConnection()) {
+            return builtQuery.executeQuery(replicaConnection, rowMapper);
+        } finally {
+            replica.outstandingRequests.decrementAndGet();
+        }
+    }
+
+    /**
+     * Executes a statement that writes on the primary, or on the connection of the current transaction
+     *
+     * @param query The statement
+     * @return the number of affected rows
+     * @throws SQLException if the statement fails
+     */
+    public int update(Query query) throws SQLException {
+        Connection connection = transactionConnection.get();
+        if(connection != null) {
+            return query.executeUpdate(connection);
+        }
+
+        try(Connection primaryConnection = primary.getConnection()) {
+            return query.executeUpdate(primaryConnection);
+        }
+    }
+
+    /**
+     * Runs statements in a transaction on the primary. All queries and updates of this router
+     * on the current thread use the connection of the transaction until it ends. The transaction is committed
+     * if the work completes and rolled back if it throws. Nested calls join the outer transaction.
+     *
+     * @param work The work running in the transaction
+     * @return the result of the work
+     * @throws SQLException if a statement, the commit or the rollback fails
+     */
+    public <T> T transaction(Transaction<T> work) throws SQLException {
+        Connection connection = transactionConnection.get();
+        if(connection != null) {
+            return work.run(connection);
+        }
+
+        try(Connection primaryConnection = primary.getConnection()) {
+            boolean autoCommit = primaryConnection.getAutoCommit();
+            primaryConnection.setAutoCommit(false);
+            transactionConnection.set(primaryConnection);
+            try {
+                T result = work.run(primaryConnection);
+                primaryConnection.commit();
+                return result;
+            } catch(SQLException | RuntimeException | Error e) {
+                try {
+                    primaryConnection.rollback();
+                } catch(SQLException rollbackException) {
+                    e.addSuppressed(rollbackException);
+                }
+                throw e;
+            } finally {
+                transactionConnection.remove();
+                primaryConnection.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
+    public boolean isInTransaction() {
+        return transactionConnection.get() != null;
+    }
+
+    /**
+     * Returns the number of requests of this router that are running on a replica
+     *
+     * @param replica The index of the replica
+     * @return the number of outstanding requests
+     */
+    public int getOutstandingRequests(int replica) {
+        return replicas.get(replica).outstandingRequests.get();
+    }
+
+    /**
+     * Selects the usable replica with the fewest outstanding requests. Ties are resolved round robin,
+     * so idle replicas are used evenly.
+     *
+     * @return the replica or null if no replica is usable
+     */
+    private Replica selectReplica() {
+        if(replicas.isEmpty()) {
+            return null;
+        }
+
+        int start = Math.floorMod(nextReplica.getAndIncrement(), replicas.size());
+        Replica selected = null;
+        int fewestRequests = Integer.MAX_VALUE;
+        for(int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            int outstandingRequests = replica.outstandingRequests.get();
+            if(outstandingRequests < fewestRequests && !isStale(replica)) {
+                selected = replica;
+                fewestRequests = outstandingRequests;
+            }
+        }
+        return selected;
+    }
+
+    private boolean isStale(Replica replica) {
+        ReplicaLagCheck check = lagCheck;
+        if(check == null) {
+            return false;
+        }
+
+        long now = System.nanoTime();
+        long checkedAt = replica.checkedAt.get();
+        // only one thread checks an expired replica, the others use the previous result meanwhile.
+        // Before the first check completes the replica counts as stale, so those reads go to the primary
+        if((checkedAt == Replica.NEVER_CHECKED || now - checkedAt >= lagCheckIntervalNanos) && replica.checkedAt.compareAndSet(checkedAt, now)) {
+            boolean stale;
+            try {
+                stale = check.isStale(replica.dataSource);
+            } catch(SQLException | RuntimeException e) {
+                stale = true;
+            }
+            replica.stale = stale;
+        }
+        return replica.stale;
+    }
+
+    @FunctionalInterface
+    public interface Transaction<T> {
+        T run(Connection connection) throws SQLException;
+    }
+
+    private static class Replica {
+        private static final long NEVER_CHECKED = Long.MIN_VALUE;
+
+        private final DataSource dataSource;
+        private final AtomicInteger outstandingRequests = new AtomicInteger();
+        private final AtomicLong checkedAt = new AtomicLong(NEVER_CHECKED);
+        private volatile boolean stale = true;
+
+        Replica(DataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        void invalidate() {
+            checkedAt.set(NEVER_CHECKED);
+            stale = true;
+        }
+    }
+}
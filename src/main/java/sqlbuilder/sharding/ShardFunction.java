@@ -0,0 +1,27 @@
+package sqlbuilder.sharding;
+
+/**
+ * Maps a value of the shard key to the index of the shard holding the rows with that value
+ */
+@FunctionalInterface
+public interface ShardFunction {
+    /**
+     * Distributes the keys by their hash code. Integral numbers have the same hash code regardless of their type,
+     * so a key passed as Integer is routed to the same shard as the same key read as Long.
+     */
+    ShardFunction HASH = (key, shardCount) -> Math.floorMod(hashOf(key), shardCount);
+
+    /**
+     * @param key The value of the shard key, never null
+     * @param shardCount The number of shards
+     * @return the index of the shard, between 0 and shardCount - 1
+     */
+    int shardOf(Object key, int shardCount);
+
+    private static int hashOf(Object key) {
+        if(key instanceof Long || key instanceof Integer || key instanceof Short || key instanceof Byte) {
+            return Long.hashCode(((Number) key).longValue());
+        }
+        return key.hashCode();
+    }
+}
@@ -0,0 +1,324 @@
+package sqlbuilder.sharding;
+
+import sqlbuilder.Deadline;
+import sqlbuilder.Query;
+import sqlbuilder.RowMapper;
+import sqlbuilder.SelectBuilder;
+import sqlbuilder.exceptions.ValueCannotBeEmptyException;
+import sqlbuilder.exceptions.ValueCannotBeNullException;
+import sqlbuilder.expressions.ConditionValues;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Routes queries over a table that is split across multiple databases by a shard key.
+ * A query with an equality or IN condition on the shard key only reads the shards holding these keys,
+ * every other query is sent to all shards in parallel.
+ * <p>
+ * The rows of multiple shards are merged by the ORDER BY columns of the query, which therefore have to be selected.
+ * Limit and offset are applied to the merged rows, so every shard returns the rows up to the end of the page.
+ * GROUP BY, DISTINCT and aggregates are evaluated per shard and are not combined.
+ */
+public class ShardRouter {
+    private final String shardKey;
+    private final List<DataSource> shards;
+    private final ShardFunction shardFunction;
+    private Executor executor = runnable -> Thread.ofVirtual().name("shard-query").start(runnable);
+
+    public ShardRouter(String shardKey, List<DataSource> shards) {
+        this(shardKey, shards, ShardFunction.HASH);
+    }
+
+    /**
+     * @param shardKey The column that decides which shard holds a row
+     * @param shards The data sources of the shards. The position of a data source is its shard index
+     * @param shardFunction Maps a key to the index of its shard
+     */
+    public ShardRouter(String shardKey, List<DataSource> shards, ShardFunction shardFunction) {
+        if(shardKey == null || shardKey.isBlank()) {
+            throw new ValueCannotBeEmptyException("shardKey");
+        }
+
+        if(shards == null || shards.isEmpty()) {
+            throw new ValueCannotBeEmptyException("shards");
+        }
+
+        if(shardFunction == null) {
+            throw new ValueCannotBeNullException("shardFunction");
+        }
+
+        this.shardKey = shardKey;
+        this.shards = List.copyOf(shards);
+        this.shardFunction = shardFunction;
+    }
+
+    /**
+     * Sets the executor the queries of multiple shards run on. By default every shard query gets a virtual thread.
+     *
+     * @param executor The executor
+     */
+    public ShardRouter executor(Executor executor) {
+        if(executor == null) {
+            throw new ValueCannotBeNullException("executor");
+        }
+
+        this.executor = executor;
+        return this;
+    }
+
+    public int getShardIndex(Object key) {
+        if(key == null) {
+            throw new ValueCannotBeNullException("key");
+        }
+
+        int index = shardFunction.shardOf(key, shards.size());
+        if(index < 0 || index >= shards.size()) {
+            throw new IllegalStateException("The shard function returned the index %d for %d shards".formatted(index, shards.size()));
+        }
+        return index;
+    }
+
+    /**
+     * Returns the shard that holds the rows with the key, e.g. to insert or update them
+     *
+     * @param key The value of the shard key
+     * @return the data source of the shard
+     */
+    public DataSource getShard(Object key) {
+        return shards.get(getShardIndex(key));
+    }
+
+    /**
+     * Determines the shards a query has to read by its WHERE conditions
+     *
+     * @param query The query
+     * @return the ascending indexes of the shards
+     */
+    public List<Integer> route(SelectBuilder query) {
+        Optional<Set<Object>> keys = ConditionValues.of(shardKey, query.getConditions());
+        if(keys.isEmpty()) {
+            List<Integer> allShards = new ArrayList<>(shards.size());
+            for(int i = 0; i < shards.size(); i++) {
+                allShards.add(i);
+            }
+            return allShards;
+        }
+
+        SortedSet<Integer> shardIndexes = new TreeSet<>();
+        keys.get().forEach(key -> shardIndexes.add(getShardIndex(key)));
+        return List.copyOf(shardIndexes);
+    }
+
+    /**
+     * Executes a query on all shards it has to read and merges the rows
+     *
+     * @param query The query
+     * @param rowMapper Maps the rows
+     * @return the merged rows ordered by the ORDER BY columns of the query
+     * @throws SQLException if the query fails on any shard
+     */
+    public <R> List<R> query(SelectBuilder query, RowMapper<R> rowMapper) throws SQLException {
+        List<Integer> shardIndexes = route(query);
+        if(shardIndexes.isEmpty()) {
+            return List.of();
+        }
+
+        if(shardIndexes.size() == 1) {
+            return query.build().executeQuery(shards.get(shardIndexes.get(0)), rowMapper);
+        }
+
+        int limit = query.getLimit();
+        int offset = query.getOffset();
+        Query shardQuery;
+        if(limit > -1) {
+            // the shard query is built from a copy, so other threads can build the query meanwhile
+            int end = (int) Math.min((long) limit + offset, Integer.MAX_VALUE);
+            shardQuery = query.copy().limit(end).offset(0).build();
+        } else {
+            shardQuery = query.build();
+        }
+
+        List<String> orderColumns = query.getOrderColumns();
+        // the shard queries run on other threads, so they get the deadline of the caller passed
+        Deadline deadline = Deadline.current().orElse(null);
+        List<CompletableFuture<List<ShardRow<R>>>> futures = new ArrayList<>(shardIndexes.size());
+        for(int shardIndex : shardIndexes) {
+            CompletableFuture<List<ShardRow<R>>> future = new CompletableFuture<>();
+            DataSource shard = shards.get(shardIndex);
+            executor.execute(() -> {
+                try {
+                    future.complete(read(shard, shardQuery, rowMapper, orderColumns, deadline));
+                } catch(Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+            futures.add(future);
+        }
+
+        List<List<ShardRow<R>>> results = new ArrayList<>(futures.size());
+        for(CompletableFuture<List<ShardRow<R>>> future : futures) {
+            results.add(await(future));
+        }
+
+        Comparator<ShardRow<R>> order = orderColumns.isEmpty() ? null : comparator(query.isOrderDescending());
+        return merge(results, order, limit, offset);
+    }
+
+    /**
+     * Merges the sorted rows of the shards with a heap holding the next row of every shard.
+     * Without an order the rows are concatenated in the order of the shards.
+     */
+    private static <R> List<R> merge(List<List<ShardRow<R>>> results, Comparator<ShardRow<R>> order, int limit, int offset) {
+        long end = limit > -1 ? (long) offset + limit : Long.MAX_VALUE;
+        List<R> merged = new ArrayList<>();
+        long position = 0;
+
+        if(order == null) {
+            for(List<ShardRow<R>> rows : results) {
+                for(ShardRow<R> row : rows) {
+                    if(position >= end) {
+                        return merged;
+                    }
+                    if(limit < 0 || position >= offset) {
+                        merged.add(row.row());
+                    }
+                    position++;
+                }
+            }
+            return merged;
+        }
+
+        PriorityQueue<Cursor<R>> heap = new PriorityQueue<>(results.size(), (a, b) -> order.compare(a.current(), b.current()));
+        for(List<ShardRow<R>> rows : results) {
+            if(!rows.isEmpty()) {
+                heap.add(new Cursor<>(rows));
+            }
+        }
+
+        while(!heap.isEmpty() && position < end) {
+            Cursor<R> cursor = heap.poll();
+            if(limit < 0 || position >= offset) {
+                merged.add(cursor.current().row());
+            }
+            position++;
+
+            if(cursor.advance()) {
+                heap.add(cursor);
+            }
+        }
+        return merged;
+    }
+
+    private static <R> List<ShardRow<R>> read(DataSource shard, Query query, RowMapper<R> rowMapper, List<String> orderColumns, Deadline deadline) throws SQLException {
+        try(Connection connection = shard.getConnection()) {
+            return query.executeQuery(connection, new RowMapper<>() {
+                private int[] orderIndexes = null;
+
+                @Override
+                public ShardRow<R> map(ResultSet resultSet) throws SQLException {
+                    if(orderIndexes == null) {
+                        orderIndexes = new int[orderColumns.size()];
+                        for(int i = 0; i < orderIndexes.length; i++) {
+                            orderIndexes[i] = findColumn(resultSet, orderColumns.get(i));
+                        }
+                    }
+
+                    Object[] sortKey = new Object[orderIndexes.length];
+                    for(int i = 0; i < orderIndexes.length; i++) {
+                        sortKey[i] = resultSet.getObject(orderIndexes[i]);
+                    }
+                    return new ShardRow<>(sortKey, rowMapper.map(resultSet));
+                }
+            }, deadline);
+        }
+    }
+
+    private static int findColumn(ResultSet resultSet, String column) throws SQLException {
+        try {
+            return resultSet.findColumn(column);
+        } catch(SQLException e) {
+            int qualifier = column.lastIndexOf('.');
+            if(qualifier < 0) {
+                throw new SQLException("The order column '%s' has to be selected to merge the rows of the shards".formatted(column), e);
+            }
+            return findColumn(resultSet, column.substring(qualifier + 1));
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> future) throws SQLException {
+        try {
+            return future.get();
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for the shards", e);
+        } catch(ExecutionException e) {
+            if(e.getCause() instanceof SQLException sqlException) {
+                throw sqlException;
+            }
+            if(e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new SQLException(e.getCause());
+        }
+    }
+
+    /**
+     * Compares the rows by their sort keys. NULL is larger than any value, as in PostgreSQL and Oracle.
+     */
+    private static <R> Comparator<ShardRow<R>> comparator(boolean descending) {
+        Comparator<ShardRow<R>> comparator = (a, b) -> {
+            for(int i = 0; i < a.sortKey().length; i++) {
+                int result = compareValues(a.sortKey()[i], b.sortKey()[i]);
+                if(result != 0) {
+                    return result;
+                }
+            }
+            return 0;
+        };
+        return descending ? comparator.reversed() : comparator;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compareValues(Object a, Object b) {
+        if(a == null || b == null) {
+            return a == null ? (b == null ? 0 : 1) : -1;
+        }
+
+        // drivers may return different number types for the same column, e.g. Integer and Long
+        if(a instanceof Number first && b instanceof Number second && a.getClass() != b.getClass()) {
+            if(first instanceof Double || first instanceof Float || second instanceof Double || second instanceof Float) {
+                return Double.compare(first.doubleValue(), second.doubleValue());
+            }
+            return new BigDecimal(first.toString()).compareTo(new BigDecimal(second.toString()));
+        }
+        return ((Comparable) a).compareTo(b);
+    }
+
+    private record ShardRow<R>(Object[] sortKey, R row) {
+    }
+
+    private static class Cursor<R> {
+        private final List<ShardRow<R>> rows;
+        private int position = 0;
+
+        Cursor(List<ShardRow<R>> rows) {
+            this.rows = rows;
+        }
+
+        ShardRow<R> current() {
+            return rows.get(position);
+        }
+
+        boolean advance() {
+            return ++position < rows.size();
+        }
+    }
+}
@@ -0,0 +1,499 @@
+package sqlbuilder.spill;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.*;
+import java.sql.Date;
+import java.time.*;
+import java.util.*;
+
+/**
+ * Holds rows that can be iterated multiple times. The rows are kept in memory until their estimated size crosses
+ * the memory threshold, then all rows are written to a temporary file in a compact binary format and read back
+ * through memory mapped buffers. Closing the result deletes the file.
+ * <p>
+ * The supported values are NULL, Boolean, Byte, Short, Integer, Long, Float, Double, BigInteger, BigDecimal, String, byte[], UUID,
+ * the java.sql types Date, Time and Timestamp and the java.time types LocalDate, LocalTime, LocalDateTime, OffsetDateTime and Instant.
+ * Every value keeps its type whether the rows are held in memory or in the file, and other values are rejected
+ * when the row is added, not only when the rows are spilled.
+ */
+public class SpillableResult implements Iterable<Object[]>, AutoCloseable {
+    public static final long DEFAULT_MEMORY_THRESHOLD = 64L * 1024 * 1024;
+
+    // rows never cross a segment, so every segment can be mapped on its own
+    static final int SEGMENT_SIZE = 1 << 30;
+
+    private static final byte ROW = 1;
+    private static final byte PADDING = 2;
+
+    private static final byte NULL = 0;
+    private static final byte BOOLEAN = 1;
+    private static final byte INT = 2;
+    private static final byte LONG = 3;
+    private static final byte DOUBLE = 4;
+    private static final byte STRING = 5;
+    private static final byte BYTES = 6;
+    private static final byte DECIMAL = 7;
+    private static final byte DATE = 8;
+    private static final byte TIMESTAMP = 9;
+    private static final byte BYTE = 10;
+    private static final byte SHORT = 11;
+    private static final byte FLOAT = 12;
+    private static final byte BIG_INTEGER = 13;
+    private static final byte TIME = 14;
+    private static final byte LOCAL_DATE = 15;
+    private static final byte LOCAL_TIME = 16;
+    private static final byte LOCAL_DATE_TIME = 17;
+    private static final byte OFFSET_DATE_TIME = 18;
+    private static final byte INSTANT = 19;
+    private static final byte UUID_VALUE = 20;
+
+    private final long memoryThreshold;
+    private final Path directory;
+    private final int segmentSize;
+
+    private List<Object[]> rows = new ArrayList<>();
+    private long estimatedSize = 0;
+    private long rowCount = 0;
+
+    private Path file = null;
+    private DataOutputStream output = null;
+    private final ByteArrayOutputStream rowBuffer = new ByteArrayOutputStream(256);
+    private long fileSize = 0;
+    private boolean sealed = false;
+    private boolean closed = false;
+
+    public SpillableResult() {
+        this(DEFAULT_MEMORY_THRESHOLD, null);
+    }
+
+    /**
+     * @param memoryThreshold The estimated size in bytes above which the rows are written to a file
+     * @param directory The directory of the temporary file, or null for the default temporary directory
+     */
+    public SpillableResult(long memoryThreshold, Path directory) {
+        this(memoryThreshold, directory, SEGMENT_SIZE);
+    }
+
+    SpillableResult(long memoryThreshold, Path directory, int segmentSize) {
+        this.memoryThreshold = Math.max(memoryThreshold, 0);
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Reads all remaining rows of the result set. Large objects are read as String or byte[] and driver specific
+     * date and time values as the java.sql type of their column.
+     *
+     * @param resultSet The result set
+     * @param memoryThreshold The estimated size in bytes above which the rows are written to a file
+     * @return the result, which has to be closed
+     * @throws SQLException if the rows cannot be read
+     * @throws UncheckedIOException if the rows cannot be written to the file
+     */
+    public static SpillableResult read(ResultSet resultSet, long memoryThreshold) throws SQLException {
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        int columnCount = metaData.getColumnCount();
+        SpillableResult result = new SpillableResult(memoryThreshold, null);
+        try {
+            while(resultSet.next()) {
+                Object[] row = new Object[columnCount];
+                for(int i = 0; i < columnCount; i++) {
+                    row[i] = readColumn(resultSet, metaData, i + 1);
+                }
+                result.add(row);
+            }
+        } catch(SQLException | RuntimeException e) {
+            result.close();
+            throw e;
+        }
+        return result;
+    }
+
+    private static Object readColumn(ResultSet resultSet, ResultSetMetaData metaData, int column) throws SQLException {
+        Object value = resultSet.getObject(column);
+        if(value == null || isSupported(value)) {
+            return value;
+        }
+
+        return switch(value) {
+            case Clob clob -> resultSet.getString(column);
+            case Blob blob -> resultSet.getBytes(column);
+            default -> switch(metaData.getColumnType(column)) {
+                case Types.TIMESTAMP, Types.TIMESTAMP_WITH_TIMEZONE -> resultSet.getTimestamp(column);
+                case Types.DATE -> resultSet.getDate(column);
+                case Types.TIME, Types.TIME_WITH_TIMEZONE -> resultSet.getTime(column);
+                // rejected by add
+                default -> value;
+            };
+        };
+    }
+
+    /**
+     * Adds a row. Rows can only be added before the first iteration.
+     *
+     * @param row The values of the row
+     * @throws IllegalArgumentException if a value has a type that cannot be spilled
+     */
+    public void add(Object[] row) {
+        if(sealed) {
+            throw new IllegalStateException("Rows cannot be added after the result was iterated");
+        }
+
+        for(Object value : row) {
+            if(value != null && !isSupported(value)) {
+                throw new IllegalArgumentException("Values of type %s cannot be spilled".formatted(value.getClass().getName()));
+            }
+        }
+
+        rowCount++;
+        if(output != null) {
+            write(row);
+            return;
+        }
+
+        rows.add(row.clone());
+        estimatedSize += estimateSize(row);
+        if(estimatedSize > memoryThreshold) {
+            spill();
+        }
+    }
+
+    public long size() {
+        return rowCount;
+    }
+
+    /**
+     * @return true if the rows were written to a file
+     */
+    public boolean isSpilled() {
+        return file != null;
+    }
+
+    /**
+     * Returns an iterator over all rows. Every call starts a new pass from the first row.
+     * The rows returned by the iterator must not be modified if the result is held in memory.
+     */
+    @Override
+    public Iterator<Object[]> iterator() {
+        if(closed) {
+            throw new IllegalStateException("The result is closed");
+        }
+
+        seal();
+        if(file == null) {
+            return Collections.unmodifiableList(rows).iterator();
+        }
+        return new FileIterator();
+    }
+
+    /**
+     * Deletes the temporary file. Iterators of the result must not be used afterwards.
+     */
+    @Override
+    public void close() {
+        if(closed) {
+            return;
+        }
+
+        closed = true;
+        rows = List.of();
+        try {
+            if(output != null) {
+                output.close();
+            }
+            if(file != null) {
+                Files.deleteIfExists(file);
+            }
+        } catch(IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void seal() {
+        if(sealed) {
+            return;
+        }
+
+        sealed = true;
+        if(output != null) {
+            try {
+                output.close();
+                output = null;
+            } catch(IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private void spill() {
+        try {
+            file = directory == null ? Files.createTempFile("sqlbuilder-", ".spill") : Files.createTempFile(directory, "sqlbuilder-", ".spill");
+            output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file, StandardOpenOption.WRITE), 64 * 1024));
+        } catch(IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        for(Object[] row : rows) {
+            write(row);
+        }
+        rows = List.of();
+    }
+
+    private void write(Object[] row) {
+        try {
+            rowBuffer.reset();
+            DataOutputStream encoded = new DataOutputStream(rowBuffer);
+            encoded.writeByte(ROW);
+            encoded.writeInt(row.length);
+            for(Object value : row) {
+                writeValue(encoded, value);
+            }
+
+            int size = rowBuffer.size();
+            if(size > segmentSize) {
+                throw new IllegalArgumentException("A row of %d bytes is too large to be spilled".formatted(size));
+            }
+
+            long segmentEnd = (fileSize / segmentSize + 1) * segmentSize;
+            if(fileSize + size > segmentEnd) {
+                int padding = (int) (segmentEnd - fileSize);
+                output.writeByte(PADDING);
+                output.write(new byte[padding - 1]);
+                fileSize = segmentEnd;
+            }
+
+            rowBuffer.writeTo(output);
+            fileSize += size;
+        } catch(IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static boolean isSupported(Object value) {
+        return value instanceof Boolean || value instanceof Byte || value instanceof Short || value instanceof Integer
+                || value instanceof Long || value instanceof Float || value instanceof Double || value instanceof BigInteger
+                || value instanceof BigDecimal || value instanceof String || value instanceof byte[] || value instanceof UUID
+                || value instanceof Date || value instanceof Time || value instanceof Timestamp || value instanceof LocalDate
+                || value instanceof LocalTime || value instanceof LocalDateTime || value instanceof OffsetDateTime || value instanceof Instant;
+    }
+
+    private static void writeValue(DataOutputStream output, Object value) throws IOException {
+        switch(value) {
+            case null -> output.writeByte(NULL);
+            case Boolean bool -> {
+                output.writeByte(BOOLEAN);
+                output.writeBoolean(bool);
+            }
+            case Integer number -> {
+                output.writeByte(INT);
+                output.writeInt(number);
+            }
+            case Short number -> {
+                output.writeByte(SHORT);
+                output.writeShort(number);
+            }
+            case Byte number -> {
+                output.writeByte(BYTE);
+                output.writeByte(number);
+            }
+            case Long number -> {
+                output.writeByte(LONG);
+                output.writeLong(number);
+            }
+            case Double number -> {
+                output.writeByte(DOUBLE);
+                output.writeDouble(number);
+            }
+            case Float number -> {
+                output.writeByte(FLOAT);
+                output.writeFloat(number);
+            }
+            case BigInteger number -> {
+                output.writeByte(BIG_INTEGER);
+                writeBytes(output, number.toByteArray());
+            }
+            case String text -> {
+                output.writeByte(STRING);
+                writeBytes(output, text.getBytes(StandardCharsets.UTF_8));
+            }
+            case byte[] bytes -> {
+                output.writeByte(BYTES);
+                writeBytes(output, bytes);
+            }
+            case BigDecimal decimal -> {
+                output.writeByte(DECIMAL);
+                output.writeInt(decimal.scale());
+                writeBytes(output, decimal.unscaledValue().toByteArray());
+            }
+            case Timestamp timestamp -> {
+                output.writeByte(TIMESTAMP);
+                output.writeLong(timestamp.getTime());
+                output.writeInt(timestamp.getNanos());
+            }
+            case Time time -> {
+                output.writeByte(TIME);
+                output.writeLong(time.getTime());
+            }
+            case Date date -> {
+                output.writeByte(DATE);
+                output.writeLong(date.getTime());
+            }
+            case LocalDate date -> {
+                output.writeByte(LOCAL_DATE);
+                output.writeLong(date.toEpochDay());
+            }
+            case LocalTime time -> {
+                output.writeByte(LOCAL_TIME);
+                output.writeLong(time.toNanoOfDay());
+            }
+            case LocalDateTime dateTime -> {
+                output.writeByte(LOCAL_DATE_TIME);
+                writeLocalDateTime(output, dateTime);
+            }
+            case OffsetDateTime dateTime -> {
+                output.writeByte(OFFSET_DATE_TIME);
+                writeLocalDateTime(output, dateTime.toLocalDateTime());
+                output.writeInt(dateTime.getOffset().getTotalSeconds());
+            }
+            case Instant instant -> {
+                output.writeByte(INSTANT);
+                output.writeLong(instant.getEpochSecond());
+                output.writeInt(instant.getNano());
+            }
+            case UUID uuid -> {
+                output.writeByte(UUID_VALUE);
+                output.writeLong(uuid.getMostSignificantBits());
+                output.writeLong(uuid.getLeastSignificantBits());
+            }
+            default -> throw new IllegalArgumentException("Values of type %s cannot be spilled".formatted(value.getClass().getName()));
+        }
+    }
+
+    private static void writeLocalDateTime(DataOutputStream output, LocalDateTime dateTime) throws IOException {
+        output.writeLong(dateTime.toLocalDate().toEpochDay());
+        output.writeLong(dateTime.toLocalTime().toNanoOfDay());
+    }
+
+    private static void writeBytes(DataOutputStream output, byte[] bytes) throws IOException {
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static long estimateSize(Object[] row) {
+        long size = 16 + 4L * row.length;
+        for(Object value : row) {
+            size += switch(value) {
+                case null -> 0;
+                case String text -> 40 + 2L * text.length();
+                case byte[] bytes -> 16 + bytes.length;
+                case BigDecimal decimal -> 64;
+                default -> 24;
+            };
+        }
+        return size;
+    }
+
+    private class FileIterator implements Iterator<Object[]> {
+        private MappedByteBuffer segment = null;
+        private long segmentStart = -segmentSize;
+        private long position = 0;
+
+        @Override
+        public boolean hasNext() {
+            return position < fileSize;
+        }
+
+        @Override
+        public Object[] next() {
+            if(!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            ByteBuffer buffer = map();
+            if(buffer.get(buffer.position()) == PADDING) {
+                position = segmentStart + segmentSize;
+                return next();
+            }
+
+            buffer.get();
+            Object[] row = new Object[buffer.getInt()];
+            for(int i = 0; i < row.length; i++) {
+                row[i] = readValue(buffer);
+            }
+            position = segmentStart + buffer.position();
+            return row;
+        }
+
+        /**
+         * Maps the segment holding the current position. The channel is closed right away, because a mapping stays valid
+         * without it, so an iteration that is abandoned early holds no file descriptor. The mapping is released by the garbage collector.
+         */
+        private ByteBuffer map() {
+            long start = position / segmentSize * segmentSize;
+            if(start != segmentStart) {
+                try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                    segment = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(segmentSize, fileSize - start));
+                } catch(IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                segmentStart = start;
+            }
+            segment.position((int) (position - segmentStart));
+            return segment;
+        }
+    }
+
+    private static Object readValue(ByteBuffer buffer) {
+        byte type = buffer.get();
+        return switch(type) {
+            case NULL -> null;
+            case BOOLEAN -> buffer.get() != 0;
+            case INT -> buffer.getInt();
+            case LONG -> buffer.getLong();
+            case DOUBLE -> buffer.getDouble();
+            case STRING -> new String(readBytes(buffer), StandardCharsets.UTF_8);
+            case BYTES -> readBytes(buffer);
+            case DECIMAL -> {
+                int scale = buffer.getInt();
+                yield new BigDecimal(new BigInteger(readBytes(buffer)), scale);
+            }
+            case DATE -> new Date(buffer.getLong());
+            case BYTE -> buffer.get();
+            case SHORT -> buffer.getShort();
+            case FLOAT -> buffer.getFloat();
+            case BIG_INTEGER -> new BigInteger(readBytes(buffer));
+            case TIME -> new Time(buffer.getLong());
+            case LOCAL_DATE -> LocalDate.ofEpochDay(buffer.getLong());
+            case LOCAL_TIME -> LocalTime.ofNanoOfDay(buffer.getLong());
+            case LOCAL_DATE_TIME -> readLocalDateTime(buffer);
+            case OFFSET_DATE_TIME -> OffsetDateTime.of(readLocalDateTime(buffer), ZoneOffset.ofTotalSeconds(buffer.getInt()));
+            case INSTANT -> Instant.ofEpochSecond(buffer.getLong(), buffer.getInt());
+            case UUID_VALUE -> new UUID(buffer.getLong(), buffer.getLong());
+            case TIMESTAMP -> {
+                Timestamp timestamp = new Timestamp(buffer.getLong());
+                timestamp.setNanos(buffer.getInt());
+                yield timestamp;
+            }
+            default -> throw new IllegalStateException("Unknown value type " + type);
+        };
+    }
+
+    private static LocalDateTime readLocalDateTime(ByteBuffer buffer) {
+        return LocalDateTime.of(LocalDate.ofEpochDay(buffer.getLong()), LocalTime.ofNanoOfDay(buffer.getLong()));
+    }
+
+    private static byte[] readBytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return bytes;
+    }
+}
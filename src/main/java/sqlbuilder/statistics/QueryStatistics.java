@@ -0,0 +1,144 @@
+package sqlbuilder.statistics;
+
+import sqlbuilder.Query;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToLongFunction;
+
+/**
+ * In-process registry of execution statistics per statement. Statements are normalized before they are
+ * registered, so statements that only differ in the number of values of an IN list share their statistics.
+ * Every statement executed by the library is recorded in the {@link #global()} registry, see {@link Query#setStatistics(QueryStatistics)}.
+ */
+public class QueryStatistics {
+    public static final int DEFAULT_MAX_STATEMENTS = 1000;
+    /**
+     * Key under which all statements are collected once the maximum number of statements is reached
+     */
+    public static final String OTHER_STATEMENTS = "<other>";
+
+    private static final QueryStatistics GLOBAL = new QueryStatistics();
+
+    private final Map<String, StatementStatistics> statistics = new ConcurrentHashMap<>();
+    private final int maxStatements;
+
+    public QueryStatistics() {
+        this(DEFAULT_MAX_STATEMENTS);
+    }
+
+    public QueryStatistics(int maxStatements) {
+        if(maxStatements < 1) {
+            throw new IllegalArgumentException("maxStatements must be at least 1");
+        }
+        this.maxStatements = maxStatements;
+    }
+
+    public static QueryStatistics global() {
+        return GLOBAL;
+    }
+
+    public void recordSuccess(Query query, long nanos, long rows) {
+        recordSuccess(query.getStatement(), nanos, rows);
+    }
+
+    public void recordSuccess(String statement, long nanos, long rows) {
+        statisticsFor(statement).recordSuccess(nanos, rows);
+    }
+
+    public void recordError(Query query, long nanos) {
+        recordError(query.getStatement(), nanos);
+    }
+
+    public void recordError(String statement, long nanos) {
+        statisticsFor(statement).recordError(nanos);
+    }
+
+    /**
+     * Returns the statistics of a statement
+     *
+     * @param statement The statement. It does not have to be normalized
+     * @return The statistics or null if the statement was never recorded
+     */
+    public StatementStatistics get(String statement) {
+        return statistics.get(normalize(statement));
+    }
+
+    public Collection<StatementStatistics> getAll() {
+        return Collections.unmodifiableCollection(statistics.values());
+    }
+
+    /**
+     * Returns the statements with the highest p99 latency
+     *
+     * @param limit The maximum number of statements returned
+     * @return The statements sorted by their p99 latency, the slowest first
+     */
+    public List<StatementStatistics> slowest(int limit) {
+        return top(limit, StatementStatistics::getP99Nanos);
+    }
+
+    /**
+     * Returns the statements with the highest accumulated latency, which are the statements responsible for most of the database load
+     *
+     * @param limit The maximum number of statements returned
+     * @return The statements sorted by their accumulated latency, the highest first
+     */
+    public List<StatementStatistics> mostTimeConsuming(int limit) {
+        return top(limit, StatementStatistics::getTotalNanos);
+    }
+
+    public void reset() {
+        statistics.clear();
+    }
+
+    private List<StatementStatistics> top(int limit, ToLongFunction<StatementStatistics> metric) {
+        return statistics.values().stream()
+                .sorted(Comparator.comparingLong(metric).reversed())
+                .limit(Math.max(limit, 0))
+                .toList();
+    }
+
+    private StatementStatistics statisticsFor(String statement) {
+        String key = normalize(statement);
+        StatementStatistics statementStatistics = statistics.get(key);
+        if(statementStatistics != null) {
+            return statementStatistics;
+        }
+
+        if(statistics.size() >= maxStatements) {
+            key = OTHER_STATEMENTS;
+        }
+        return statistics.computeIfAbsent(key, StatementStatistics::new);
+    }
+
+    /**
+     * Collapses lists of placeholders like {@code ( ?, ?, ? )} into {@code ( ?... )}
+     *
+     * @param statement The prepared statement
+     * @return The normalized statement
+     */
+    public static String normalize(String statement) {
+        int listStart = statement.indexOf("?, ?");
+        if(listStart < 0) {
+            return statement;
+        }
+
+        StringBuilder normalized = new StringBuilder(statement.length());
+        int position = 0;
+        while(listStart > -1) {
+            normalized.append(statement, position, listStart).append("?...");
+            position = listStart + 1;
+            while(statement.startsWith(", ?", position)) {
+                position += 3;
+            }
+            listStart = statement.indexOf("?, ?", position);
+        }
+        normalized.append(statement, position, statement.length());
+        return normalized.toString();
+    }
+}
@@ -0,0 +1,85 @@
+package sqlbuilder.statistics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Execution statistics of all statements that share the same normalized statement
+ */
+public class StatementStatistics {
+    private final String statement;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LatencyHistogram latencies = new LatencyHistogram();
+
+    StatementStatistics(String statement) {
+        this.statement = statement;
+    }
+
+    void recordSuccess(long nanos, long rows) {
+        calls.increment();
+        this.rows.add(Math.max(rows, 0));
+        recordLatency(nanos);
+    }
+
+    void recordError(long nanos) {
+        calls.increment();
+        errors.increment();
+        recordLatency(nanos);
+    }
+
+    private void recordLatency(long nanos) {
+        totalNanos.add(Math.max(nanos, 0));
+        latencies.record(nanos);
+    }
+
+    public String getStatement() {
+        return statement;
+    }
+
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    public long getRows() {
+        return rows.sum();
+    }
+
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    public long getP50Nanos() {
+        return latencies.getPercentile(0.5);
+    }
+
+    public long getP99Nanos() {
+        return latencies.getPercentile(0.99);
+    }
+
+    public long getMaxNanos() {
+        return latencies.getMax();
+    }
+
+    /**
+     * Returns the latency of the percentile. The value is the upper bound of the histogram bucket
+     * that contains the percentile.
+     *
+     * @param percentile The percentile between 0 and 1
+     * @return the latency in nanoseconds
+     */
+    public long getPercentileNanos(double percentile) {
+        return latencies.getPercentile(percentile);
+    }
+
+    @Override
+    public String toString() {
+        return "calls=%d errors=%d rows=%d p50=%dns p99=%dns max=%dns: %s"
+                .formatted(getCalls(), getErrors(), getRows(), getP50Nanos(), getP99Nanos(), getMaxNanos(), statement);
+    }
+}
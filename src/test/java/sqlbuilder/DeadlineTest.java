@@ -0,0 +1,148 @@
+package sqlbuilder;
+
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.*;
+
+public class DeadlineTest {
+    private static final Query QUERY = new Query("SELECT * FROM TABLE_A", List.of());
+
+    // the statement is cancelled by another thread
+    private final List<String> calls = Collections.synchronizedList(new ArrayList<>());
+    private final CountDownLatch cancelled = new CountDownLatch(1);
+
+    @Test
+    public void testScopedDeadlineIsInherited() throws Exception {
+        Deadline outer = Deadline.after(Duration.ofSeconds(10));
+        Deadline inner = Deadline.after(Duration.ofMinutes(10));
+
+        assertTrue(Deadline.current().isEmpty());
+        outer.run(() -> {
+            assertSame(outer, Deadline.current().orElseThrow());
+            // a nested scope cannot extend the deadline
+            return inner.run(() -> {
+                assertSame(outer, Deadline.current().orElseThrow());
+                return null;
+            });
+        });
+        assertTrue(Deadline.current().isEmpty());
+    }
+
+    @Test
+    public void testUnboundedDeadlineDoesNotReplaceScopedDeadline() throws Exception {
+        Deadline outer = Deadline.after(Duration.ofSeconds(10));
+
+        assertFalse(Deadline.none().isExpired());
+        outer.run(() -> Deadline.none().run(() -> {
+            assertSame(outer, Deadline.current().orElseThrow());
+            return null;
+        }));
+        Deadline.none().run(() -> outer.run(() -> {
+            assertSame(outer, Deadline.current().orElseThrow());
+            return null;
+        }));
+    }
+
+    @Test
+    public void testStatementWithoutDeadlineHasNoQueryTimeout() throws SQLException {
+        List<Object> timeouts = new ArrayList<>();
+        Connection connection = connection(() -> {
+        }, timeouts);
+
+        QUERY.executeQuery(connection, resultSet -> null);
+        QUERY.executeQuery(connection, resultSet -> null, Deadline.none());
+
+        assertEquals(List.of(), timeouts);
+        assertFalse(calls.contains("cancel"));
+    }
+
+    @Test
+    public void testDeadlineIsSetAsQueryTimeout() throws SQLException {
+        List<Object> timeouts = new ArrayList<>();
+        Connection connection = connection(() -> {
+        }, timeouts);
+
+        Deadline.after(Duration.ofSeconds(90)).run(() -> QUERY.executeQuery(connection, resultSet -> null));
+
+        assertEquals(List.of(90), timeouts);
+    }
+
+    @Test
+    public void testExpiredDeadlineIsNotExecuted() {
+        Connection connection = connection(() -> fail("The query must not be executed"), new ArrayList<>());
+
+        assertThrows(SQLTimeoutException.class, () -> QUERY.executeUpdate(connection, Deadline.after(Duration.ZERO)));
+    }
+
+    @Test
+    public void testStatementIsCancelledWhenDeadlinePasses() {
+        Connection connection = connection(this::awaitCancel, new ArrayList<>());
+
+        assertThrows(SQLTimeoutException.class, () -> QUERY.executeQuery(connection, resultSet -> null, Deadline.after(Duration.ofMillis(50))));
+        assertTrue(calls.contains("cancel"));
+        assertTrue(calls.contains("close"));
+    }
+
+    @Test
+    public void testStatementIsCancelledWhenThreadIsInterrupted() {
+        Connection connection = connection(() -> {
+            Thread.currentThread().interrupt();
+            awaitCancel();
+        }, new ArrayList<>());
+
+        try {
+            SQLException exception = assertThrows(SQLException.class, () -> QUERY.executeUpdate(connection));
+            assertFalse(exception instanceof SQLTimeoutException);
+            assertTrue(Thread.currentThread().isInterrupted());
+            assertTrue(calls.contains("cancel"));
+        } finally {
+            Thread.interrupted();
+        }
+    }
+
+    private void awaitCancel() {
+        // the latch cannot be awaited while the thread is interrupted
+        while(cancelled.getCount() > 0) {
+            Thread.onSpinWait();
+        }
+        throw new IllegalStateException("cancelled");
+    }
+
+    private Connection connection(Runnable onExecute, List<Object> timeouts) {
+        PreparedStatement preparedStatement = (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{PreparedStatement.class},
+                (proxy, method, args) -> {
+                    calls.add(method.getName());
+                    switch(method.getName()) {
+                        case "setQueryTimeout" -> timeouts.add(args[0]);
+                        case "cancel" -> cancelled.countDown();
+                        case "executeQuery", "executeUpdate" -> {
+                            try {
+                                onExecute.run();
+                            } catch(IllegalStateException e) {
+                                throw new SQLException(e.getMessage());
+                            }
+                            if(method.getName().equals("executeUpdate")) {
+                                return 0;
+                            }
+                            return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{ResultSet.class},
+                                    (resultSet, resultSetMethod, resultSetArgs) -> resultSetMethod.getName().equals("next") ? false : null);
+                        }
+                    }
+                    return null;
+                });
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> method.getName().equals("prepareStatement") ? preparedStatement : null);
+    }
+}
@@ -0,0 +1,129 @@
+package sqlbuilder;
+
+import org.junit.Test;
+import sqlbuilder.dialects.SqlDialect;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static sqlbuilder.expressions.Expression.lt;
+
+public class DeleteBuilderTest {
+    private static final String TABLE_A = "TABLE_A";
+    private static final String CONDITION = "expires < ?";
+
+    @Test
+    public void testDelete() {
+        Query query = new DeleteBuilder(new SqlDialect.H2Dialect(), "SCHEMA")
+                .from(TABLE_A)
+                .where(lt("expires", 100))
+                .build();
+
+        assertEquals("DELETE FROM SCHEMA." + TABLE_A + " WHERE " + CONDITION, query.getStatement());
+        assertEquals(List.of(100), query.getParameters());
+    }
+
+    @Test
+    public void testRowLimitedChunks() {
+        assertEquals("DELETE FROM " + TABLE_A + " WHERE " + CONDITION + " FETCH FIRST 10 ROWS ONLY", buildChunk(new SqlDialect.H2Dialect()));
+        assertEquals("DELETE FROM " + TABLE_A + " WHERE (" + CONDITION + ") AND ROWNUM <= 10", buildChunk(new SqlDialect.OracleDialect()));
+        assertEquals("DELETE TOP (10) FROM " + TABLE_A + " WHERE " + CONDITION, buildChunk(new SqlDialect.MsSQLDialect()));
+        assertEquals("DELETE FROM " + TABLE_A + " WHERE ctid IN (SELECT ctid FROM " + TABLE_A + " WHERE " + CONDITION + " LIMIT 10)",
+                buildChunk(new SqlDialect.PostgresDialect()));
+    }
+
+    @Test
+    public void testKeyRangeChunk() {
+        Query query = delete(new SqlDialect.H2Dialect()).buildChunk("id", 0, 500);
+
+        assertEquals("DELETE FROM " + TABLE_A + " WHERE (" + CONDITION + ") AND id >= ? AND id <= ?", query.getStatement());
+        assertEquals(List.of(100, 0L, 500L), query.getParameters());
+    }
+
+    @Test
+    public void testChunksAreExecutedUntilNoRowsRemain() throws Exception {
+        List<Integer> affectedRows = new ArrayList<>(List.of(10, 10, 3));
+        List<String> calls = new ArrayList<>();
+        PreparedStatement preparedStatement = (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{PreparedStatement.class},
+                (proxy, method, args) -> method.getName().equals("executeUpdate") ? affectedRows.remove(0) : null);
+        Connection connection = (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    calls.add(method.getName());
+                    return switch(method.getName()) {
+                        case "prepareStatement" -> preparedStatement;
+                        case "getAutoCommit" -> false;
+                        default -> null;
+                    };
+                });
+
+        assertThrows(IllegalStateException.class, () -> delete(new SqlDialect.H2Dialect()).chunked().rows(10).execute(connection));
+        long deleted = delete(new SqlDialect.H2Dialect()).chunked().rows(10).commitEachChunk().execute(connection);
+
+        assertEquals(23, deleted);
+        assertEquals(3, calls.stream().filter("commit"::equals).count());
+    }
+
+    @Test
+    public void testKeyRangesDoNotOverflow() throws Exception {
+        assertEquals(List.of(List.of(Long.MAX_VALUE - 5, Long.MAX_VALUE - 2), List.of(Long.MAX_VALUE - 1, Long.MAX_VALUE)),
+                executeByKeyRange(Long.MAX_VALUE - 5, Long.MAX_VALUE, 4));
+        assertEquals(List.of(List.of(Long.MIN_VALUE, -2L), List.of(-1L, Long.MAX_VALUE - 2), List.of(Long.MAX_VALUE - 1, Long.MAX_VALUE)),
+                executeByKeyRange(Long.MIN_VALUE, Long.MAX_VALUE, Long.MAX_VALUE));
+        assertEquals(List.of(List.of(7L, 7L)), executeByKeyRange(7, 7, 100));
+    }
+
+    /**
+     * Executes a chunked delete on a table whose keys range from minKey to maxKey and returns the bounds of the chunks
+     */
+    private List<List<Long>> executeByKeyRange(long minKey, long maxKey, long keyRange) throws Exception {
+        List<List<Long>> chunks = new ArrayList<>();
+        ResultSet bounds = (ResultSet) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> switch(method.getName()) {
+                    case "next" -> true;
+                    case "getLong" -> (int) args[0] == 1 ? minKey : maxKey;
+                    case "wasNull" -> false;
+                    default -> null;
+                });
+        Connection connection = (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if(!method.getName().equals("prepareStatement")) {
+                        return method.getName().equals("getAutoCommit") ? true : null;
+                    }
+
+                    List<Long> keys = new ArrayList<>();
+                    return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{PreparedStatement.class},
+                            (statementProxy, statementMethod, statementArgs) -> {
+                                if(statementMethod.getName().startsWith("set") && statementArgs[1] instanceof Long key) {
+                                    keys.add(key);
+                                }
+                                return switch(statementMethod.getName()) {
+                                    case "executeQuery" -> bounds;
+                                    case "executeUpdate" -> {
+                                        chunks.add(keys);
+                                        yield 1;
+                                    }
+                                    default -> null;
+                                };
+                            });
+                });
+
+        delete(new SqlDialect.H2Dialect()).chunked().byKeyRange("id", keyRange).execute(connection);
+        return chunks;
+    }
+
+    private static String buildChunk(SqlDialect dialect) {
+        return delete(dialect).buildChunk(10).getStatement();
+    }
+
+    private static DeleteBuilder delete(SqlDialect dialect) {
+        return new DeleteBuilder(dialect)
+                .from(TABLE_A)
+                .where(lt("expires", 100));
+    }
+}
@@ -0,0 +1,128 @@
+package sqlbuilder;
+
+import org.junit.Test;
+import sqlbuilder.dialects.SqlDialect;
+import sqlbuilder.expressions.Condition;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static sqlbuilder.expressions.Expression.*;
+
+public class IncrementalSelectBuilderTest {
+    private static final SqlDialect DIALECT = new SqlDialect.PostgresDialect();
+    private static final String TABLE_A = "TABLE_A";
+    private static final String TABLE_B = "TABLE_B";
+
+    @Test
+    public void testStatementEqualsSelectBuilder() {
+        Query expected = new SelectBuilder(DIALECT, "app")
+                .select("a.id", "b.name")
+                .from(TABLE_A)
+                .join(TABLE_B, eq("a.id", "b.id"))
+                .where(eq("a.state", 1))
+                .where(in("b.name", "x", "y"))
+                .groupBy("a.id", "b.name")
+                .having(gt("COUNT(*)", 2))
+                .orderBy("a.id")
+                .asc()
+                .limit(10)
+                .offset(20)
+                .build();
+
+        Query actual = new IncrementalSelectBuilder(DIALECT, "app")
+                .select("a.id", "b.name")
+                .from(TABLE_A)
+                .join(TABLE_B, eq("a.id", "b.id"))
+                .where("state", eq("a.state", 1))
+                .where("name", in("b.name", "x", "y"))
+                .groupBy("a.id", "b.name")
+                .having(gt("COUNT(*)", 2))
+                .orderBy("a.id")
+                .asc()
+                .limit(10)
+                .offset(20)
+                .build();
+
+        assertEquals(expected.getStatement(), actual.getStatement());
+        assertEquals(expected.getParameters(), actual.getParameters());
+    }
+
+    @Test
+    public void testOnlyChangedConditionIsRendered() {
+        CountingCondition first = new CountingCondition("a = ?", 1);
+        CountingCondition second = new CountingCondition("b = ?", 2);
+        CountingCondition third = new CountingCondition("c = ?", 3);
+        CountingCondition replacement = new CountingCondition("b > ?", 5);
+        CountingCondition joinCondition = new CountingCondition("x = y");
+        IncrementalSelectBuilder builder = new IncrementalSelectBuilder(DIALECT)
+                .from(TABLE_A)
+                .join(TABLE_B, joinCondition)
+                .where("first", first)
+                .where("second", second)
+                .where("third", third);
+
+        assertEquals("SELECT * FROM TABLE_A TABLE_A JOIN TABLE_B TABLE_B ON x = y WHERE a = ? AND b = ? AND c = ?",
+                builder.build().getStatement());
+
+        Query query = builder.where("second", replacement).limit(5).build();
+
+        assertEquals("SELECT * FROM TABLE_A TABLE_A JOIN TABLE_B TABLE_B ON x = y WHERE a = ? AND b > ? AND c = ?  LIMIT 5 OFFSET 0",
+                query.getStatement());
+        assertEquals(List.of(1, 5, 3), query.getParameters());
+        assertEquals(1, first.rendered);
+        assertEquals(1, second.rendered);
+        assertEquals(1, third.rendered);
+        assertEquals(1, replacement.rendered);
+        assertEquals(1, joinCondition.rendered);
+    }
+
+    @Test
+    public void testRemovedConditionsAndClauses() {
+        IncrementalSelectBuilder builder = new IncrementalSelectBuilder(DIALECT)
+                .select("id")
+                .from(TABLE_A)
+                .where("id", eq("id", 1))
+                .orderBy("id");
+        builder.build();
+
+        builder.removeWhere("id")
+                .clearOrderBy()
+                .orderBy("id")
+                .asc()
+                .clearColumns()
+                .select("name");
+
+        assertEquals("SELECT name AS \"name\" FROM TABLE_A TABLE_A ORDER BY id ASC", builder.build().getStatement());
+    }
+
+    @Test
+    public void testTableIsRequired() {
+        IncrementalSelectBuilder builder = new IncrementalSelectBuilder(DIALECT).where("id", eq("id", 1));
+
+        assertThrows(IllegalStateException.class, builder::build);
+    }
+
+    private static class CountingCondition implements Condition {
+        private final String sql;
+        private final List<Object> parameters;
+        private int rendered = 0;
+
+        CountingCondition(String sql, Object... parameters) {
+            this.sql = sql;
+            this.parameters = List.of(parameters);
+        }
+
+        @Override
+        public String toSql(SqlDialect dialect) {
+            rendered++;
+            return sql;
+        }
+
+        @Override
+        public List<Object> getParameters() {
+            return parameters;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package sqlbuilder;
+
+import org.junit.Test;
+import sqlbuilder.dialects.SqlDialect;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+public class InsertBuilderTest {
+    private static final SqlDialect DIALECT = new SqlDialect.PostgresDialect();
+    private static final String TABLE_A = "TABLE_A";
+
+    private record Person(int id, String name) {
+    }
+
+    @Test
+    public void testMultiRowInsert() {
+        List<Query> queries = new InsertBuilder(DIALECT, "SCHEMA")
+                .into(TABLE_A)
+                .columns("id", "name")
+                .row(1, "A")
+                .row(List.of(2, "B"))
+                .build();
+
+        assertEquals(1, queries.size());
+        assertEquals("INSERT INTO SCHEMA." + TABLE_A + " (id, name) VALUES (?, ?), (?, ?)", queries.get(0).getStatement());
+        assertEquals("INSERT INTO SCHEMA." + TABLE_A + " (id, name) VALUES (1, 'A'), (2, 'B')", queries.get(0).getPopulatedStatement(DIALECT));
+    }
+
+    @Test
+    public void testColumnsFromMapsAndRecords() {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", 1);
+        row.put("name", "A");
+
+        Query fromMap = new InsertBuilder(DIALECT).into(TABLE_A).row(row).build().get(0);
+        Query fromRecord = new InsertBuilder(DIALECT).into(TABLE_A).rows(List.of(new Person(1, "A"))).build().get(0);
+
+        assertEquals("INSERT INTO " + TABLE_A + " (id, name) VALUES (1, 'A')", fromMap.getPopulatedStatement(DIALECT));
+        assertEquals(fromMap.getPopulatedStatement(DIALECT), fromRecord.getPopulatedStatement(DIALECT));
+    }
+
+    @Test
+    public void testRowsPerStatementWithoutColumns() {
+        InsertBuilder insert = new InsertBuilder(DIALECT).into(TABLE_A);
+
+        assertThrows(IllegalStateException.class, insert::getRowsPerStatement);
+        assertThrows(IllegalStateException.class, insert.row(Map.of())::build);
+    }
+
+    @Test
+    public void testRowsAreSplitByBindParameterLimit() {
+        SqlDialect dialect = new SqlDialect.H2Dialect() {
+            @Override
+            public int getMaxBindParameters() {
+                return 5;
+            }
+        };
+
+        InsertBuilder builder = new InsertBuilder(dialect).into(TABLE_A).columns("id", "name");
+        for(int i = 0; i < 5; i++) {
+            builder.row(i, "name" + i);
+        }
+        List<Query> queries = builder.build();
+
+        assertEquals(3, queries.size());
+        assertEquals(4, queries.get(0).getParameters().size());
+        assertEquals(4, queries.get(1).getParameters().size());
+        assertEquals("INSERT INTO " + TABLE_A + " (id, name) VALUES (?, ?)", queries.get(2).getStatement());
+    }
+
+    @Test
+    public void testBatchingWithoutMultiRowValues() throws Exception {
+        List<String> calls = new ArrayList<>();
+        PreparedStatement preparedStatement = (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{PreparedStatement.class},
+                (proxy, method, args) -> {
+                    calls.add(method.getName());
+                    return switch(method.getName()) {
+                        case "executeBatch" -> new int[]{1, 1};
+                        default -> null;
+                    };
+                });
+        Connection connection = (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    assertEquals("INSERT INTO " + TABLE_A + " (id) VALUES (?)", args[0]);
+                    return preparedStatement;
+                });
+
+        int inserted = new InsertBuilder(new SqlDialect.OracleDialect())
+                .into(TABLE_A)
+                .columns("id")
+                .row(1).row(2).row(3).row(4)
+                .batchSize(2)
+                .execute(connection);
+
+        assertEquals(4, inserted);
+        assertEquals(2, calls.stream().filter("executeBatch"::equals).count());
+        assertEquals(4, calls.stream().filter("addBatch"::equals).count());
+    }
+
+    @Test
+    public void testRowWithWrongNumberOfValues() {
+        assertThrows(IllegalArgumentException.class, () -> new InsertBuilder(DIALECT).into(TABLE_A).columns("id", "name").row(1));
+    }
+
+    @Test
+    public void testRowWithUnknownColumn() {
+        InsertBuilder builder = new InsertBuilder(DIALECT).into(TABLE_A).row(Map.of("id", 1));
+
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", 2);
+        row.put("name", "B");
+        assertThrows(IllegalArgumentException.class, () -> builder.row(row));
+        assertThrows(IllegalArgumentException.class, () -> new UpsertBuilder(DIALECT).into(TABLE_A).columns("id").row(row));
+
+        builder.row(Map.of());
+        assertEquals("INSERT INTO " + TABLE_A + " (id) VALUES (1), (NULL)", builder.build().get(0).getPopulatedStatement(DIALECT));
+    }
+
+    @Test
+    public void testEmptyInsert() {
+        assertThrows(IllegalStateException.class, () -> new InsertBuilder(DIALECT).into(TABLE_A).columns("id").build());
+    }
+}
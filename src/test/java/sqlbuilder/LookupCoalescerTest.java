@@ -0,0 +1,139 @@
+package sqlbuilder;
+
+import org.junit.Test;
+import sqlbuilder.dialects.SqlDialect;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class LookupCoalescerTest {
+    private static final SqlDialect DIALECT = new SqlDialect.PostgresDialect();
+    private static final String TABLE_A = "TABLE_A";
+
+    private final List<String> statements = new ArrayList<>();
+    private final List<List<Object>> boundKeys = new ArrayList<>();
+
+    @Test
+    public void testFullBatchIsMergedIntoOneQuery() throws Exception {
+        try(LookupCoalescer<Integer, Integer> coalescer = coalescer(dataSource(null)).maxBatchSize(3)) {
+            CompletableFuture<List<Integer>> first = coalescer.load(1);
+            CompletableFuture<List<Integer>> second = coalescer.load(2);
+            CompletableFuture<List<Integer>> duplicate = coalescer.load(1);
+            assertFalse(first.isDone());
+
+            CompletableFuture<List<Integer>> missing = coalescer.load(-3);
+
+            assertEquals(1, statements.size());
+            assertTrue(statements.get(0).endsWith("FROM TABLE_A TABLE_A WHERE id IN ( ?, ?, ? )"));
+            assertEquals(List.of(List.of(1, 2, -3)), boundKeys);
+            assertEquals(List.of(1), first.get());
+            assertEquals(List.of(2), second.get());
+            assertEquals(List.of(1), duplicate.get());
+            assertEquals(List.of(), missing.get());
+        }
+    }
+
+    @Test
+    public void testBatchIsExecutedAfterWindow() throws Exception {
+        try(LookupCoalescer<Integer, Integer> coalescer = coalescer(dataSource(null)).window(Duration.ofMillis(1))) {
+            CompletableFuture<List<Integer>> first = coalescer.load(1);
+            CompletableFuture<List<Integer>> second = coalescer.load(2);
+
+            assertEquals(List.of(1), first.get(10, TimeUnit.SECONDS));
+            assertEquals(List.of(2), second.get(10, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void testPendingLookupsAreExecutedOnClose() throws Exception {
+        LookupCoalescer<Integer, Integer> coalescer = coalescer(dataSource(null));
+        CompletableFuture<List<Integer>> future = coalescer.load(5);
+        coalescer.close();
+
+        assertEquals(List.of(5), future.get(10, TimeUnit.SECONDS));
+        assertThrows(IllegalStateException.class, () -> coalescer.load(6));
+    }
+
+    @Test
+    public void testFailureCompletesAllLookupsOfTheBatch() {
+        SQLException failure = new SQLException("connection lost");
+        try(LookupCoalescer<Integer, Integer> coalescer = coalescer(dataSource(failure)).maxBatchSize(2)) {
+            CompletableFuture<List<Integer>> first = coalescer.load(1);
+            CompletableFuture<List<Integer>> second = coalescer.load(2);
+
+            ExecutionException exception = assertThrows(ExecutionException.class, first::get);
+            assertSame(failure, exception.getCause());
+            assertTrue(second.isCompletedExceptionally());
+        }
+    }
+
+    private LookupCoalescer<Integer, Integer> coalescer(DataSource dataSource) {
+        return new LookupCoalescer<Integer, Integer>(dataSource, () -> new SelectBuilder(DIALECT).select("id").from(TABLE_A), "id",
+                resultSet -> resultSet.getInt(1), row -> row)
+                .window(Duration.ofMinutes(1))
+                .executor(Runnable::run);
+    }
+
+    /**
+     * Returns a row for every bound key that is not negative
+     */
+    private DataSource dataSource(SQLException failure) {
+        List<Object> keys = new ArrayList<>();
+        List<Integer> rows = new ArrayList<>();
+        ResultSet resultSet = proxy(ResultSet.class, (method, args) -> switch(method) {
+            case "next" -> {
+                if(!rows.isEmpty()) {
+                    rows.remove(0);
+                }
+                yield !rows.isEmpty();
+            }
+            case "getInt" -> rows.get(0);
+            default -> null;
+        });
+        PreparedStatement preparedStatement = proxy(PreparedStatement.class, (method, args) -> {
+            if(method.equals("setObject")) {
+                keys.add(args[1]);
+            } else if(method.equals("executeQuery")) {
+                if(failure != null) {
+                    throw failure;
+                }
+                boundKeys.add(List.copyOf(keys));
+                // the first call of next() moves from this placeholder to the first row
+                rows.add(null);
+                keys.stream().map(Integer.class::cast).filter(key -> key >= 0).forEach(rows::add);
+                return resultSet;
+            }
+            return null;
+        });
+        Connection connection = proxy(Connection.class, (method, args) -> {
+            if(method.equals("prepareStatement")) {
+                statements.add((String) args[0]);
+                return preparedStatement;
+            }
+            return null;
+        });
+        return proxy(DataSource.class, (method, args) -> method.equals("getConnection") ? connection : null);
+    }
+
+    private interface Handler {
+        Object invoke(String method, Object[] args) throws Exception;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        return (T) Proxy.newProxyInstance(LookupCoalescerTest.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> handler.invoke(method.getName(), args));
+    }
+}
@@ -0,0 +1,40 @@
+package sqlbuilder;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+public class ProjectionsTest {
+    private record Order(int id, String state) {
+    }
+
+    @Test
+    public void testColumnsOfRecord() {
+        assertEquals(List.of("id", "state"), Projections.of(Order.class));
+        assertEquals(List.of("id", "state"), Projections.of(new RecordMapper<>(Order.class)));
+    }
+
+    @Test
+    public void testColumnsReadByMapper() {
+        RowMapper<String> mapper = resultSet -> resultSet.getLong("id") + ":" + resultSet.getString("name") + ":" + resultSet.getLong("id");
+
+        assertEquals(List.of("id", "name"), Projections.of(mapper));
+    }
+
+    @Test
+    public void testMapperReadingByIndexIsRejected() {
+        RowMapper<String> mapper = resultSet -> resultSet.getString(1);
+
+        assertThrows(IllegalStateException.class, () -> Projections.of(mapper));
+    }
+
+    @Test
+    public void testMapperFailingOnNullIsRejected() {
+        RowMapper<String> mapper = resultSet -> resultSet.getString("name").trim();
+
+        assertThrows(IllegalStateException.class, () -> Projections.of(mapper));
+    }
+}
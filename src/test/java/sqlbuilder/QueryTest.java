@@ -0,0 +1,156 @@
+package sqlbuilder;
+
+import org.junit.Test;
+import sqlbuilder.dialects.SqlDialect;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static sqlbuilder.expressions.Expression.*;
+
+public class QueryTest {
+    public static final SqlDialect DIALECT = new SqlDialect.PostgresDialect();
+    private static final String TABLE_A = "TABLE_A";
+    private static final String COLUMN_A = "columnA";
+    private static final String STATEMENT = "SELECT * FROM " + TABLE_A + " " + TABLE_A + " WHERE " + COLUMN_A;
+
+    @Test
+    public void testPopulatedStatementEscapesLiterals() {
+        Query query = new SelectBuilder(DIALECT)
+                .from(TABLE_A)
+                .where(eq(COLUMN_A, "it's").and().eq(COLUMN_A, true))
+                .build();
+
+        assertEquals(STATEMENT + " = 'it''s' AND " + COLUMN_A + " = TRUE", query.populated(DIALECT).toString());
+        assertEquals(STATEMENT + " = 'it''s' AND " + COLUMN_A + " = 1", query.populated(new SqlDialect.OracleDialect()).toString());
+    }
+
+    @Test
+    public void testPopulatedStatementIsRenderedWhenRead() {
+        Query query = new SelectBuilder(DIALECT)
+                .from(TABLE_A)
+                .where(eq(COLUMN_A, param("queryTestLazyParam")))
+                .build();
+
+        CharSequence populated = query.populated(DIALECT);
+        query.setParameter("queryTestLazyParam", 7);
+
+        assertEquals(STATEMENT + " = 7", populated.toString());
+    }
+
+    @Test
+    public void testPopulatedStatementShortensValueLists() {
+        Query query = new SelectBuilder(DIALECT)
+                .from(TABLE_A)
+                .where(in(COLUMN_A, 1, 2, 3, 4, 5).and().eq(COLUMN_A, 6))
+                .build();
+
+        assertEquals(STATEMENT + " IN ( 1, 2, ... [+3 values] ) AND " + COLUMN_A + " = 6",
+                query.populated(DIALECT, PopulatedStatement.UNLIMITED, PopulatedStatement.UNLIMITED, 2).toString());
+    }
+
+    @Test
+    public void testPopulatedStatementShortensLongLiterals() {
+        Query query = new SelectBuilder(DIALECT)
+                .from(TABLE_A)
+                .where(eq(COLUMN_A, "abcdefghij"))
+                .build();
+
+        assertEquals(STATEMENT + " = 'abcd...' [+6 chars]",
+                query.populated(DIALECT, PopulatedStatement.UNLIMITED, 4, PopulatedStatement.UNLIMITED).toString());
+    }
+
+    @Test
+    public void testPopulatedStatementIsTruncated() {
+        Query query = new SelectBuilder(DIALECT)
+                .from(TABLE_A)
+                .where(eq(COLUMN_A, 1))
+                .build();
+
+        CharSequence populated = query.populated(DIALECT, 6, PopulatedStatement.UNLIMITED, PopulatedStatement.UNLIMITED);
+        assertEquals("SELECT... [truncated]", populated.toString());
+        assertEquals(21, populated.length());
+    }
+
+    @Test
+    public void testExplainStatement() {
+        Query query = new SelectBuilder(DIALECT)
+                .from(TABLE_A)
+                .where(eq(COLUMN_A, 1))
+                .build();
+
+        assertEquals("EXPLAIN " + STATEMENT + " = ?", query.getExplainStatement(DIALECT));
+        assertThrows(UnsupportedOperationException.class, () -> query.getExplainStatement(new SqlDialect.MsSQLDialect()));
+    }
+
+    @Test
+    public void testPopulatedStatementDoesNotReadStreams() {
+        InputStream stream = new InputStream() {
+            @Override
+            public int read() {
+                throw new AssertionError("The stream must not be read");
+            }
+        };
+        Query query = new SelectBuilder(DIALECT)
+                .from(TABLE_A)
+                .where(eq(COLUMN_A, param("queryTestStreamParam")).and().eq(COLUMN_A, Lob.characters(new StringReader("abc"), 3)))
+                .build();
+        query.setParameter("queryTestStreamParam", stream, 2048);
+
+        assertEquals(STATEMENT + " = <binary stream of 2048 bytes> AND " + COLUMN_A + " = <character stream of 3 chars>",
+                query.getPopulatedStatement(DIALECT));
+    }
+
+    @Test
+    public void testStreamsAreBoundWithLength() throws Exception {
+        InputStream stream = new ByteArrayInputStream(new byte[10]);
+        ByteBuffer buffer = ByteBuffer.wrap(new byte[]{1, 2, 3, 4});
+        buffer.position(1);
+        Query query = new SelectBuilder(DIALECT)
+                .from(TABLE_A)
+                .where(eq(COLUMN_A, Lob.binary(stream, 10)).and().eq(COLUMN_A, Lob.binary(buffer)))
+                .build();
+
+        List<Object[]> calls = new ArrayList<>();
+        PreparedStatement preparedStatement = (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{PreparedStatement.class},
+                (proxy, method, args) -> {
+                    calls.add(new Object[]{method.getName(), args[0], args[1], args[2]});
+                    return null;
+                });
+        query.bindParameters(preparedStatement);
+
+        assertEquals(2, calls.size());
+        assertEquals("setBinaryStream", calls.get(0)[0]);
+        assertEquals(stream, calls.get(0)[2]);
+        assertEquals(10L, calls.get(0)[3]);
+        assertEquals(3L, calls.get(1)[3]);
+        assertEquals(2, ((InputStream) calls.get(1)[2]).read());
+        assertEquals(1, buffer.position());
+    }
+
+    @Test
+    public void testBufferCanBeBoundRepeatedly() throws Exception {
+        Query query = new Query(STATEMENT + " = ?", List.of(Lob.binary(ByteBuffer.wrap(new byte[]{1, 2, 3}))));
+
+        List<InputStream> streams = new ArrayList<>();
+        PreparedStatement preparedStatement = (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{PreparedStatement.class},
+                (proxy, method, args) -> {
+                    streams.add((InputStream) args[1]);
+                    return null;
+                });
+        query.bindParameters(preparedStatement);
+        assertArrayEquals(new byte[]{1, 2, 3}, streams.get(0).readAllBytes());
+        query.bindParameters(preparedStatement);
+
+        assertArrayEquals(new byte[]{1, 2, 3}, streams.get(1).readAllBytes());
+    }
+}
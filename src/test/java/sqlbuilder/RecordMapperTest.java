@@ -0,0 +1,54 @@
+package sqlbuilder;
+
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+public class RecordMapperTest {
+    private record Customer(long id, String name, int age, Double rating) {
+    }
+
+    @Test
+    public void testRecordIsMappedByComponentNames() throws Exception {
+        Map<String, Object> row = new HashMap<>();
+        row.put("id", 7L);
+        row.put("name", "Ada");
+        row.put("rating", 4.5);
+
+        Customer customer = new RecordMapper<>(Customer.class).map(resultSet(row));
+
+        assertEquals(new Customer(7, "Ada", 0, 4.5), customer);
+    }
+
+    @Test
+    public void testColumnsAreComponentNames() {
+        assertEquals(List.of("id", "name", "age", "rating"), new RecordMapper<>(Customer.class).getColumns());
+    }
+
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void testOnlyRecordsAreAccepted() {
+        assertThrows(IllegalArgumentException.class, () -> new RecordMapper(String.class));
+    }
+
+    private static ResultSet resultSet(Map<String, Object> row) {
+        return (ResultSet) Proxy.newProxyInstance(RecordMapperTest.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> {
+                    Object value = row.get((String) args[0]);
+                    return switch(method.getName()) {
+                        case "getLong" -> value == null ? 0L : (Long) value;
+                        case "getInt" -> value == null ? 0 : (Integer) value;
+                        case "getString" -> (String) value;
+                        case "getObject" -> ((Class<?>) args[1]).cast(value);
+                        default -> throw new UnsupportedOperationException(method.getName());
+                    };
+                });
+    }
+}
@@ -0,0 +1,78 @@
+package sqlbuilder;
+
+import org.junit.Test;
+import sqlbuilder.dialects.SqlDialect;
+import sqlbuilder.exceptions.InvalidIdentifierException;
+import sqlbuilder.identifiers.Table;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static sqlbuilder.expressions.Expression.*;
+
+public class SchemaTemplateTest {
+    private static final SqlDialect DIALECT = new SqlDialect.PostgresDialect();
+
+    private static Query buildQuery(String schema) {
+        return new SelectBuilder(DIALECT, schema)
+                .select("o.id")
+                .fromWithAlias("ORDERS", "o")
+                .join(Table.of("shared", "CURRENCIES"), eq("o.currency", column("CURRENCIES.code")))
+                .where(eq("o.state", 2))
+                .where(semiJoin("o.customer", new SelectBuilder(DIALECT, schema).fromWithAlias("CUSTOMERS", "c").selectWithAlias("c.id", "id")))
+                .build();
+    }
+
+    @Test
+    public void testRenderedStatementEqualsBuiltStatement() {
+        SchemaTemplate template = SchemaTemplate.compile(SchemaTemplateTest::buildQuery);
+
+        assertEquals(2, template.getSchemaSlots());
+        assertEquals(buildQuery("tenant_1").getStatement(), template.render("tenant_1"));
+        assertEquals(buildQuery("tenant_2.").getStatement(), template.forSchema("tenant_2.").getStatement());
+        assertEquals(buildQuery(null).getStatement(), template.render(null));
+        assertEquals(List.of(2), template.forSchema("tenant_1").getValues());
+    }
+
+    @Test
+    public void testQueriesAreCachedPerSchema() {
+        SchemaTemplate template = SchemaTemplate.compile(schema -> new SelectBuilder(DIALECT, schema)
+                .from("ORDERS")
+                .where(eq("id", param("schemaTemplateOrderId")))
+                .build(), 1);
+
+        PrecompiledQuery first = template.forSchema("tenant_1");
+
+        assertSame(first, template.forSchema("tenant_1"));
+        assertEquals(List.of("schemaTemplateOrderId"), first.getParameterKeys());
+
+        template.forSchema("tenant_2");
+        assertNotSame(first, template.forSchema("tenant_1"));
+    }
+
+    @Test
+    public void testInvalidSchemaIsRejected() {
+        SchemaTemplate template = SchemaTemplate.compile(SchemaTemplateTest::buildQuery);
+
+        assertThrows(InvalidIdentifierException.class, () -> template.forSchema("tenant; DROP TABLE ORDERS; --"));
+        assertThrows(InvalidIdentifierException.class, () -> template.render("tenant a"));
+        assertEquals(template.render(null), template.forSchema("").getStatement());
+    }
+
+    @Test
+    public void testSchemaOutsideOfTableNameIsRejected() {
+        assertThrows(IllegalStateException.class, () -> SchemaTemplate.compile(schema -> new SelectBuilder(DIALECT)
+                .from("ORDERS")
+                .where(eq("tenant", column("'" + schema + "'")))
+                .build()));
+    }
+
+    @Test
+    public void testQueryWithoutSchemaSlotsIsRejected() {
+        assertThrows(IllegalStateException.class, () -> SchemaTemplate.compile(schema -> new SelectBuilder(DIALECT).from("ORDERS").build()));
+
+        SchemaTemplate template = SchemaTemplate.compile(schema -> new SelectBuilder(DIALECT).from("ORDERS").build(), 1, true);
+        assertEquals(0, template.getSchemaSlots());
+        assertEquals(template.render(null), template.render("tenant_1"));
+    }
+}
@@ -0,0 +1,91 @@
+package sqlbuilder;
+
+import org.junit.Test;
+import sqlbuilder.dialects.SqlDialect;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static sqlbuilder.expressions.Expression.*;
+
+public class SelectBuilderPoolTest {
+    private static final SqlDialect DIALECT = new SqlDialect.PostgresDialect();
+    private static final String TABLE_A = "TABLE_A";
+    private static final String COLUMN_A = "columnA";
+
+    @Test
+    public void testBuilderIsResetBeforeReuse() {
+        SelectBuilderPool pool = new SelectBuilderPool(DIALECT);
+
+        Query first = pool.use(builder -> builder
+                .select(COLUMN_A)
+                .from(TABLE_A)
+                .where(eq(COLUMN_A, 1))
+                .orderBy(COLUMN_A)
+                .limit(10)
+                .build());
+        Query second = pool.use(builder -> builder.from(TABLE_A).build());
+        Query expected = new SelectBuilder(DIALECT)
+                .select(COLUMN_A)
+                .from(TABLE_A)
+                .where(eq(COLUMN_A, 1))
+                .orderBy(COLUMN_A)
+                .limit(10)
+                .build();
+
+        assertEquals(expected.getStatement(), first.getStatement());
+        assertEquals(1, first.getParameters().size());
+        assertEquals("SELECT * FROM " + TABLE_A + " " + TABLE_A, second.getStatement());
+        assertEquals(0, second.getParameters().size());
+    }
+
+    @Test
+    public void testStrictProjectionIsReset() {
+        SelectBuilderPool pool = new SelectBuilderPool(DIALECT);
+
+        assertThrows(IllegalStateException.class, () -> pool.use(builder -> builder.strictProjection().from(TABLE_A).build()));
+        Query query = pool.use(builder -> builder.from(TABLE_A).build());
+
+        assertEquals("SELECT * FROM " + TABLE_A + " " + TABLE_A, query.getStatement());
+    }
+
+    @Test
+    public void testBuilderIsReused() {
+        SelectBuilderPool pool = new SelectBuilderPool(DIALECT);
+
+        SelectBuilder builder;
+        try(SelectBuilderPool.Lease lease = pool.acquire()) {
+            builder = lease.builder();
+        }
+        assertEquals(1, pool.size());
+
+        try(SelectBuilderPool.Lease lease = pool.acquire()) {
+            assertSame(builder, lease.builder());
+            assertEquals(0, pool.size());
+        }
+    }
+
+    @Test
+    public void testLeaseCannotBeUsedAfterClose() {
+        SelectBuilderPool pool = new SelectBuilderPool(DIALECT);
+
+        SelectBuilderPool.Lease lease = pool.acquire();
+        lease.close();
+        lease.close();
+
+        assertEquals(1, pool.size());
+        assertThrows(IllegalStateException.class, lease::builder);
+    }
+
+    @Test
+    public void testPoolIsBounded() {
+        SelectBuilderPool pool = new SelectBuilderPool(DIALECT, null, 1);
+
+        SelectBuilderPool.Lease first = pool.acquire();
+        SelectBuilderPool.Lease second = pool.acquire();
+        first.close();
+        second.close();
+
+        assertEquals(1, pool.size());
+    }
+}
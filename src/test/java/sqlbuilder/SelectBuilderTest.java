@@ -2,11 +2,20 @@ package sqlbuilder;
 
 import org.junit.Test;
 import sqlbuilder.dialects.SqlDialect;
+import sqlbuilder.exceptions.DuplicateKeyException;
+import sqlbuilder.exceptions.InvalidIdentifierException;
 import sqlbuilder.exceptions.ValueCannotBeEmptyException;
 import sqlbuilder.expressions.Expression;
+import sqlbuilder.hints.Hint;
+import sqlbuilder.identifiers.Column;
+import sqlbuilder.identifiers.Table;
+
+import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
 import static sqlbuilder.expressions.Expression.*;
 
 public class SelectBuilderTest {
@@ -247,6 +256,245 @@ public class SelectBuilderTest {
         assertEquals(expectedPrepared, query.getStatement());
     }
 
+    @Test
+    public void testCommonTableExpressionIsRenderedOnce() {
+        String cte = "PERMITTED";
+        String expected = "WITH " + cte + " AS ( SELECT " + getColumnWithAlias(COLUMN_A) + " FROM " + getTableWithAlias(TABLE_A)
+                + " WHERE " + COLUMN_B + " = 1 ) SELECT * FROM " + getTableWithAlias(cte)
+                + " WHERE " + COLUMN_A + " IN ( SELECT " + getColumnWithAlias(COLUMN_A) + " FROM " + getTableWithAlias(cte) + " )";
+
+        SelectBuilder permitted = new SelectBuilder(DIALECT)
+                .select(COLUMN_A)
+                .from(TABLE_A)
+                .where(eq(COLUMN_B, 1));
+        Query query = new SelectBuilder(DIALECT)
+                .with(cte, permitted)
+                .from(cte)
+                .where(in(COLUMN_A, new SelectBuilder(DIALECT).select(COLUMN_A).fromCommonTableExpression(cte)))
+                .build();
+
+        assertEquals(expected, query.getPopulatedStatement(DIALECT));
+    }
+
+    @Test
+    public void testCommonTableExpressionIsNotPrefixedWithSchema() {
+        String cte = "PERMITTED";
+        String expected = "WITH " + cte + " AS ( SELECT * FROM SCHEMA." + TABLE_A + " " + TABLE_A + " ) SELECT * FROM " + getTableWithAlias(cte);
+
+        Query query = new SelectBuilder(DIALECT, "SCHEMA")
+                .with(cte, new SelectBuilder(DIALECT, "SCHEMA").from(TABLE_A))
+                .from(cte)
+                .build();
+
+        assertEquals(expected, query.getStatement());
+    }
+
+    @Test
+    public void testRecursiveCommonTableExpression() {
+        String cte = "TREE";
+        String recursivePart = "SELECT * FROM " + getTableWithAlias(TABLE_A) + " WHERE " + COLUMN_A + " IS NULL UNION ALL SELECT * FROM " + getTableWithAlias(cte);
+        String expectedOracle = "WITH " + cte + " (" + COLUMN_A + ") AS ( " + recursivePart + " ) SELECT * FROM " + getTableWithAlias(cte);
+        String expectedPostgres = "WITH RECURSIVE " + cte + " (" + COLUMN_A + ") AS ( " + recursivePart + " ) SELECT * FROM " + getTableWithAlias(cte);
+
+        SqlDialect postgres = new SqlDialect.PostgresDialect();
+        assertEquals(expectedOracle, buildRecursiveQuery(DIALECT, cte).getStatement());
+        assertEquals(expectedPostgres, buildRecursiveQuery(postgres, cte).getStatement());
+    }
+
+    @Test
+    public void testDuplicateCommonTableExpression() {
+        SelectBuilder builder = new SelectBuilder(DIALECT).with("CTE", new SelectBuilder(DIALECT).from(TABLE_A));
+        assertThrows(DuplicateKeyException.class, () -> builder.with("CTE", new SelectBuilder(DIALECT).from(TABLE_A)));
+    }
+
+    @Test
+    public void testSelectTypedIdentifiers() {
+        Table table = Table.of(TABLE_A).as("a");
+        String expected = "SELECT a." + COLUMN_A + " AS " + DIALECT.quote(COLUMN_A) + " FROM SCHEMA." + TABLE_A + " a"
+                + " JOIN SCHEMA." + TABLE_A + " b ON a." + COLUMN_A + " = b." + COLUMN_A + " ORDER BY a." + COLUMN_A + " DESC";
+
+        Query query = new SelectBuilder(DIALECT, "SCHEMA")
+                .select(table.column(COLUMN_A))
+                .from(table)
+                .join(table.as("b"), eq(table.column(COLUMN_A).getQualifiedName(), column(Table.of(TABLE_A).as("b").column(COLUMN_A))))
+                .orderBy(table.column(COLUMN_A))
+                .build();
+
+        assertEquals(expected, query.getStatement());
+    }
+
+    @Test
+    public void testIdentifiersAreInterned() {
+        assertSame(Table.of("SCHEMA", TABLE_A), Table.of("SCHEMA", TABLE_A));
+        assertSame(Column.of(COLUMN_A).as("alias1"), Column.of(null, COLUMN_A, "alias1"));
+    }
+
+    @Test
+    public void testInvalidIdentifier() {
+        assertThrows(InvalidIdentifierException.class, () -> Table.of("TABLE; DROP TABLE X"));
+        assertThrows(InvalidIdentifierException.class, () -> Column.of(COLUMN_A).as("a\"b"));
+        assertThrows(ValueCannotBeEmptyException.class, () -> Column.of(" "));
+    }
+
+    @Test
+    public void testOracleHints() {
+        String expected = "SELECT /*+ INDEX(a IDX_A) USE_HASH(b) PARALLEL(4) */ * FROM " + TABLE_A + " a JOIN " + TABLE_A + " b ON a.id = b.id";
+
+        assertEquals(expected, buildQueryWithHints(new SqlDialect.OracleDialect()).getStatement());
+    }
+
+    @Test
+    public void testMsSqlHints() {
+        String expected = "SELECT * FROM " + TABLE_A + " a WITH (INDEX(IDX_A)) JOIN " + TABLE_A + " b ON a.id = b.id"
+                + " OPTION (HASH JOIN, MAXDOP 4, RECOMPILE)";
+
+        assertEquals(expected, buildQueryWithHints(new SqlDialect.MsSQLDialect()).getStatement());
+    }
+
+    @Test
+    public void testUnsupportedHintsAreDropped() {
+        String expected = "SELECT * FROM " + TABLE_A + " a JOIN " + TABLE_A + " b ON a.id = b.id";
+
+        assertEquals(expected, buildQueryWithHints(new SqlDialect.PostgresDialect()).getStatement());
+    }
+
+    @Test
+    public void testJoinConditionParameters() {
+        Query query = new SelectBuilder(DIALECT)
+                .from(TABLE_A)
+                .join(TABLE_A, "b", eq("b.id", 1))
+                .where(eq(COLUMN_A, 2))
+                .build();
+
+        assertEquals(List.of(1, 2), query.getParameters());
+    }
+
+    @Test
+    public void testSemiJoinIsRenderedPerDialect() {
+        SelectBuilder subQuery = new SelectBuilder(DIALECT)
+                .fromWithAlias(TABLE_A, "b")
+                .selectWithAlias("b.id", "id")
+                .where(eq("b.state", 1).or().isNull("b.state"));
+        Query query = new SelectBuilder(DIALECT)
+                .fromWithAlias(TABLE_A, "a")
+                .where(semiJoin("a.id", subQuery))
+                .build();
+
+        assertEquals("SELECT * FROM TABLE_A a WHERE EXISTS ( SELECT 1 FROM TABLE_A b WHERE ( b.state = ? OR b.state IS NULL ) AND b.id = a.id )",
+                query.getStatement());
+        assertEquals(List.of(1), query.getParameters());
+
+        SqlDialect h2 = new SqlDialect.H2Dialect();
+        Query h2Query = new SelectBuilder(h2)
+                .fromWithAlias(TABLE_A, "a")
+                .where(semiJoin("a.id", new SelectBuilder(h2).fromWithAlias(TABLE_A, "b").selectWithAlias("b.id", "id")))
+                .build();
+
+        assertEquals("SELECT * FROM TABLE_A a WHERE a.id IN ( SELECT b.id AS \"id\" FROM TABLE_A b )", h2Query.getStatement());
+    }
+
+    @Test
+    public void testCopyDoesNotChangeOriginal() {
+        SelectBuilder original = new SelectBuilder(DIALECT)
+                .select("id")
+                .from("TABLE_A")
+                .where(eq("state", 1))
+                .orderBy("id")
+                .asc();
+        String statement = original.build().getStatement();
+
+        Query copy = original.copy().where(gt("id", 10)).limit(5).build();
+
+        assertEquals(statement, original.build().getStatement());
+        assertTrue(copy.getStatement().startsWith(statement.substring(0, statement.indexOf(" ORDER BY"))));
+        assertTrue(copy.getStatement().contains("AND id > ?"));
+        assertEquals(List.of(1, 10), copy.getParameters());
+    }
+
+    @Test
+    public void testSelfJoinIsWrappedAsDerivedTable() {
+        SelectBuilder subQuery = new SelectBuilder(DIALECT)
+                .from(TABLE_A)
+                .selectWithAlias("id", "id");
+        Query semiJoin = new SelectBuilder(DIALECT)
+                .from(TABLE_A)
+                .where(semiJoin(TABLE_A + ".parent_id", subQuery))
+                .build();
+        Query antiJoin = new SelectBuilder(DIALECT)
+                .fromWithAlias(TABLE_A, "correlated")
+                .where(antiJoin("correlated.parent_id", new SelectBuilder(DIALECT).fromWithAlias(TABLE_A, "correlated").selectWithAlias("id", "id")))
+                .build();
+
+        assertEquals("SELECT * FROM TABLE_A TABLE_A WHERE EXISTS ( SELECT 1 FROM ( SELECT id AS \"id\" FROM TABLE_A TABLE_A ) correlated WHERE correlated.\"id\" = TABLE_A.parent_id )",
+                semiJoin.getStatement());
+        assertEquals("SELECT * FROM TABLE_A correlated WHERE NOT EXISTS ( SELECT 1 FROM ( SELECT id AS \"id\" FROM TABLE_A correlated ) correlated_sub_query WHERE correlated_sub_query.\"id\" = correlated.parent_id )",
+                antiJoin.getStatement());
+    }
+
+    @Test
+    public void testAntiJoinOfGroupedSubQueryIsWrapped() {
+        SelectBuilder subQuery = new SelectBuilder(DIALECT)
+                .fromWithAlias(TABLE_A, "b")
+                .selectWithAlias("b.id", "id")
+                .groupBy("b.id")
+                .having(gt("COUNT(*)", 2));
+        Query query = new SelectBuilder(DIALECT)
+                .fromWithAlias(TABLE_A, "a")
+                .where(antiJoin("a.id", subQuery))
+                .build();
+
+        assertEquals("SELECT * FROM TABLE_A a WHERE NOT EXISTS ( SELECT 1 FROM ( SELECT b.id AS \"id\" FROM TABLE_A b GROUP BY b.id HAVING COUNT(*) > ? ) correlated WHERE correlated.\"id\" = a.id )",
+                query.getStatement());
+        assertEquals(List.of(2), query.getParameters());
+        assertThrows(IllegalArgumentException.class, () -> antiJoin("id", subQuery));
+    }
+
+    private record Customer(int id, String name) {
+    }
+
+    @Test
+    public void testSelectColumnsOfRecord() {
+        String expected = "SELECT " + getColumnWithAlias("id") + ", " + getColumnWithAlias("name") + " FROM " + getTableWithAlias(TABLE_A);
+
+        Query query = new SelectBuilder(DIALECT)
+                .select(Customer.class)
+                .from(TABLE_A)
+                .build();
+
+        assertEquals(expected, query.getStatement());
+    }
+
+    @Test
+    public void testStrictProjectionRejectsSelectAll() {
+        assertThrows(IllegalStateException.class, () -> new SelectBuilder(DIALECT).strictProjection().from(TABLE_A).build());
+
+        SelectBuilder.setStrictProjectionByDefault(true);
+        try {
+            SelectBuilder builder = new SelectBuilder(DIALECT).from(TABLE_A);
+            assertThrows(IllegalStateException.class, builder::build);
+            assertEquals("SELECT " + getColumnWithAlias(COLUMN_A) + " FROM " + getTableWithAlias(TABLE_A), builder.select(COLUMN_A).build().getStatement());
+        } finally {
+            SelectBuilder.setStrictProjectionByDefault(false);
+        }
+    }
+
+    private static Query buildQueryWithHints(SqlDialect dialect) {
+        return new SelectBuilder(dialect)
+                .fromWithAlias(TABLE_A, "a")
+                .join(TABLE_A, "b", eq("a.id", column("b.id")))
+                .hint(Hint.index("a", "IDX_A"), Hint.hashJoin("b"), Hint.parallel(4), Hint.recompile())
+                .build();
+    }
+
+    private static Query buildRecursiveQuery(SqlDialect dialect, String cte) {
+        return new SelectBuilder(dialect)
+                .withRecursive(cte, List.of(COLUMN_A),
+                        new SelectBuilder(dialect).from(TABLE_A).where(isNull(COLUMN_A)),
+                        new SelectBuilder(dialect).fromCommonTableExpression(cte))
+                .from(cte)
+                .build();
+    }
+
     private static String getTableWithAlias(String table) {
         return table + " " + table;
     }
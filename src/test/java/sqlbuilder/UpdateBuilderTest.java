@@ -0,0 +1,57 @@
+package sqlbuilder;
+
+import org.junit.Test;
+import sqlbuilder.dialects.SqlDialect;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static sqlbuilder.expressions.Expression.column;
+import static sqlbuilder.expressions.Expression.eq;
+
+public class UpdateBuilderTest {
+    private static final String TABLE_A = "TABLE_A";
+
+    @Test
+    public void testUpdate() {
+        Query query = new UpdateBuilder(new SqlDialect.H2Dialect())
+                .table(TABLE_A)
+                .set("status", "DONE")
+                .set("updated", column("created"))
+                .where(eq("status", "OPEN"))
+                .build();
+
+        assertEquals("UPDATE " + TABLE_A + " SET status = ?, updated = created WHERE status = ?", query.getStatement());
+        assertEquals(List.of("DONE", "OPEN"), query.getParameters());
+    }
+
+    @Test
+    public void testRowLimitedChunkKeepsParameterOrder() {
+        Query query = new UpdateBuilder(new SqlDialect.DB2Dialect())
+                .table(TABLE_A)
+                .set("status", "DONE")
+                .where(eq("status", "OPEN"))
+                .buildChunk(100);
+
+        assertEquals("UPDATE " + TABLE_A + " SET status = ? WHERE RID() IN (SELECT RID() FROM " + TABLE_A
+                + " WHERE status = ? FETCH FIRST 100 ROWS ONLY)", query.getStatement());
+        assertEquals(List.of("DONE", "OPEN"), query.getParameters());
+    }
+
+    @Test
+    public void testUpdateWithoutAssignments() {
+        assertThrows(IllegalStateException.class, () -> new UpdateBuilder(new SqlDialect.H2Dialect()).table(TABLE_A).build());
+    }
+
+    @Test
+    public void testChunksMustBeLimitedByKeyRange() {
+        UpdateBuilder update = new UpdateBuilder(new SqlDialect.H2Dialect())
+                .table(TABLE_A)
+                .set("status", "DONE")
+                .where(eq("status", "OPEN"));
+
+        assertThrows(IllegalStateException.class, () -> update.chunked().rows(100));
+        assertThrows(IllegalStateException.class, () -> update.chunked().execute(null));
+    }
+}
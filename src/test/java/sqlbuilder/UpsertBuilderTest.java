@@ -0,0 +1,78 @@
+package sqlbuilder;
+
+import org.junit.Test;
+import sqlbuilder.dialects.SqlDialect;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+public class UpsertBuilderTest {
+    private static final String TABLE_A = "TABLE_A";
+
+    @Test
+    public void testPostgresOnConflict() {
+        Query query = upsert(new SqlDialect.PostgresDialect()).build().get(0);
+
+        assertEquals("INSERT INTO " + TABLE_A + " (id, name, age) VALUES (?, ?, ?), (?, ?, ?)"
+                + " ON CONFLICT (id) DO UPDATE SET name = EXCLUDED.name, age = EXCLUDED.age", query.getStatement());
+        assertEquals(6, query.getParameters().size());
+    }
+
+    @Test
+    public void testH2MergeKey() {
+        Query query = upsert(new SqlDialect.H2Dialect()).build().get(0);
+
+        assertEquals("MERGE INTO " + TABLE_A + " (id, name, age) KEY (id) VALUES (?, ?, ?), (?, ?, ?)", query.getStatement());
+    }
+
+    @Test
+    public void testMergeWithValuesSource() {
+        Query query = upsert(new SqlDialect.MsSQLDialect()).update("name").build().get(0);
+
+        assertEquals("MERGE INTO " + TABLE_A + " target USING (VALUES (?, ?, ?), (?, ?, ?)) AS source (id, name, age)"
+                + " ON (target.id = source.id) WHEN MATCHED THEN UPDATE SET target.name = source.name"
+                + " WHEN NOT MATCHED THEN INSERT (id, name, age) VALUES (source.id, source.name, source.age);", query.getStatement());
+    }
+
+    @Test
+    public void testOracleMergeFromDual() {
+        Query query = upsert(new SqlDialect.OracleDialect()).update().build().get(0);
+
+        assertEquals("MERGE INTO " + TABLE_A + " target USING (SELECT ? id, ? name, ? age FROM DUAL UNION ALL SELECT ? id, ? name, ? age FROM DUAL) source"
+                + " ON (target.id = source.id)"
+                + " WHEN NOT MATCHED THEN INSERT (id, name, age) VALUES (source.id, source.name, source.age)", query.getStatement());
+    }
+
+    @Test
+    public void testLastRowWithSameKeyWins() {
+        Query query = new UpsertBuilder(new SqlDialect.PostgresDialect())
+                .into(TABLE_A)
+                .columns("id", "name")
+                .key("id")
+                .row(1, "A")
+                .row(1, "B")
+                .build().get(0);
+
+        assertEquals(List.of(1, "B"), query.getParameters());
+    }
+
+    @Test
+    public void testMissingKey() {
+        assertThrows(IllegalStateException.class, () -> new UpsertBuilder(new SqlDialect.PostgresDialect())
+                .into(TABLE_A)
+                .columns("id")
+                .row(1)
+                .build());
+    }
+
+    private static UpsertBuilder upsert(SqlDialect dialect) {
+        return new UpsertBuilder(dialect)
+                .into(TABLE_A)
+                .columns("id", "name", "age")
+                .key("id")
+                .row(1, "A", 20)
+                .row(2, "B", 30);
+    }
+}
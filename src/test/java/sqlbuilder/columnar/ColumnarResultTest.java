@@ -0,0 +1,103 @@
+package sqlbuilder.columnar;
+
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ColumnarResultTest {
+    private static final List<String> LABELS = List.of("id", "quantity", "price", "region", "created");
+    private static final List<Integer> TYPES = List.of(Types.BIGINT, Types.INTEGER, Types.DECIMAL, Types.VARCHAR, Types.DATE);
+    private static final List<String> REGIONS = List.of("north", "east", "south", "west");
+    private static final int ROWS = 1500;
+
+    @Test
+    public void testColumnsAreStoredAsPrimitives() throws SQLException {
+        ColumnarResult result = ColumnarResult.read(resultSet());
+
+        assertEquals(ROWS, result.getRowCount());
+        assertEquals(5, result.getColumns().size());
+
+        ColumnVector.LongVector ids = result.getLongColumn("ID");
+        assertEquals(ROWS, ids.values().length);
+        assertEquals(1499L, ids.get(1499));
+
+        ColumnVector.IntVector quantities = result.getIntColumn("quantity");
+        assertTrue(quantities.isNull(0));
+        assertNull(quantities.getObject(1400));
+        assertEquals(7, quantities.get(1));
+        assertFalse(quantities.isNull(1));
+
+        ColumnVector.DoubleVector prices = result.getDoubleColumn("price");
+        assertEquals(1.5 * 1200, prices.get(1200), 0);
+
+        ColumnVector.StringVector regions = result.getStringColumn("region");
+        // the codes are assigned in the order the strings occur, the first row is NULL
+        assertEquals(List.of("east", "south", "west", "north"), regions.getDictionary());
+        assertEquals("south", regions.get(1002));
+        assertEquals(1, regions.getCode(1002));
+
+        assertEquals(new Date(1002), result.getColumn("created").getObject(1002));
+        assertTrue(result.getColumn(4) instanceof ColumnVector.ObjectVector);
+    }
+
+    @Test
+    public void testNullStringsHaveNoCode() throws SQLException {
+        ColumnVector.StringVector regions = ColumnarResult.read(resultSet()).getStringColumn("region");
+
+        assertTrue(regions.isNull(5));
+        assertNull(regions.get(5));
+        assertEquals(ColumnVector.StringVector.NULL_CODE, regions.getCode(5));
+    }
+
+    @Test
+    public void testColumnTypeIsChecked() throws SQLException {
+        ColumnarResult result = ColumnarResult.read(resultSet());
+
+        assertThrows(IllegalArgumentException.class, () -> result.getLongColumn("quantity"));
+        assertThrows(IllegalArgumentException.class, () -> result.getColumn("unknown"));
+        assertThrows(IndexOutOfBoundsException.class, () -> result.getLongColumn("id").get(ROWS));
+    }
+
+    /**
+     * Every 7th quantity and every 5th region are NULL
+     */
+    private static ResultSet resultSet() {
+        ResultSetMetaData metaData = (ResultSetMetaData) Proxy.newProxyInstance(ColumnarResultTest.class.getClassLoader(), new Class<?>[]{ResultSetMetaData.class},
+                (proxy, method, args) -> switch(method.getName()) {
+                    case "getColumnCount" -> LABELS.size();
+                    case "getColumnLabel" -> LABELS.get((int) args[0] - 1);
+                    case "getColumnType" -> TYPES.get((int) args[0] - 1);
+                    case "getScale" -> 2;
+                    case "getPrecision" -> 10;
+                    default -> null;
+                });
+        int[] row = {-1};
+        boolean[] wasNull = {false};
+        return (ResultSet) Proxy.newProxyInstance(ColumnarResultTest.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> {
+                    if(method.getName().equals("wasNull")) {
+                        return wasNull[0];
+                    }
+
+                    wasNull[0] = method.getName().equals("getInt") && row[0] % 7 == 0;
+                    return switch(method.getName()) {
+                        case "getMetaData" -> metaData;
+                        case "next" -> ++row[0] < ROWS;
+                        case "getLong" -> (long) row[0];
+                        case "getInt" -> row[0] % 7 == 0 ? 0 : 7;
+                        case "getDouble" -> 1.5 * row[0];
+                        case "getString" -> row[0] % 5 == 0 ? null : REGIONS.get(row[0] % REGIONS.size());
+                        case "getObject" -> new Date(row[0]);
+                        default -> null;
+                    };
+                });
+    }
+}
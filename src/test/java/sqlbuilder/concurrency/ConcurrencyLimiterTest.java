@@ -0,0 +1,207 @@
+package sqlbuilder.concurrency;
+
+import org.junit.Test;
+import sqlbuilder.exceptions.LimitExceededException;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+
+import static org.junit.Assert.*;
+
+public class ConcurrencyLimiterTest {
+    private static final long MILLIS = 1_000_000;
+
+    @Test
+    public void testRequestsOverLimitAreRejected() throws SQLException {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(new AimdLimit(2, 1, 10, 0.5, Duration.ofSeconds(1)));
+
+        ConcurrencyLimiter.Permit first = limiter.acquire();
+        limiter.acquire();
+        assertThrows(LimitExceededException.class, limiter::acquire);
+
+        first.close();
+        first.onSuccess();
+        assertEquals(1, limiter.getInFlight());
+        assertEquals(2, limiter.getLimit());
+        limiter.acquire();
+    }
+
+    @Test
+    public void testAimdLimitGrowsAndBacksOff() {
+        AimdLimit limit = new AimdLimit(10, 1, 200, 0.5, Duration.ofMillis(100));
+
+        for(int i = 0; i < 9; i++) {
+            assertEquals(10, limit.update(10, 50 * MILLIS, 10, false));
+        }
+        assertEquals(11, limit.update(10, 50 * MILLIS, 10, false));
+        assertEquals(11, limit.update(11, 50 * MILLIS, 2, false));
+        assertEquals(5, limit.update(10, 150 * MILLIS, 10, false));
+        assertEquals(5, limit.update(10, 50 * MILLIS, 10, true));
+    }
+
+    @Test
+    public void testVegasLimitFollowsQueueEstimate() {
+        VegasLimit limit = new VegasLimit(20, 1, 200, 3, 6, 1000);
+
+        assertEquals(21, limit.update(20, 10 * MILLIS, 20, false));
+        // twice the latency without load means half of the requests are queued
+        assertEquals(19, limit.update(20, 20 * MILLIS, 20, false));
+        assertEquals(10, limit.update(20, 10 * MILLIS, 20, true));
+    }
+
+    @Test
+    public void testAimdSimulationKeepsLatencyBounded() throws SQLException {
+        Simulation simulation = new Simulation(new AimdLimit(10, 1, 200, 0.9, Duration.ofMillis(30)));
+        simulation.run();
+
+        assertTrue("limit " + simulation.limiter.getLimit(), simulation.limiter.getLimit() <= 3 * Simulation.CAPACITY);
+        assertTrue("latency " + simulation.maxLatencyAtEnd, simulation.maxLatencyAtEnd <= 40 * MILLIS);
+        assertTrue("rejected " + simulation.rejected, simulation.rejected > 0);
+        assertTrue("completed " + simulation.completed, simulation.completed >= Simulation.THROUGHPUT_PER_SECOND * Simulation.SECONDS * 8 / 10);
+    }
+
+    @Test
+    public void testSimulationWithoutLimitOverloads() throws SQLException {
+        Simulation simulation = new Simulation(new LimitAlgorithm() {
+            @Override
+            public int getInitialLimit() {
+                return Integer.MAX_VALUE;
+            }
+
+            @Override
+            public int update(int limit, long rttNanos, int inFlight, boolean dropped) {
+                return limit;
+            }
+        });
+        simulation.run();
+
+        assertTrue("latency " + simulation.maxLatencyAtEnd, simulation.maxLatencyAtEnd > 1000 * MILLIS);
+    }
+
+    @Test
+    public void testVegasSimulationKeepsLatencyBounded() throws SQLException {
+        Simulation simulation = new Simulation(new VegasLimit());
+        simulation.run();
+
+        assertTrue("limit " + simulation.limiter.getLimit(), simulation.limiter.getLimit() <= 3 * Simulation.CAPACITY);
+        assertTrue("latency " + simulation.maxLatencyAtEnd, simulation.maxLatencyAtEnd <= 40 * MILLIS);
+        assertTrue("completed " + simulation.completed, simulation.completed >= Simulation.THROUGHPUT_PER_SECOND * Simulation.SECONDS * 8 / 10);
+    }
+
+    @Test
+    public void testStatementTimeoutCountsAsDropped() throws SQLException {
+        boolean[] dropped = {false};
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(new LimitAlgorithm() {
+            @Override
+            public int getInitialLimit() {
+                return 10;
+            }
+
+            @Override
+            public int update(int limit, long rttNanos, int inFlight, boolean wasDropped) {
+                dropped[0] = wasDropped;
+                return limit;
+            }
+        });
+        PreparedStatement statement = (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{PreparedStatement.class},
+                (proxy, method, args) -> switch(method.getName()) {
+                    case "executeQuery" -> throw new SQLTimeoutException("timed out");
+                    case "executeUpdate" -> 1;
+                    default -> null;
+                });
+        DataSource dataSource = new ConcurrencyLimitedDataSource((DataSource) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{DataSource.class},
+                (proxy, method, args) -> Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                        (connectionProxy, connectionMethod, connectionArgs) -> connectionMethod.getName().equals("prepareStatement") ? statement : null)), limiter);
+
+        try(Connection connection = dataSource.getConnection()) {
+            connection.prepareStatement("SELECT 1").executeUpdate();
+        }
+        assertFalse(dropped[0]);
+
+        try(Connection connection = dataSource.getConnection()) {
+            PreparedStatement preparedStatement = connection.prepareStatement("SELECT 1");
+            assertSame(connection, preparedStatement.getConnection());
+            assertThrows(SQLTimeoutException.class, preparedStatement::executeQuery);
+        }
+        assertTrue(dropped[0]);
+    }
+
+    /**
+     * Sends more requests than the fake database can serve on a virtual clock. The database serves
+     * {@link #CAPACITY} connections in parallel within 10ms, further connections are queued and get slower.
+     */
+    private static class Simulation {
+        static final int CAPACITY = 8;
+        static final long BASE_LATENCY = 10 * MILLIS;
+        static final int THROUGHPUT_PER_SECOND = (int) (CAPACITY * 1000 * MILLIS / BASE_LATENCY);
+        static final int SECONDS = 10;
+        static final int REQUESTS_PER_MILLI = 5;
+
+        private final long[] now = {0};
+        private final PriorityQueue<OpenConnection> openConnections = new PriorityQueue<>(Comparator.comparingLong(OpenConnection::end));
+        private final ConcurrencyLimiter limiter;
+        private final DataSource dataSource;
+        private int active = 0;
+        private long latencyOfLastConnection = 0;
+        private long rejected = 0;
+        private long completed = 0;
+        private long maxLatencyAtEnd = 0;
+
+        Simulation(LimitAlgorithm algorithm) {
+            limiter = new ConcurrencyLimiter(algorithm, Duration.ZERO, () -> now[0]);
+            dataSource = new ConcurrencyLimitedDataSource(latencyInjectingDataSource(), limiter);
+        }
+
+        void run() throws SQLException {
+            long end = SECONDS * 1000 * MILLIS;
+            for(; now[0] < end; now[0] += MILLIS) {
+                while(!openConnections.isEmpty() && openConnections.peek().end() <= now[0]) {
+                    OpenConnection connection = openConnections.poll();
+                    connection.connection().close();
+                    completed++;
+                    if(now[0] >= end - 1000 * MILLIS) {
+                        maxLatencyAtEnd = Math.max(maxLatencyAtEnd, connection.end() - connection.start());
+                    }
+                }
+
+                for(int i = 0; i < REQUESTS_PER_MILLI; i++) {
+                    try {
+                        Connection connection = dataSource.getConnection();
+                        openConnections.add(new OpenConnection(connection, now[0], now[0] + latencyOfLastConnection));
+                    } catch(LimitExceededException e) {
+                        rejected++;
+                    }
+                }
+            }
+        }
+
+        private DataSource latencyInjectingDataSource() {
+            return (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{DataSource.class}, (proxy, method, args) -> {
+                if(!method.getName().equals("getConnection")) {
+                    return null;
+                }
+
+                active++;
+                // beyond the capacity the connections share the database, so every connection gets slower
+                latencyOfLastConnection = active <= CAPACITY ? BASE_LATENCY : BASE_LATENCY * active / CAPACITY;
+                return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                        (connectionProxy, connectionMethod, connectionArgs) -> {
+                            if(connectionMethod.getName().equals("close")) {
+                                active--;
+                            }
+                            return null;
+                        });
+            });
+        }
+    }
+
+    private record OpenConnection(Connection connection, long start, long end) {
+    }
+}
@@ -0,0 +1,63 @@
+package sqlbuilder.explain;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import sqlbuilder.Query;
+import sqlbuilder.SelectBuilder;
+import sqlbuilder.dialects.SqlDialect;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static sqlbuilder.expressions.Expression.eq;
+
+/**
+ * Explains queries with bound parameters on an in-memory H2 database
+ */
+public class ExplainH2Test {
+    private static final SqlDialect DIALECT = new SqlDialect.H2Dialect();
+
+    private Connection connection;
+
+    @Before
+    public void createTable() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:explain");
+        try(Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE ORDERS (ID INT PRIMARY KEY, TENANT INT, CREATED INT)");
+            statement.execute("CREATE INDEX IDX_ORDERS_TENANT ON ORDERS (TENANT)");
+            statement.execute("INSERT INTO ORDERS SELECT X, MOD(X, 10), X FROM SYSTEM_RANGE(1, 1000)");
+        }
+    }
+
+    @After
+    public void closeConnection() throws SQLException {
+        connection.close();
+    }
+
+    @Test
+    public void testIndexScan() throws SQLException {
+        Query query = new SelectBuilder(DIALECT).select("ID").from("ORDERS").where(eq("TENANT", 5)).build();
+
+        PlanNode plan = query.explain(connection, DIALECT);
+
+        assertEquals(1, plan.getChildren().size());
+        assertEquals("ORDERS", plan.getChildren().get(0).getTable());
+        PlanAssert.assertUsesIndex(plan, "IDX_ORDERS_TENANT");
+        PlanAssert.assertNoFullScan(plan);
+    }
+
+    @Test
+    public void testFullScan() throws SQLException {
+        Query query = new SelectBuilder(DIALECT).select("ID").from("ORDERS").where(eq("CREATED", 5)).build();
+
+        PlanNode plan = query.explain(connection, DIALECT);
+
+        assertEquals(1, plan.getFullScans().size());
+        assertThrows(AssertionError.class, () -> PlanAssert.assertNoFullScan(plan));
+    }
+}
@@ -0,0 +1,76 @@
+package sqlbuilder.explain;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+public class PlanParsersTest {
+    private static final List<String> POSTGRES_PLAN = List.of(
+            "Hash Join  (cost=1.09..2.21 rows=4 width=8)",
+            "  Hash Cond: (b.a_id = a.id)",
+            "  ->  Seq Scan on table_b b  (cost=0.00..1.05 rows=5 width=4)",
+            "  ->  Hash  (cost=1.04..1.04 rows=4 width=4)",
+            "        ->  Index Scan using table_a_pkey on table_a a  (cost=0.29..8.30 rows=1 width=4)",
+            "              Index Cond: (id > 1)");
+
+    private static final List<String> H2_PLAN = List.of(
+            "SELECT",
+            "    \"A\".\"ID\"",
+            "FROM \"PUBLIC\".\"TABLE_A\" \"A\"",
+            "    /* PUBLIC.IDX_A_ID: ID > 1 */",
+            "INNER JOIN \"PUBLIC\".\"TABLE_B\" \"B\"",
+            "    /* PUBLIC.TABLE_B.tableScan */",
+            "    ON 1=1",
+            "WHERE \"A\".\"ID\" > 1");
+
+    @Test
+    public void testPostgresPlanTree() {
+        PlanNode root = PlanParsers.parsePostgres(POSTGRES_PLAN);
+
+        assertEquals("Hash Join", root.getOperator());
+        assertEquals(2.21, root.getCost(), 0);
+        assertEquals(List.of("Hash Cond: (b.a_id = a.id)"), root.getDetails());
+        assertEquals(2, root.getChildren().size());
+
+        PlanNode seqScan = root.getChildren().get(0);
+        assertEquals("Seq Scan", seqScan.getOperator());
+        assertEquals("table_b", seqScan.getTable());
+        assertTrue(seqScan.isFullScan());
+
+        PlanNode indexScan = root.getChildren().get(1).getChildren().get(0);
+        assertEquals("Index Scan", indexScan.getOperator());
+        assertEquals("table_a_pkey", indexScan.getIndex());
+        assertEquals(1, indexScan.getEstimatedRows(), 0);
+        assertEquals(List.of("Index Cond: (id > 1)"), indexScan.getDetails());
+    }
+
+    @Test
+    public void testH2Plan() {
+        PlanNode root = PlanParsers.parseH2(H2_PLAN);
+
+        assertEquals(2, root.getChildren().size());
+        PlanNode indexScan = root.getChildren().get(0);
+        assertEquals("TABLE_A", indexScan.getTable());
+        assertEquals("IDX_A_ID", indexScan.getIndex());
+        assertFalse(indexScan.isFullScan());
+
+        PlanNode tableScan = root.getChildren().get(1);
+        assertEquals("TABLE_B", tableScan.getTable());
+        assertNull(tableScan.getIndex());
+        assertTrue(tableScan.isFullScan());
+    }
+
+    @Test
+    public void testPlanAssertions() {
+        PlanNode plan = PlanParsers.parsePostgres(POSTGRES_PLAN);
+
+        PlanAssert.assertUsesIndex(plan, "table_a_pkey");
+        assertThrows(AssertionError.class, () -> PlanAssert.assertNoFullScan(plan));
+    }
+}
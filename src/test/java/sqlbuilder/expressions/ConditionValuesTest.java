@@ -0,0 +1,33 @@
+package sqlbuilder.expressions;
+
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static sqlbuilder.expressions.Expression.*;
+
+public class ConditionValuesTest {
+    private static final String TENANT = "tenant";
+
+    @Test
+    public void testIntegralValuesOfDifferentTypesIntersect() {
+        assertEquals(Optional.of(Set.of(5L)), ConditionValues.of(TENANT, List.of(eq(TENANT, 5L), in(TENANT, 5, 6))));
+        assertEquals(Optional.of(Set.of(6)), ConditionValues.of(TENANT, List.of(in(TENANT, 5, 6), eq(TENANT, BigInteger.valueOf(6)))));
+        assertEquals(Optional.of(Set.of((short) 7)), ConditionValues.of(TENANT, List.of(eq(TENANT, (short) 7), in(TENANT, 7L, 8L))));
+    }
+
+    @Test
+    public void testDifferentValuesDoNotIntersect() {
+        assertEquals(Optional.of(Set.of()), ConditionValues.of(TENANT, List.of(eq(TENANT, 5L), in(TENANT, 6, 7))));
+        assertEquals(Optional.of(Set.of()), ConditionValues.of(TENANT, List.of(eq(TENANT, "5"), eq(TENANT, 5))));
+    }
+
+    @Test
+    public void testUnrestrictedColumn() {
+        assertEquals(Optional.empty(), ConditionValues.of(TENANT, List.of(gt(TENANT, 5))));
+    }
+}
@@ -0,0 +1,87 @@
+package sqlbuilder.expressions;
+
+import org.junit.Test;
+import sqlbuilder.SelectBuilder;
+import sqlbuilder.dialects.SqlDialect;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static sqlbuilder.expressions.Expression.*;
+
+public class SargabilityAnalyzerTest {
+    private static final SqlDialect DIALECT = new SqlDialect.H2Dialect();
+    private static final SargabilityAnalyzer ANALYZER = new SargabilityAnalyzer(DIALECT);
+    private static final String TABLE_A = "TABLE_A";
+
+    @Test
+    public void testSargableConditions() {
+        SelectBuilder query = new SelectBuilder(DIALECT)
+                .from(TABLE_A)
+                .where(eq("a", 1).and().like("b", "abc%"))
+                .where(eq("a", 2).or().eq("a", 3));
+
+        assertTrue(ANALYZER.analyze(query).isEmpty());
+    }
+
+    @Test
+    public void testLeadingWildcard() {
+        assertTypes(ANALYZER.analyze(like("a", "%abc")), SargabilityWarning.Type.LEADING_WILDCARD);
+    }
+
+    @Test
+    public void testNotInSubQuery() {
+        SelectBuilder subQuery = new SelectBuilder(DIALECT).select("id").from(TABLE_A).where(like("b", "_x"));
+
+        assertTypes(ANALYZER.analyze(notIn("a", subQuery)), SargabilityWarning.Type.NOT_IN_SUB_QUERY, SargabilityWarning.Type.LEADING_WILDCARD);
+    }
+
+    @Test
+    public void testSemiAndAntiJoinSubQueries() {
+        SelectBuilder subQuery = new SelectBuilder(DIALECT).select("id").fromWithAlias(TABLE_A, "b").where(like("b.name", "%x"));
+
+        assertTypes(ANALYZER.analyze(semiJoin("a.id", subQuery)), SargabilityWarning.Type.LEADING_WILDCARD);
+        assertTypes(ANALYZER.analyze(antiJoin("LOWER(a.id)", subQuery)), SargabilityWarning.Type.FUNCTION_ON_COLUMN, SargabilityWarning.Type.LEADING_WILDCARD);
+    }
+
+    @Test
+    public void testHavingAndSubQueryOperands() {
+        SelectBuilder anySubQuery = new SelectBuilder(DIALECT).select("id").fromWithAlias(TABLE_A, "b").where(like("b.name", "%x"));
+        SelectBuilder scalarSubQuery = new SelectBuilder(DIALECT).select("MAX(id)").fromWithAlias(TABLE_A, "c").where(eq("LOWER(c.name)", "x"));
+        SelectBuilder havingSubQuery = new SelectBuilder(DIALECT).select("id").fromWithAlias(TABLE_A, "d").where(like("d.name", "_y"));
+        SelectBuilder query = new SelectBuilder(DIALECT)
+                .select("a.category")
+                .fromWithAlias(TABLE_A, "a")
+                .where(eq("a.id", any(anySubQuery)).and().gt("a.id", new Operand.SubQuery(scalarSubQuery)))
+                .groupBy("a.category")
+                .having(gt("COUNT(*)", 2).and().eq("a.category", all(havingSubQuery)));
+
+        assertTypes(ANALYZER.analyze(query), SargabilityWarning.Type.LEADING_WILDCARD, SargabilityWarning.Type.FUNCTION_ON_COLUMN,
+                SargabilityWarning.Type.LEADING_WILDCARD);
+    }
+
+    @Test
+    public void testOrAcrossColumns() {
+        List<SargabilityWarning> warnings = ANALYZER.analyze(eq("a", 1).or().eq("b", 2));
+
+        assertTypes(warnings, SargabilityWarning.Type.OR_ACROSS_COLUMNS);
+        assertEquals("a = ? OR b = ?", warnings.get(0).condition());
+    }
+
+    @Test
+    public void testFunctionOnColumn() {
+        assertTypes(ANALYZER.analyze(eq("UPPER(a)", "X")), SargabilityWarning.Type.FUNCTION_ON_COLUMN);
+    }
+
+    @Test
+    public void testCaseInComparison() {
+        Condition condition = eq("a", _case().whenThen(isNull("b"), 1)._else(2));
+
+        assertTypes(ANALYZER.analyze(condition), SargabilityWarning.Type.CASE_IN_COMPARISON);
+    }
+
+    private static void assertTypes(List<SargabilityWarning> warnings, SargabilityWarning.Type... types) {
+        assertEquals(List.of(types), warnings.stream().map(SargabilityWarning::type).toList());
+    }
+}
@@ -0,0 +1,33 @@
+package sqlbuilder.identifiers;
+
+import org.junit.Test;
+import sqlbuilder.exceptions.InvalidIdentifierException;
+
+import static org.junit.Assert.*;
+
+public class InternPoolTest {
+    @Test
+    public void testPoolStopsGrowingAtMaxSize() {
+        InternPool<String, String> pool = new InternPool<>(2);
+        String first = new String("a");
+
+        assertSame(first, pool.intern("a", first));
+        assertSame(first, pool.intern("a", new String("a")));
+        pool.intern("b", "b");
+
+        String notInterned = new String("c");
+        assertSame(notInterned, pool.intern("c", notInterned));
+        assertNull(pool.get("c"));
+        assertEquals(2, pool.size());
+    }
+
+    @Test
+    public void testIdentifiersAreInternedAfterValidation() {
+        assertSame(Table.of("internPoolSchema", "INTERN_POOL_TABLE"), Table.of("internPoolSchema", "INTERN_POOL_TABLE"));
+        assertSame(Column.of("t", "intern_pool_column", "a b"), Column.of("t", "intern_pool_column", "a b"));
+
+        assertThrows(InvalidIdentifierException.class, () -> Table.of("INTERN POOL TABLE"));
+        assertThrows(InvalidIdentifierException.class, () -> Table.of("INTERN POOL TABLE"));
+        assertThrows(InvalidIdentifierException.class, () -> Column.of("t", "intern_pool_column", "a\"b"));
+    }
+}
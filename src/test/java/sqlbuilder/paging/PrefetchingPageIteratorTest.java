@@ -0,0 +1,164 @@
+package sqlbuilder.paging;
+
+import org.junit.Test;
+import sqlbuilder.SelectBuilder;
+import sqlbuilder.dialects.SqlDialect;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+
+public class PrefetchingPageIteratorTest {
+    private static final SqlDialect DIALECT = new SqlDialect.PostgresDialect();
+    private static final Pattern PAGING = Pattern.compile("LIMIT (\\d+) OFFSET (\\d+)");
+    private static final int ROWS = 25;
+
+    private final List<String> statements = new CopyOnWriteArrayList<>();
+
+    @Test
+    public void testPagesAreReadByOffset() {
+        List<List<Integer>> pages = new ArrayList<>();
+        try(PrefetchingPageIterator<Integer> iterator = new PrefetchingPageIterator<>(dataSource(), query(), resultSet -> resultSet.getInt(1)).pageSize(10)) {
+            iterator.forEachRemaining(pages::add);
+        }
+
+        assertEquals(List.of(range(0, 10), range(10, 20), range(20, 25)), pages);
+        assertEquals(3, statements.size());
+        assertTrue(statements.get(2).endsWith("LIMIT 10 OFFSET 20"));
+    }
+
+    @Test
+    public void testPagesAreReadBySeek() {
+        List<List<Integer>> pages = new ArrayList<>();
+        try(PrefetchingPageIterator<Integer> iterator = new PrefetchingPageIterator<>(dataSource(), query(), resultSet -> resultSet.getInt(1))
+                .pageSize(5)
+                .seek("id", row -> row)) {
+            iterator.forEachRemaining(pages::add);
+        }
+
+        assertEquals(5, pages.size());
+        assertEquals(range(20, 25), pages.get(4));
+        // the last page is full, so one more page is requested
+        assertEquals(6, statements.size());
+        assertTrue(statements.get(1).contains("WHERE id > ?"));
+        assertTrue(statements.get(5).endsWith("LIMIT 5 OFFSET 0"));
+    }
+
+    @Test
+    public void testLoadingPausesAtPrefetchDepth() throws InterruptedException {
+        try(PrefetchingPageIterator<Integer> iterator = new PrefetchingPageIterator<>(dataSource(), query(), resultSet -> resultSet.getInt(1))
+                .pageSize(2)
+                .prefetch(1)) {
+            assertTrue(iterator.hasNext());
+
+            // one page is taken, one is buffered and one waits for space in the buffer
+            for(int i = 0; i < 500 && statements.size() < 3; i++) {
+                Thread.sleep(10);
+            }
+            Thread.sleep(50);
+            assertEquals(3, statements.size());
+
+            iterator.next();
+            iterator.next();
+            for(int i = 0; i < 500 && statements.size() < 4; i++) {
+                Thread.sleep(10);
+            }
+            assertEquals(range(4, 6), iterator.next());
+        }
+    }
+
+    @Test
+    public void testQueryCanBeIteratedTwice() {
+        SelectBuilder query = query();
+        String statement = query.build().getStatement();
+
+        for(int i = 0; i < 2; i++) {
+            List<List<Integer>> pages = new ArrayList<>();
+            try(PrefetchingPageIterator<Integer> iterator = new PrefetchingPageIterator<>(dataSource(), query, resultSet -> resultSet.getInt(1))
+                    .pageSize(10)
+                    .seek("id", row -> row)) {
+                iterator.forEachRemaining(pages::add);
+            }
+
+            assertEquals(List.of(range(0, 10), range(10, 20), range(20, 25)), pages);
+            assertEquals(statement, query.build().getStatement());
+            assertEquals(-1, query.getLimit());
+        }
+        assertFalse(statements.get(0).contains("WHERE"));
+        assertFalse(statements.get(3).contains("WHERE"));
+    }
+
+    @Test
+    public void testSeekRequiresAscendingOrder() {
+        SelectBuilder query = new SelectBuilder(DIALECT).select("id").from("TABLE_A").orderBy("id").desc();
+        PrefetchingPageIterator<Integer> iterator = new PrefetchingPageIterator<>(dataSource(), query, resultSet -> resultSet.getInt(1))
+                .seek("id", row -> row);
+
+        assertThrows(IllegalStateException.class, iterator::hasNext);
+    }
+
+    private static SelectBuilder query() {
+        return new SelectBuilder(DIALECT).select("id").from("TABLE_A").orderBy("id").asc();
+    }
+
+    private static List<Integer> range(int from, int to) {
+        return IntStream.range(from, to).boxed().toList();
+    }
+
+    /**
+     * Returns the ids from 0 to 24 with the limit and offset of the statement, after the bound key if there is one
+     */
+    private DataSource dataSource() {
+        return proxy(DataSource.class, (method, args) -> proxy(Connection.class, (connectionMethod, connectionArgs) -> {
+            if(!connectionMethod.equals("prepareStatement")) {
+                return null;
+            }
+
+            String statement = (String) connectionArgs[0];
+            statements.add(statement);
+            int[] after = {-1};
+            return proxy(PreparedStatement.class, (statementMethod, statementArgs) -> {
+                if(statementMethod.equals("setObject")) {
+                    after[0] = ((Number) statementArgs[1]).intValue();
+                }
+                if(!statementMethod.equals("executeQuery")) {
+                    return null;
+                }
+
+                Matcher paging = PAGING.matcher(statement);
+                assertTrue(paging.find());
+                List<Integer> rows = IntStream.range(after[0] + 1, ROWS)
+                        .skip(Integer.parseInt(paging.group(2)))
+                        .limit(Integer.parseInt(paging.group(1)))
+                        .boxed()
+                        .toList();
+                int[] position = {-1};
+                return proxy(ResultSet.class, (resultSetMethod, resultSetArgs) -> switch(resultSetMethod) {
+                    case "next" -> ++position[0] < rows.size();
+                    case "getInt" -> rows.get(position[0]);
+                    default -> null;
+                });
+            });
+        }));
+    }
+
+    private interface Handler {
+        Object invoke(String method, Object[] args) throws Exception;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        return (T) Proxy.newProxyInstance(PrefetchingPageIteratorTest.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> handler.invoke(method.getName(), args));
+    }
+}
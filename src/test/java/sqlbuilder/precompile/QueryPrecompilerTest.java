@@ -0,0 +1,143 @@
+package sqlbuilder.precompile;
+
+import org.junit.Test;
+import sqlbuilder.PrecompiledQuery;
+import sqlbuilder.SelectBuilder;
+import sqlbuilder.dialects.SqlDialect;
+
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+import static sqlbuilder.expressions.Expression.eq;
+import static sqlbuilder.expressions.Expression.param;
+
+public class QueryPrecompilerTest {
+    static class Queries {
+        @Precompiled
+        static final SelectBuilder ACTIVE = new SelectBuilder(new SqlDialect.H2Dialect())
+                .from("USERS")
+                .where(eq("STATUS", "it's \"active\"").and().eq("TENANT", param("precompilerTestTenant")));
+
+        @Precompiled("BY_ID")
+        static final SelectBuilder byId = new SelectBuilder(new SqlDialect.H2Dialect())
+                .from("USERS")
+                .where(eq("ID", 42L));
+    }
+
+    static class FloatingPointQueries {
+        @Precompiled
+        static final SelectBuilder SPECIAL = new SelectBuilder(new SqlDialect.H2Dialect())
+                .from("MEASUREMENTS")
+                .where(eq("A", Double.NaN).and().eq("B", Double.POSITIVE_INFINITY).and().eq("C", Double.NEGATIVE_INFINITY)
+                        .and().eq("D", Float.NaN).and().eq("E", Float.NEGATIVE_INFINITY).and().eq("F", 1.5d));
+    }
+
+    static class InvalidQueries {
+        @Precompiled
+        final SelectBuilder notStatic = new SelectBuilder(new SqlDialect.H2Dialect()).from("USERS");
+    }
+
+    @Test
+    public void testParameterLayout() {
+        PrecompiledQuery query = PrecompiledQuery.of(Queries.ACTIVE.build());
+
+        assertEquals("SELECT * FROM USERS USERS WHERE STATUS = ? AND TENANT = ?", query.getStatement());
+        assertEquals(Arrays.asList("it's \"active\"", null), query.getValues());
+        assertEquals(List.of("precompilerTestTenant"), query.getParameterKeys());
+    }
+
+    @Test
+    public void testGeneratedSource() {
+        String source = QueryPrecompiler.generate(Queries.class);
+
+        assertTrue(source.startsWith("package sqlbuilder.precompile;"));
+        assertTrue(source.contains("public final class Queries" + QueryPrecompiler.CLASS_SUFFIX + " {"));
+        assertTrue(source.contains("public static final PrecompiledQuery ACTIVE = new PrecompiledQuery(\"SELECT * FROM USERS USERS WHERE STATUS = ? AND TENANT = ?\","));
+        assertTrue(source.contains("new Object[]{\"it\\'s \\\"active\\\"\", null}"));
+        assertTrue(source.contains("new String[]{null, \"precompilerTestTenant\"}"));
+        assertTrue(source.contains("public static final PrecompiledQuery BY_ID = "));
+        assertTrue(source.contains("new Object[]{42L}"));
+    }
+
+    @Test
+    public void testNonFiniteValuesAreReferencedByConstant() {
+        String source = QueryPrecompiler.generate(FloatingPointQueries.class);
+
+        assertTrue(source.contains("new Object[]{Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Float.NaN, Float.NEGATIVE_INFINITY, 1.5d}"));
+    }
+
+    @Test
+    public void testGeneratedSourceCompiles() throws Exception {
+        PrecompiledQuery active = (PrecompiledQuery) compile(Queries.class).getField("ACTIVE").get(null);
+        PrecompiledQuery special = (PrecompiledQuery) compile(FloatingPointQueries.class).getField("SPECIAL").get(null);
+
+        PrecompiledQuery expected = PrecompiledQuery.of(Queries.ACTIVE.build());
+        assertEquals(expected.getStatement(), active.getStatement());
+        assertEquals(expected.getValues(), active.getValues());
+        assertEquals(expected.getParameterKeysPerSlot(), active.getParameterKeysPerSlot());
+        assertEquals(PrecompiledQuery.of(FloatingPointQueries.SPECIAL.build()).getValues(), special.getValues());
+    }
+
+    @Test
+    public void testFieldMustBeStatic() {
+        assertThrows(IllegalStateException.class, () -> QueryPrecompiler.generate(InvalidQueries.class));
+    }
+
+    /**
+     * Compiles the generated source in memory and loads the generated class
+     */
+    private static Class<?> compile(Class<?> declaringClass) throws ClassNotFoundException {
+        String className = declaringClass.getPackageName() + "." + declaringClass.getSimpleName() + QueryPrecompiler.CLASS_SUFFIX;
+        JavaFileObject source = new SimpleJavaFileObject(URI.create("string:///" + className.replace('.', '/') + ".java"), JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return QueryPrecompiler.generate(declaringClass);
+            }
+        };
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        Map<String, ByteArrayOutputStream> classes = new HashMap<>();
+        JavaFileManager fileManager = new ForwardingJavaFileManager<>(compiler.getStandardFileManager(null, null, null)) {
+            @Override
+            public JavaFileObject getJavaFileForOutput(Location location, String name, JavaFileObject.Kind kind, FileObject sibling) {
+                return new SimpleJavaFileObject(URI.create("bytes:///" + name.replace('.', '/') + kind.extension), kind) {
+                    @Override
+                    public OutputStream openOutputStream() {
+                        return classes.computeIfAbsent(name, key -> new ByteArrayOutputStream());
+                    }
+                };
+            }
+        };
+
+        StringWriter diagnostics = new StringWriter();
+        boolean compiled = compiler.getTask(diagnostics, fileManager, null, List.of("-classpath", System.getProperty("java.class.path")), null, List.of(source)).call();
+        assertTrue(diagnostics.toString(), compiled);
+
+        return new ClassLoader(QueryPrecompilerTest.class.getClassLoader()) {
+            @Override
+            protected Class<?> findClass(String name) throws ClassNotFoundException {
+                ByteArrayOutputStream bytes = classes.get(name);
+                if(bytes == null) {
+                    throw new ClassNotFoundException(name);
+                }
+                return defineClass(name, bytes.toByteArray(), 0, bytes.size());
+            }
+        }.loadClass(className);
+    }
+}
@@ -0,0 +1,173 @@
+package sqlbuilder.replication;
+
+import org.junit.Test;
+import sqlbuilder.Query;
+import sqlbuilder.SelectBuilder;
+import sqlbuilder.dialects.SqlDialect;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ReplicaRouterTest {
+    private static final SqlDialect DIALECT = new SqlDialect.PostgresDialect();
+    private static final SelectBuilder QUERY = new SelectBuilder(DIALECT).from("TABLE_A");
+
+    private final List<String> calls = new ArrayList<>();
+    private Runnable onQuery = () -> {
+    };
+
+    @Test
+    public void testReadsAreBalancedAcrossReplicas() throws SQLException {
+        ReplicaRouter router = new ReplicaRouter(dataSource("primary"), List.of(dataSource("replica0"), dataSource("replica1")));
+
+        router.query(QUERY, resultSet -> null);
+        router.query(QUERY, resultSet -> null);
+        router.query(QUERY, resultSet -> null);
+
+        assertEquals(List.of("replica0", "replica1", "replica0"), calls);
+    }
+
+    @Test
+    public void testReadGoesToReplicaWithFewestOutstandingRequests() throws SQLException {
+        ReplicaRouter router = new ReplicaRouter(dataSource("primary"), List.of(dataSource("replica0"), dataSource("replica1"), dataSource("replica2")));
+        router.query(QUERY, resultSet -> null);
+        calls.clear();
+
+        // while the query on replica1 runs, another query starts on the same thread
+        List<Integer> outstanding = new ArrayList<>();
+        onQuery = () -> {
+            onQuery = () -> outstanding.add(router.getOutstandingRequests(1) + router.getOutstandingRequests(2));
+            try {
+                router.query(QUERY, resultSet -> null);
+            } catch(SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        };
+        router.query(QUERY, resultSet -> null);
+
+        assertEquals(List.of("replica1", "replica2"), calls);
+        assertEquals(List.of(2), outstanding);
+        assertEquals(0, router.getOutstandingRequests(1));
+    }
+
+    @Test
+    public void testStaleReplicasAreSkipped() throws SQLException {
+        DataSource staleReplica = dataSource("replica0");
+        List<DataSource> checked = new ArrayList<>();
+        ReplicaRouter router = new ReplicaRouter(dataSource("primary"), List.of(staleReplica, dataSource("replica1")))
+                .lagCheck(replica -> {
+                    checked.add(replica);
+                    return replica == staleReplica;
+                }, Duration.ofMinutes(1));
+
+        router.query(QUERY, resultSet -> null);
+        router.query(QUERY, resultSet -> null);
+
+        assertEquals(List.of("replica1", "replica1"), calls);
+        assertEquals(2, checked.size());
+    }
+
+    @Test
+    public void testReadsGoToPrimaryWithoutUsableReplica() throws SQLException {
+        ReplicaRouter router = new ReplicaRouter(dataSource("primary"), List.of(dataSource("replica0")))
+                .lagCheck(replica -> {
+                    throw new SQLException("replication status unavailable");
+                }, Duration.ZERO);
+
+        router.query(QUERY, resultSet -> null);
+
+        assertEquals(List.of("primary", "primary:prepareStatement"), calls);
+    }
+
+    @Test
+    public void testReplicaIsNotUsedBeforeFirstLagCheck() throws SQLException {
+        List<ReplicaRouter> routers = new ArrayList<>();
+        ReplicaRouter router = new ReplicaRouter(dataSource("primary"), List.of(dataSource("replica0")))
+                .lagCheck(replica -> {
+                    // a read while the first check is running must not use the unchecked replica
+                    routers.get(0).query(QUERY, resultSet -> null);
+                    return false;
+                }, Duration.ofMinutes(1));
+        routers.add(router);
+
+        router.query(QUERY, resultSet -> null);
+
+        assertEquals(List.of("primary", "primary:prepareStatement", "replica0"), calls);
+    }
+
+    @Test
+    public void testTransactionRunsOnPrimary() throws SQLException {
+        ReplicaRouter router = new ReplicaRouter(dataSource("primary"), List.of(dataSource("replica0")));
+
+        router.transaction(connection -> {
+            assertTrue(router.isInTransaction());
+            router.update(new Query("UPDATE TABLE_A SET columnA = 1", List.of()));
+            return router.query(QUERY, resultSet -> null);
+        });
+
+        assertFalse(router.isInTransaction());
+        assertEquals(List.of("primary", "primary:setAutoCommit", "primary:prepareStatement", "primary:prepareStatement", "primary:commit", "primary:setAutoCommit"), calls);
+    }
+
+    @Test
+    public void testFailedTransactionIsRolledBack() {
+        ReplicaRouter router = new ReplicaRouter(dataSource("primary"), List.of(dataSource("replica0")));
+
+        assertThrows(IllegalStateException.class, () -> router.transaction(connection -> {
+            throw new IllegalStateException("failed");
+        }));
+
+        assertTrue(calls.contains("primary:rollback"));
+        assertFalse(router.isInTransaction());
+    }
+
+    /**
+     * Records the name when a connection is taken. Connections of the primary also record their calls.
+     */
+    private DataSource dataSource(String name) {
+        ResultSet resultSet = proxy(ResultSet.class, (method, args) -> method.equals("next") ? false : null);
+        PreparedStatement preparedStatement = proxy(PreparedStatement.class, (method, args) -> {
+            if(method.equals("executeQuery")) {
+                onQuery.run();
+                return resultSet;
+            }
+            return method.equals("executeUpdate") ? 1 : null;
+        });
+        Connection connection = proxy(Connection.class, (method, args) -> {
+            if(name.equals("primary") && !method.equals("close") && !method.equals("getAutoCommit")) {
+                calls.add(name + ":" + method);
+            }
+            return switch(method) {
+                case "prepareStatement" -> preparedStatement;
+                case "getAutoCommit" -> true;
+                default -> null;
+            };
+        });
+        return proxy(DataSource.class, (method, args) -> {
+            if(method.equals("getConnection")) {
+                calls.add(name);
+                return connection;
+            }
+            return null;
+        });
+    }
+
+    private interface Handler {
+        Object invoke(String method, Object[] args) throws Exception;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        return (T) Proxy.newProxyInstance(ReplicaRouterTest.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> handler.invoke(method.getName(), args));
+    }
+}
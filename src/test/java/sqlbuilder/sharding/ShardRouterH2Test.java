@@ -0,0 +1,91 @@
+package sqlbuilder.sharding;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import sqlbuilder.SelectBuilder;
+import sqlbuilder.dialects.SqlDialect;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static sqlbuilder.expressions.Expression.in;
+
+/**
+ * Scatter-gather queries against three in-memory H2 databases
+ */
+public class ShardRouterH2Test {
+    private static final SqlDialect DIALECT = new SqlDialect.H2Dialect();
+    private static final int SHARDS = 3;
+
+    private final List<DataSource> shards = new ArrayList<>();
+
+    @Before
+    public void createShards() throws SQLException {
+        for(int i = 0; i < SHARDS; i++) {
+            String url = "jdbc:h2:mem:shard_router_" + i + ";DB_CLOSE_DELAY=-1";
+            shards.add((DataSource) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{DataSource.class},
+                    (proxy, method, args) -> method.getName().equals("getConnection") ? DriverManager.getConnection(url) : null));
+        }
+
+        // the tenant modulo 3 is the shard, created runs from 1 to 9 across all shards
+        for(int tenant = 1; tenant <= 9; tenant++) {
+            try(Connection connection = shards.get(tenant % SHARDS).getConnection(); Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE IF NOT EXISTS ORDERS (TENANT INT, CREATED INT)");
+                statement.execute("INSERT INTO ORDERS VALUES (" + tenant + ", " + (10 - tenant) + ")");
+            }
+        }
+    }
+
+    @After
+    public void dropShards() throws SQLException {
+        for(DataSource shard : shards) {
+            try(Connection connection = shard.getConnection(); Statement statement = connection.createStatement()) {
+                statement.execute("DROP ALL OBJECTS");
+            }
+        }
+    }
+
+    @Test
+    public void testPageIsMergedAcrossShards() throws SQLException {
+        SelectBuilder query = query().orderBy("created").asc().limit(3).offset(2);
+
+        List<Integer> created = router().query(query, resultSet -> resultSet.getInt("created"));
+
+        assertEquals(List.of(3, 4, 5), created);
+        assertEquals(3, query.getLimit());
+        assertEquals(2, query.getOffset());
+    }
+
+    @Test
+    public void testLargeLimitDoesNotOverflow() throws SQLException {
+        SelectBuilder query = query().orderBy("created").desc().limit(Integer.MAX_VALUE).offset(7);
+
+        List<Integer> created = router().query(query, resultSet -> resultSet.getInt("created"));
+
+        assertEquals(List.of(2, 1), created);
+    }
+
+    @Test
+    public void testShardKeyConditionReadsOneShard() throws SQLException {
+        List<Integer> tenants = router().query(query().where(in("tenant", 2, 5)).orderBy("tenant").asc(),
+                resultSet -> resultSet.getInt("tenant"));
+
+        assertEquals(List.of(2, 5), tenants);
+    }
+
+    private ShardRouter router() {
+        return new ShardRouter("tenant", shards, (key, shardCount) -> ((Number) key).intValue() % shardCount);
+    }
+
+    private static SelectBuilder query() {
+        return new SelectBuilder(DIALECT).select("tenant", "created").from("ORDERS");
+    }
+}
@@ -0,0 +1,165 @@
+package sqlbuilder.sharding;
+
+import org.junit.Test;
+import sqlbuilder.SelectBuilder;
+import sqlbuilder.dialects.SqlDialect;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+import static sqlbuilder.expressions.Expression.*;
+
+public class ShardRouterTest {
+    private static final SqlDialect DIALECT = new SqlDialect.PostgresDialect();
+    private static final String TABLE_A = "TABLE_A";
+    private static final String SHARD_KEY = "tenant";
+    private static final List<String> COLUMNS = List.of(SHARD_KEY, "created");
+
+    private final List<String> statements = new ArrayList<>();
+
+    @Test
+    public void testEqualityConditionRoutesToOneShard() {
+        ShardRouter router = router(List.of(), List.of(), List.of());
+
+        assertEquals(List.of(2), router.route(query().where(eq(SHARD_KEY, 5))));
+        assertEquals(List.of(2), router.route(query().where(eq("t." + SHARD_KEY, 5L).and().gt("created", 1))));
+    }
+
+    @Test
+    public void testInConditionRoutesToMatchingShards() {
+        ShardRouter router = router(List.of(), List.of(), List.of());
+
+        assertEquals(List.of(0, 1), router.route(query().where(in(SHARD_KEY, 3, 4, 7))));
+        assertEquals(List.of(0, 2), router.route(query().where(eq(SHARD_KEY, 3).or().eq(SHARD_KEY, 5))));
+        assertEquals(List.of(1), router.route(query().where(in(SHARD_KEY, 3, 4)).where(in(SHARD_KEY, 4, 5))));
+    }
+
+    @Test
+    public void testOtherConditionsRouteToAllShards() {
+        ShardRouter router = router(List.of(), List.of(), List.of());
+
+        assertEquals(List.of(0, 1, 2), router.route(query()));
+        assertEquals(List.of(0, 1, 2), router.route(query().where(gt(SHARD_KEY, 3))));
+        assertEquals(List.of(0, 1, 2), router.route(query().where(notIn(SHARD_KEY, 3))));
+        assertEquals(List.of(0, 1, 2), router.route(query().where(eq(SHARD_KEY, 3).or().eq("created", 1))));
+    }
+
+    @Test
+    public void testRowsAreMergedByOrder() throws SQLException {
+        ShardRouter router = router(List.of(row(3, 1), row(6, 4), row(9, 7)), List.of(row(4, 2), row(7, 8)), List.of(row(5, 3), row(8, 5), row(11, 6)));
+
+        List<Integer> created = router.query(query().orderBy("created").asc().limit(4).offset(2), resultSet -> resultSet.getInt(2));
+
+        assertEquals(List.of(3, 4, 5, 6), created);
+        assertEquals(3, statements.size());
+        statements.forEach(statement -> assertEquals("SELECT tenant AS \"tenant\", created AS \"created\" FROM TABLE_A TABLE_A ORDER BY created ASC  LIMIT 6 OFFSET 0", statement));
+    }
+
+    @Test
+    public void testQueryIsNotChangedAndEndIsSaturated() throws SQLException {
+        ShardRouter router = router(List.of(row(3, 1)), List.of(row(4, 2)), List.of(row(5, 3)));
+        SelectBuilder query = query().orderBy("created").asc().limit(Integer.MAX_VALUE).offset(1);
+
+        List<Integer> created = router.query(query, resultSet -> resultSet.getInt(2));
+
+        assertEquals(List.of(2, 3), created);
+        assertEquals(Integer.MAX_VALUE, query.getLimit());
+        assertEquals(1, query.getOffset());
+        statements.forEach(statement -> assertTrue(statement.endsWith("LIMIT " + Integer.MAX_VALUE + " OFFSET 0")));
+    }
+
+    @Test
+    public void testRowsAreMergedDescending() throws SQLException {
+        ShardRouter router = router(List.of(row(6, null), row(3, 7)), List.of(row(4, 8), row(7, 2)), List.of(row(5, 5L)));
+
+        List<Object> created = router.query(query().orderBy("created").desc(), resultSet -> resultSet.getObject(2));
+
+        assertEquals(Arrays.asList(null, 8, 7, 5L, 2), created);
+    }
+
+    @Test
+    public void testSingleShardIsQueriedDirectly() throws SQLException {
+        ShardRouter router = router(List.of(), List.of(), List.of(row(5, 1), row(5, 2)));
+
+        List<Integer> created = router.query(query().where(eq(SHARD_KEY, 5)).limit(1), resultSet -> resultSet.getInt(2));
+
+        assertEquals(List.of(1, 2), created);
+        assertEquals(List.of("SELECT tenant AS \"tenant\", created AS \"created\" FROM TABLE_A TABLE_A WHERE tenant = ?  LIMIT 1 OFFSET 0"), statements);
+    }
+
+    @Test
+    public void testOrderColumnHasToBeSelected() {
+        ShardRouter router = router(List.of(row(3, 1)), List.of(), List.of());
+
+        assertThrows(SQLException.class, () -> router.query(query().orderBy("updated"), resultSet -> resultSet.getInt(2)));
+    }
+
+    private static SelectBuilder query() {
+        return new SelectBuilder(DIALECT)
+                .select(SHARD_KEY, "created")
+                .from(TABLE_A);
+    }
+
+    private static List<Object> row(Object tenant, Object created) {
+        return Arrays.asList(tenant, created);
+    }
+
+    /**
+     * Creates a router with a shard function that uses the key modulo 3. The shards return their rows for every query.
+     */
+    @SafeVarargs
+    private ShardRouter router(List<List<Object>>... shards) {
+        List<DataSource> dataSources = new ArrayList<>();
+        for(List<List<Object>> rows : shards) {
+            dataSources.add(dataSource(rows));
+        }
+        return new ShardRouter(SHARD_KEY, dataSources, (key, shardCount) -> ((Number) key).intValue() % shardCount)
+                .executor(Runnable::run);
+    }
+
+    private DataSource dataSource(List<List<Object>> rows) {
+        int[] position = {-1};
+        ResultSet resultSet = proxy(ResultSet.class, (method, args) -> switch(method) {
+            case "next" -> ++position[0] < rows.size();
+            case "findColumn" -> {
+                int index = COLUMNS.indexOf((String) args[0]);
+                if(index < 0) {
+                    throw new SQLException("Unknown column " + args[0]);
+                }
+                yield index + 1;
+            }
+            case "getObject" -> rows.get(position[0]).get((int) args[0] - 1);
+            case "getInt" -> ((Number) rows.get(position[0]).get((int) args[0] - 1)).intValue();
+            default -> null;
+        });
+        PreparedStatement preparedStatement = proxy(PreparedStatement.class, (method, args) -> method.equals("executeQuery") ? resultSet : null);
+        Connection connection = proxy(Connection.class, (method, args) -> {
+            if(method.equals("prepareStatement")) {
+                statements.add((String) args[0]);
+                return preparedStatement;
+            }
+            return null;
+        });
+        return proxy(DataSource.class, (method, args) -> method.equals("getConnection") ? connection : null);
+    }
+
+    private interface Handler {
+        Object invoke(String method, Object[] args) throws Exception;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        return (T) Proxy.newProxyInstance(ShardRouterTest.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> handler.invoke(method.getName(), args));
+    }
+}
@@ -0,0 +1,141 @@
+package sqlbuilder.spill;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class SpillableResultTest {
+    @Test
+    public void testSmallResultStaysInMemory() {
+        try(SpillableResult result = new SpillableResult(1024 * 1024, null)) {
+            result.add(new Object[]{1, "a"});
+            result.add(new Object[]{2, "b"});
+
+            assertFalse(result.isSpilled());
+            assertEquals(2, result.size());
+            assertEquals(List.of(List.of(1, "a"), List.of(2, "b")), read(result));
+        }
+    }
+
+    @Test
+    public void testLargeResultIsSpilledAndReadTwice() throws Exception {
+        Path directory = Files.createTempDirectory("spill-test");
+        Timestamp timestamp = Timestamp.valueOf("2024-05-01 10:15:30.123456789");
+        List<List<Object>> expected = new ArrayList<>();
+        try(SpillableResult result = new SpillableResult(256, directory)) {
+            for(int i = 0; i < 100; i++) {
+                Object[] row = {i, (long) i * 1_000_000_000L, i * 0.5, "row " + i, i % 2 == 0, null,
+                        new BigDecimal("12345678901234567890.12").add(BigDecimal.valueOf(i)), new Date(86_400_000L * i), timestamp};
+                result.add(row);
+                expected.add(Arrays.asList(row));
+            }
+
+            assertTrue(result.isSpilled());
+            assertEquals(1, countFiles(directory));
+            assertEquals(expected.toString(), read(result).toString());
+            assertEquals(expected.toString(), read(result).toString());
+            assertEquals(timestamp, result.iterator().next()[8]);
+        }
+        assertEquals(0, countFiles(directory));
+    }
+
+    @Test
+    public void testRowsDoNotCrossSegments() {
+        try(SpillableResult result = new SpillableResult(0, null, 64)) {
+            for(int i = 0; i < 20; i++) {
+                result.add(new Object[]{i, "value " + i, new byte[]{(byte) i}});
+            }
+
+            int row = 0;
+            for(Object[] values : result) {
+                assertEquals(row, values[0]);
+                assertEquals("value " + row, values[1]);
+                assertArrayEquals(new byte[]{(byte) row}, (byte[]) values[2]);
+                row++;
+            }
+            assertEquals(20, row);
+        }
+    }
+
+    @Test
+    public void testRowsCannotBeAddedAfterIteration() {
+        try(SpillableResult result = new SpillableResult(0, null)) {
+            result.add(new Object[]{1});
+            result.iterator();
+
+            assertThrows(IllegalStateException.class, () -> result.add(new Object[]{2}));
+        }
+    }
+
+    @Test
+    public void testUnsupportedValuesAreRejected() {
+        try(SpillableResult result = new SpillableResult(0, null)) {
+            assertThrows(IllegalArgumentException.class, () -> result.add(new Object[]{new Object()}));
+        }
+
+        try(SpillableResult result = new SpillableResult(1024 * 1024, null)) {
+            assertThrows(IllegalArgumentException.class, () -> result.add(new Object[]{new Object()}));
+        }
+    }
+
+    @Test
+    public void testRowsAreIdenticalInMemoryAndSpilled() {
+        Object[] row = {(short) 7, (byte) 3, 1.5f, new BigInteger("123456789012345678901234567890"), Time.valueOf("10:15:30"),
+                LocalDate.of(2024, 5, 1), LocalTime.of(10, 15, 30, 123), LocalDateTime.of(2024, 5, 1, 10, 15, 30, 456),
+                OffsetDateTime.of(2024, 5, 1, 10, 15, 30, 789, ZoneOffset.ofHours(2)), Instant.ofEpochSecond(1_700_000_000L, 42),
+                UUID.fromString("123e4567-e89b-12d3-a456-426614174000")};
+
+        try(SpillableResult inMemory = new SpillableResult(1024 * 1024, null);
+            SpillableResult spilled = new SpillableResult(0, null)) {
+            inMemory.add(row);
+            spilled.add(row);
+
+            assertFalse(inMemory.isSpilled());
+            assertTrue(spilled.isSpilled());
+            assertEquals(List.of(Arrays.asList(row)), read(inMemory));
+            assertEquals(read(inMemory), read(spilled));
+        }
+    }
+
+    @Test
+    public void testAbandonedPassesDoNotBlockClose() {
+        SpillableResult result = new SpillableResult(0, null);
+        for(int i = 0; i < 10; i++) {
+            result.add(new Object[]{i});
+        }
+
+        for(int pass = 0; pass < 3; pass++) {
+            assertEquals(0, result.iterator().next()[0]);
+        }
+        result.close();
+        assertThrows(IllegalStateException.class, result::iterator);
+    }
+
+    private static List<List<Object>> read(SpillableResult result) {
+        List<List<Object>> rows = new ArrayList<>();
+        for(Object[] row : result) {
+            rows.add(Arrays.asList(row));
+        }
+        return rows;
+    }
+
+    private static long countFiles(Path directory) throws Exception {
+        try(Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package sqlbuilder.statistics;
+
+import org.junit.Test;
+import sqlbuilder.InsertBuilder;
+import sqlbuilder.PrecompiledQuery;
+import sqlbuilder.Query;
+import sqlbuilder.SelectBuilder;
+import sqlbuilder.dialects.SqlDialect;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+import static sqlbuilder.expressions.Expression.in;
+
+public class QueryStatisticsTest {
+    private static final SqlDialect DIALECT = new SqlDialect.H2Dialect();
+
+    @Test
+    public void testInListsAreCollapsed() {
+        assertEquals("SELECT * FROM A A WHERE B IN ( ?... ) AND C = ?",
+                QueryStatistics.normalize("SELECT * FROM A A WHERE B IN ( ?, ?, ? ) AND C = ?"));
+    }
+
+    @Test
+    public void testStatementsWithDifferentInListsShareStatistics() {
+        QueryStatistics statistics = new QueryStatistics();
+        Query twoValues = new SelectBuilder(DIALECT).from("A").where(in("B", 1, 2)).build();
+        Query threeValues = new SelectBuilder(DIALECT).from("A").where(in("B", 1, 2, 3)).build();
+
+        statistics.recordSuccess(twoValues, 1_000, 2);
+        statistics.recordSuccess(threeValues, 3_000, 3);
+        statistics.recordError(threeValues, 5_000);
+
+        StatementStatistics statementStatistics = statistics.get(twoValues.getStatement());
+        assertSame(statementStatistics, statistics.get(threeValues.getStatement()));
+        assertEquals(3, statementStatistics.getCalls());
+        assertEquals(1, statementStatistics.getErrors());
+        assertEquals(5, statementStatistics.getRows());
+        assertEquals(5_000, statementStatistics.getMaxNanos());
+    }
+
+    @Test
+    public void testPercentiles() {
+        QueryStatistics statistics = new QueryStatistics();
+        for(int i = 1; i <= 100; i++) {
+            statistics.recordSuccess("SELECT 1", i * 1_000L, 1);
+        }
+
+        StatementStatistics statementStatistics = statistics.get("SELECT 1");
+        assertWithinBucket(50_000, statementStatistics.getP50Nanos());
+        assertWithinBucket(99_000, statementStatistics.getP99Nanos());
+        assertEquals(100_000, statementStatistics.getMaxNanos());
+    }
+
+    @Test
+    public void testSlowest() {
+        QueryStatistics statistics = new QueryStatistics();
+        statistics.recordSuccess("FAST", 10, 1);
+        statistics.recordSuccess("SLOW", 10_000, 1);
+        statistics.recordSuccess("MEDIUM", 1_000, 1);
+
+        List<StatementStatistics> slowest = statistics.slowest(2);
+        assertEquals(2, slowest.size());
+        assertEquals("SLOW", slowest.get(0).getStatement());
+        assertEquals("MEDIUM", slowest.get(1).getStatement());
+    }
+
+    @Test
+    public void testMaxStatements() {
+        QueryStatistics statistics = new QueryStatistics(1);
+        statistics.recordSuccess("FIRST", 10, 1);
+        statistics.recordSuccess("SECOND", 10, 1);
+        statistics.recordSuccess("THIRD", 10, 1);
+
+        assertEquals(2, statistics.get(QueryStatistics.OTHER_STATEMENTS).getCalls());
+    }
+
+    @Test
+    public void testExecutionsAreRecorded() throws SQLException {
+        QueryStatistics statistics = new QueryStatistics();
+        QueryStatistics previous = Query.getStatistics();
+        Query.setStatistics(statistics);
+        try {
+            Query query = new Query("SELECT ID FROM STATISTICS_TABLE", List.of());
+            query.executeQuery(connection(3, false), resultSet -> resultSet.getInt(1));
+            query.executeQuery(connection(2, false), resultSet -> resultSet.getInt(1));
+            assertThrows(SQLException.class, () -> query.executeQuery(connection(0, true), resultSet -> resultSet.getInt(1)));
+
+            StatementStatistics statementStatistics = statistics.get(query.getStatement());
+            assertEquals(3, statementStatistics.getCalls());
+            assertEquals(1, statementStatistics.getErrors());
+            assertEquals(5, statementStatistics.getRows());
+            assertTrue(statementStatistics.getTotalNanos() > 0);
+        } finally {
+            Query.setStatistics(previous);
+        }
+    }
+
+    @Test
+    public void testInsertsAndPrecompiledQueriesAreRecorded() throws SQLException {
+        QueryStatistics statistics = new QueryStatistics();
+        QueryStatistics previous = Query.getStatistics();
+        Query.setStatistics(statistics);
+        try {
+            PreparedStatement preparedStatement = proxy(PreparedStatement.class, (method, args) -> switch(method) {
+                case "executeBatch" -> new int[]{1, 1};
+                case "executeUpdate" -> 2;
+                default -> null;
+            });
+            Connection connection = proxy(Connection.class, (method, args) -> method.equals("prepareStatement") ? preparedStatement : null);
+
+            new InsertBuilder(new SqlDialect.OracleDialect()).into("STATISTICS_BATCH").columns("ID").row(1).row(2).execute(connection);
+            new InsertBuilder(DIALECT).into("STATISTICS_ROWS").columns("ID").row(1).row(2).execute(connection);
+            PrecompiledQuery precompiled = new PrecompiledQuery("DELETE FROM STATISTICS_PRECOMPILED", new Object[0], new String[0]);
+            precompiled.executeUpdate(connection, Map.of());
+
+            assertEquals(List.of("DELETE FROM STATISTICS_PRECOMPILED", "INSERT INTO STATISTICS_BATCH (ID) VALUES (?)", "INSERT INTO STATISTICS_ROWS (ID) VALUES (?), (?)"),
+                    statistics.getAll().stream().map(StatementStatistics::getStatement).sorted().toList());
+            statistics.getAll().forEach(statementStatistics -> assertEquals(2, statementStatistics.getRows()));
+        } finally {
+            Query.setStatistics(previous);
+        }
+    }
+
+    private static Connection connection(int rows, boolean fail) {
+        int[] position = {0};
+        ResultSet resultSet = proxy(ResultSet.class, (method, args) -> switch(method) {
+            case "next" -> position[0]++ < rows;
+            case "getInt" -> position[0];
+            default -> null;
+        });
+        PreparedStatement preparedStatement = proxy(PreparedStatement.class, (method, args) -> {
+            if(fail && method.equals("executeQuery")) {
+                throw new SQLException("failed");
+            }
+            return method.equals("executeQuery") ? resultSet : null;
+        });
+        return proxy(Connection.class, (method, args) -> method.equals("prepareStatement") ? preparedStatement : null);
+    }
+
+    private interface Handler {
+        Object invoke(String method, Object[] args) throws Exception;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        return (T) Proxy.newProxyInstance(QueryStatisticsTest.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> handler.invoke(method.getName(), args));
+    }
+
+    private static void assertWithinBucket(long expected, long actual) {
+        assertTrue("expected " + actual + " to be within 12.5% of " + expected, actual >= expected && actual <= expected * 1.125);
+    }
+}